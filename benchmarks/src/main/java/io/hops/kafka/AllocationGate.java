@@ -0,0 +1,84 @@
+package io.hops.kafka;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs {@link AuthorizeAllocationBenchmark} with the GC profiler and fails if a benchmark allocates more bytes per
+ * authorization than its budget. Bound to the verify phase of the root build and of the benchmarks module.
+ * <p>
+ */
+public final class AllocationGate {
+
+  private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+  // Bytes allocated per authorization by an authorizer configured with the default settings, the audit log and the
+  // metrics included: mostly the decision cache key and the result list. Guava's access bookkeeping of the
+  // size bounded decision cache may add a queue node, which is what the slack is for.
+  private static final Map<String, Double> BUDGETS = new HashMap<>();
+
+  static {
+    BUDGETS.put("sameProject", 96.0);
+    BUDGETS.put("sharedProject", 96.0);
+    // the principal name is cut out of the subject names
+    BUDGETS.put("alternativeNames", 160.0);
+    BUDGETS.put("superUser", 48.0);
+  }
+
+  private AllocationGate() {
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(AuthorizeAllocationBenchmark.class.getName())
+        .addProfiler(GCProfiler.class)
+        .warmupIterations(3)
+        .warmupTime(TimeValue.seconds(1))
+        .measurementIterations(3)
+        .measurementTime(TimeValue.seconds(1))
+        .forks(1)
+        .build();
+    Collection<RunResult> runResults = new Runner(options).run();
+
+    int failures = 0;
+    Set<String> labels = new HashSet<>();
+    for (RunResult runResult : runResults) {
+      String label = runResult.getPrimaryResult().getLabel();
+      labels.add(label);
+      Result allocated = runResult.getSecondaryResults().get(ALLOC_RATE_NORM);
+      Double budget = BUDGETS.get(label);
+      if (allocated == null || budget == null) {
+        System.err.printf("%s: no allocation budget or %s result%n", label, ALLOC_RATE_NORM);
+        failures++;
+      } else if (allocated.getScore() > budget) {
+        System.err.printf("%s: allocates %.1f B/op, budget is %.1f B/op%n", label, allocated.getScore(), budget);
+        failures++;
+      } else {
+        System.out.printf("%s: allocates %.1f B/op, budget is %.1f B/op%n", label, allocated.getScore(), budget);
+      }
+    }
+    for (String label : BUDGETS.keySet()) {
+      if (!labels.contains(label)) {
+        // a benchmark that fails to run has no result
+        System.err.printf("%s: no result%n", label);
+        failures++;
+      }
+    }
+    if (failures > 0) {
+      System.err.printf("%d benchmark(s) over their allocation budget%n", failures);
+      System.exit(1);
+    }
+  }
+}
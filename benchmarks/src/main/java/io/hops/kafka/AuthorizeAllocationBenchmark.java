@@ -0,0 +1,92 @@
+package io.hops.kafka;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.requests.RequestContext;
+import org.apache.kafka.server.authorizer.Action;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.javatuples.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single action authorizations on hot caches, the way the broker authorizes most produce and fetch requests. The
+ * authorizer is configured with the default settings, auditing, metrics and the decision cache included. Run it
+ * with {@code -prof gc}, gc.alloc.rate.norm is the number of bytes allocated per authorization.
+ * {@link AllocationGate} fails the build if it grows.
+ * <p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthorizeAllocationBenchmark {
+
+  private static final String PRINCIPAL_NAME = "project__user";
+  private static final String SUPER_USER_NAME = "broker";
+
+  private HopsAclAuthorizer authorizer;
+  private RequestContext projectUserContext;
+  private RequestContext alternativeNamesContext;
+  private RequestContext superUserContext;
+  private List<Action> sameProjectAction;
+  private List<Action> sharedProjectAction;
+
+  @Setup
+  public void setup() throws UnknownHostException {
+    Map<String, Integer> topicProjects = new HashMap<>();
+    topicProjects.put("topic", 1);
+    topicProjects.put("shared_topic", 2);
+    authorizer = BenchmarkFixtures.configuredAuthorizer(Consts.ENGINE_CACHE, SUPER_USER_NAME, topicProjects,
+        Collections.singletonMap(PRINCIPAL_NAME, new Pair<>(1, Consts.DATA_OWNER)),
+        Collections.singletonMap(new Pair<>(2, 1), Consts.READ_ONLY));
+
+    projectUserContext = BenchmarkFixtures.requestContext(PRINCIPAL_NAME);
+    alternativeNamesContext = BenchmarkFixtures.requestContext(PRINCIPAL_NAME + ";alternative_name");
+    superUserContext = BenchmarkFixtures.requestContext(SUPER_USER_NAME);
+    sameProjectAction = Collections.singletonList(BenchmarkFixtures.topicAction(AclOperation.WRITE, "topic"));
+    sharedProjectAction = Collections.singletonList(BenchmarkFixtures.topicAction(AclOperation.READ, "shared_topic"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    authorizer.close();
+  }
+
+  @Benchmark
+  public List<AuthorizationResult> sameProject() {
+    return authorizer.authorize(projectUserContext, sameProjectAction);
+  }
+
+  @Benchmark
+  public List<AuthorizationResult> sharedProject() {
+    return authorizer.authorize(projectUserContext, sharedProjectAction);
+  }
+
+  @Benchmark
+  public List<AuthorizationResult> alternativeNames() {
+    return authorizer.authorize(alternativeNamesContext, sameProjectAction);
+  }
+
+  @Benchmark
+  public List<AuthorizationResult> superUser() {
+    return authorizer.authorize(superUserContext, sameProjectAction);
+  }
+}
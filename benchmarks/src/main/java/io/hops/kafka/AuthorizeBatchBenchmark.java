@@ -0,0 +1,89 @@
+package io.hops.kafka;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.requests.RequestContext;
+import org.apache.kafka.server.authorizer.Action;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.javatuples.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares authorizing a large request (e.g. Metadata or OffsetFetch) in one batch call with authorizing its actions
+ * one by one, on hot caches. Scores are per request, divide by the number of topics to get the per action cost.
+ * <p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthorizeBatchBenchmark {
+
+  private static final String PRINCIPAL_NAME = "project__user";
+  private static final String SUPER_USER_NAME = "broker";
+
+  @Param({"1000", "10000"})
+  private int topics;
+
+  // share of actions on a topic that is already part of the request, e.g. several partitions of the same topic
+  @Param({"0", "50"})
+  private int duplicatePercent;
+
+  private HopsAclAuthorizer authorizer;
+  private RequestContext requestContext;
+  private List<Action> actions;
+
+  @Setup
+  public void setup() throws UnknownHostException {
+    Map<String, Integer> topicProjects = new HashMap<>();
+    int distinctTopics = Math.max(1, topics * (100 - duplicatePercent) / 100);
+    actions = new ArrayList<>(topics);
+    for (int i = 0; i < topics; i++) {
+      String topicName = "topic-" + (i % distinctTopics);
+      topicProjects.put(topicName, 1);
+      actions.add(BenchmarkFixtures.topicAction(AclOperation.DESCRIBE, topicName));
+    }
+
+    authorizer = BenchmarkFixtures.configuredAuthorizer(Consts.ENGINE_CACHE, SUPER_USER_NAME, topicProjects,
+        Collections.singletonMap(PRINCIPAL_NAME, new Pair<>(1, Consts.DATA_OWNER)), Collections.emptyMap());
+    requestContext = BenchmarkFixtures.requestContext(PRINCIPAL_NAME);
+  }
+
+  @TearDown
+  public void tearDown() {
+    authorizer.close();
+  }
+
+  @Benchmark
+  public List<AuthorizationResult> batch() {
+    return authorizer.authorize(requestContext, actions);
+  }
+
+  @Benchmark
+  public void perAction(Blackhole blackhole) {
+    for (Action action : actions) {
+      blackhole.consume(authorizer.authorize(PRINCIPAL_NAME, action));
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package io.hops.kafka;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.requests.RequestContext;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.server.authorizer.Action;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.javatuples.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of authorize calls on hot caches of an authorizer configured with the default settings, from several
+ * request handler threads at once: single actions, large batches, super user and anonymous short cuts and topics
+ * shared from another project. Override the number of threads with -t to match the broker's num.io.threads.
+ * <p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthorizeBenchmark {
+
+  private static final String PRINCIPAL_NAME = "project__user";
+  private static final String SUPER_USER_NAME = "broker";
+  private static final int OWN_PROJECT_ID = 1;
+  private static final int SHARING_PROJECT_ID = 2;
+
+  @Param({"cache", "snapshot"})
+  private String engine;
+
+  @Param({"1000"})
+  private int batchSize;
+
+  private HopsAclAuthorizer authorizer;
+  private RequestContext projectUserContext;
+  private RequestContext superUserContext;
+  private RequestContext anonymousContext;
+  private List<Action> ownTopicAction;
+  private List<Action> sharedTopicAction;
+  private List<Action> batch;
+
+  @Setup
+  public void setup() throws UnknownHostException {
+    Map<String, Integer> topicProjects = new HashMap<>();
+    batch = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      // half of the topics of a large request are shared from another project
+      String topicName = "topic-" + i;
+      topicProjects.put(topicName, i % 2 == 0 ? OWN_PROJECT_ID : SHARING_PROJECT_ID);
+      batch.add(BenchmarkFixtures.topicAction(AclOperation.DESCRIBE, topicName));
+    }
+    Map<String, Pair<Integer, String>> projectRoles =
+        Collections.singletonMap(PRINCIPAL_NAME, new Pair<>(OWN_PROJECT_ID, Consts.DATA_OWNER));
+    Map<Pair<Integer, Integer>, String> sharedProjects =
+        Collections.singletonMap(new Pair<>(SHARING_PROJECT_ID, OWN_PROJECT_ID), Consts.READ_ONLY);
+
+    authorizer = BenchmarkFixtures.configuredAuthorizer(engine, SUPER_USER_NAME, topicProjects, projectRoles,
+        sharedProjects);
+
+    projectUserContext = BenchmarkFixtures.requestContext(PRINCIPAL_NAME);
+    superUserContext = BenchmarkFixtures.requestContext(SUPER_USER_NAME);
+    anonymousContext = BenchmarkFixtures.requestContext(KafkaPrincipal.ANONYMOUS.getName());
+    ownTopicAction = Collections.singletonList(BenchmarkFixtures.topicAction(AclOperation.WRITE, "topic-0"));
+    sharedTopicAction = Collections.singletonList(BenchmarkFixtures.topicAction(AclOperation.READ, "topic-1"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    authorizer.close();
+  }
+
+  @Benchmark
+  public List<AuthorizationResult> singleAction() {
+    return authorizer.authorize(projectUserContext, ownTopicAction);
+  }
+
+  @Benchmark
+  public List<AuthorizationResult> sharedProject() {
+    return authorizer.authorize(projectUserContext, sharedTopicAction);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<AuthorizationResult> largeBatch() {
+    return authorizer.authorize(projectUserContext, batch);
+  }
+
+  @Benchmark
+  public List<AuthorizationResult> superUser() {
+    return authorizer.authorize(superUserContext, ownTopicAction);
+  }
+
+  @Benchmark
+  public List<AuthorizationResult> anonymous() {
+    return authorizer.authorize(anonymousContext, ownTopicAction);
+  }
+}
@@ -0,0 +1,170 @@
+package io.hops.kafka;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.requests.RequestContext;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.server.authorizer.Action;
+import org.javatuples.Pair;
+import org.javatuples.Quartet;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Authorizer and requests shared by the benchmarks. The authorizer is configured like a broker, its queries are served
+ * from memory instead of a database.
+ * <p>
+ */
+final class BenchmarkFixtures {
+
+  static final String CLIENT_ADDRESS = "10.0.2.15";
+
+  private BenchmarkFixtures() {
+  }
+
+  /**
+   * Authorizer configured like a broker with the default settings, so auditing, metrics and the decision cache are
+   * part of the measurement. The queries are served from the given tables, which are loaded up front.
+   *
+   * @param engine {@link Consts#ENGINE_CACHE} or {@link Consts#ENGINE_SNAPSHOT}
+   */
+  static HopsAclAuthorizer configuredAuthorizer(String engine, String superUserName,
+                                                Map<String, Integer> topicProjects,
+                                                Map<String, Pair<Integer, String>> projectRoles,
+                                                Map<Pair<Integer, Integer>, String> sharedProjects) {
+    Map<String, String> configs = new HashMap<>();
+    configs.put(Consts.AUTHORIZER_ENGINE, engine);
+    configs.put(Consts.SUPERUSERS_PROP, KafkaPrincipal.USER_TYPE + ":" + superUserName);
+    configs.put(Consts.DATABASE_MAX_POOL_SIZE, "8");
+    configs.put(Consts.DATABASE_ACL_POLLING_FREQUENCY_MS, "60000");
+    configs.put(Consts.CACHE_MAX_SIZE, "100000");
+    DbConnection dbConnection = new StaticDbConnection(topicProjects, projectRoles, sharedProjects);
+    HopsAclAuthorizer authorizer = new HopsAclAuthorizer() {
+      @Override
+      protected DbConnection createDbConnection(Map<String, ?> configs, CircuitBreaker circuitBreaker) {
+        return dbConnection;
+      }
+    };
+    authorizer.configure(configs);
+    if (Consts.ENGINE_SNAPSHOT.equals(engine)) {
+      authorizer.reloadSnapshot();
+    } else {
+      authorizer.warmUpCaches();
+    }
+    return authorizer;
+  }
+
+  static RequestContext requestContext(String principalName) throws UnknownHostException {
+    return new RequestContext(null, null, InetAddress.getByName(CLIENT_ADDRESS),
+        new KafkaPrincipal(KafkaPrincipal.USER_TYPE, principalName), null, null, null, false);
+  }
+
+  static Action topicAction(AclOperation operation, String topicName) {
+    return new Action(operation, new ResourcePattern(ResourceType.TOPIC, topicName, PatternType.LITERAL), 1, true,
+        true);
+  }
+
+  // Serves the queries from memory
+  private static final class StaticDbConnection extends DbConnection {
+
+    private final Map<String, Integer> topicProjects;
+    private final Map<String, Pair<Integer, String>> projectRoles;
+    private final Map<Pair<Integer, Integer>, String> sharedProjects;
+    private final Map<Integer, ProjectTopics> projectTopics;
+
+    private StaticDbConnection(Map<String, Integer> topicProjects, Map<String, Pair<Integer, String>> projectRoles,
+                               Map<Pair<Integer, Integer>, String> sharedProjects) {
+      super(null);
+      this.topicProjects = topicProjects;
+      this.projectRoles = projectRoles;
+      this.sharedProjects = sharedProjects;
+      this.projectTopics = ProjectTopics.index(topicProjects, ProjectShareMap.of(sharedProjects));
+    }
+
+    @Override
+    public Integer getTopicProject(String topicName) {
+      return topicProjects.get(topicName);
+    }
+
+    @Override
+    public Pair<Integer, String> getProjectRole(String projectName, String username) {
+      return projectRoles.get(projectName + Consts.PROJECT_USER_DELIMITER + username);
+    }
+
+    @Override
+    public String getSharedProject(int userProjectId, int topicProjectId) {
+      return sharedProjects.get(new Pair<>(topicProjectId, userProjectId));
+    }
+
+    @Override
+    public ProjectTopics getProjectTopics(int projectId) {
+      return projectTopics.getOrDefault(projectId, ProjectTopics.EMPTY);
+    }
+
+    @Override
+    public Quartet<Integer, Integer, String, String> getTopicAccess(String topicName, String projectName,
+                                                                    String username) {
+      Integer topicProjectId = getTopicProject(topicName);
+      Pair<Integer, String> projectRole = getProjectRole(projectName, username);
+      String sharePermission = topicProjectId == null || projectRole == null ? null
+          : getSharedProject(projectRole.getValue0(), topicProjectId);
+      return new Quartet<>(topicProjectId, projectRole == null ? null : projectRole.getValue0(),
+          projectRole == null ? null : projectRole.getValue1(), sharePermission);
+    }
+
+    @Override
+    public Map<String, Integer> getTopicProjects() {
+      return topicProjects;
+    }
+
+    @Override
+    public Map<String, Pair<Integer, String>> getProjectRoles() {
+      return projectRoles;
+    }
+
+    @Override
+    public Map<Pair<Integer, Integer>, String> getSharedProjects() {
+      return sharedProjects;
+    }
+
+    @Override
+    public Map<String, Integer> getTopicProjects(Collection<String> topicNames) {
+      return rows(topicProjects, topicNames);
+    }
+
+    @Override
+    public Map<String, Pair<Integer, String>> getProjectRoles(Collection<Pair<String, String>> projectUsers) {
+      Map<String, Pair<Integer, String>> rows = new HashMap<>();
+      for (Pair<String, String> projectUser : projectUsers) {
+        String principalName = projectUser.getValue0() + Consts.PROJECT_USER_DELIMITER + projectUser.getValue1();
+        Pair<Integer, String> projectRole = projectRoles.get(principalName);
+        if (projectRole != null) {
+          rows.put(principalName, projectRole);
+        }
+      }
+      return rows;
+    }
+
+    @Override
+    public Map<Pair<Integer, Integer>, String> getSharedProjects(Collection<Pair<Integer, Integer>> projectPairs) {
+      return rows(sharedProjects, projectPairs);
+    }
+
+    private static <K, V> Map<K, V> rows(Map<K, V> table, Collection<K> keys) {
+      Map<K, V> rows = new HashMap<>();
+      for (K key : keys) {
+        V value = table.get(key);
+        if (value != null) {
+          rows.put(key, value);
+        }
+      }
+      return rows;
+    }
+  }
+}
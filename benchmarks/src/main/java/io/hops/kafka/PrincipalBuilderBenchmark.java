@@ -0,0 +1,73 @@
+package io.hops.kafka;
+
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.common.security.auth.SslAuthenticationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ssl.SSLSession;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Principal building of a new TLS connection, from a leaf, intermediate and root certificate chain whose leaf
+ * carries DNS, IP and email subject alternative names.
+ * <p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PrincipalBuilderBenchmark {
+
+  private static final String PEER_CHAIN = "peer-chain.pem";
+
+  private HopsPrincipalBuilder principalBuilder;
+  private SslAuthenticationContext authenticationContext;
+
+  @Setup
+  public void setup() throws Exception {
+    Certificate[] chain;
+    try (InputStream pem = PrincipalBuilderBenchmark.class.getResourceAsStream(PEER_CHAIN)) {
+      chain = CertificateFactory.getInstance("X.509").generateCertificates(pem).toArray(new Certificate[0]);
+    }
+    X509Certificate leaf = (X509Certificate) chain[0];
+    // Only the peer principal and certificates are read from the session
+    SSLSession session = (SSLSession) Proxy.newProxyInstance(SSLSession.class.getClassLoader(),
+        new Class<?>[]{SSLSession.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getPeerPrincipal":
+              return leaf.getSubjectX500Principal();
+            case "getPeerCertificates":
+              return chain.clone();
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+    principalBuilder = new HopsPrincipalBuilder();
+    authenticationContext = new SslAuthenticationContext(session,
+        InetAddress.getByName(BenchmarkFixtures.CLIENT_ADDRESS), "CLIENT");
+  }
+
+  @Benchmark
+  public KafkaPrincipal build() {
+    return principalBuilder.build(authenticationContext);
+  }
+}
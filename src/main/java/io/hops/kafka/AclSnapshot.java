@@ -0,0 +1,150 @@
+package io.hops.kafka;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.javatuples.Pair;
+
+/**
+ * Immutable view of the whole authorization state of HopsWorks: topic projects, project member roles and
+ * project shares. Used by the snapshot engine, which swaps in a new instance on every reload.
+ * <p>
+ */
+public final class AclSnapshot {
+
+  // topicName -> topicProjectId
+  private final Map<String, Integer> topicProjects;
+  // principalName (aka. projectName__username) -> userProjectId, userRole
+  private final Map<String, Pair<Integer, String>> projectRoles;
+  // topicProjectId, userProjectId -> sharePermission
+  private final ProjectShareMap sharedProjects;
+  // projectId -> owned and shared in topics
+  private final Map<Integer, ProjectTopics> projectTopics;
+  // When the state was read from the database
+  private final long loadedAtMs;
+
+  public AclSnapshot(Map<String, Integer> topicProjects,
+                     Map<String, Pair<Integer, String>> projectRoles,
+                     Map<Pair<Integer, Integer>, String> sharedProjects) {
+    this(topicProjects, projectRoles, sharedProjects, System.currentTimeMillis());
+  }
+
+  public AclSnapshot(Map<String, Integer> topicProjects,
+                     Map<String, Pair<Integer, String>> projectRoles,
+                     Map<Pair<Integer, Integer>, String> sharedProjects,
+                     long loadedAtMs) {
+    this(Collections.unmodifiableMap(topicProjects), Collections.unmodifiableMap(projectRoles),
+        ProjectShareMap.of(sharedProjects), loadedAtMs);
+  }
+
+  private AclSnapshot(Map<String, Integer> topicProjects,
+                      Map<String, Pair<Integer, String>> projectRoles,
+                      ProjectShareMap sharedProjects,
+                      long loadedAtMs) {
+    this(topicProjects, projectRoles, sharedProjects, ProjectTopics.index(topicProjects, sharedProjects),
+        loadedAtMs);
+  }
+
+  private AclSnapshot(Map<String, Integer> topicProjects,
+                      Map<String, Pair<Integer, String>> projectRoles,
+                      ProjectShareMap sharedProjects,
+                      Map<Integer, ProjectTopics> projectTopics,
+                      long loadedAtMs) {
+    this.topicProjects = topicProjects;
+    this.projectRoles = projectRoles;
+    this.sharedProjects = sharedProjects;
+    this.projectTopics = projectTopics;
+    this.loadedAtMs = loadedAtMs;
+  }
+
+  public static AclSnapshot load(DbConnection dbConnection) throws SQLException {
+    // rows changed while the tables are read may be missing
+    long loadedAtMs = System.currentTimeMillis();
+    return new AclSnapshot(
+        dbConnection.getTopicProjects(),
+        dbConnection.getProjectRoles(),
+        dbConnection.getSharedProjects(),
+        loadedAtMs);
+  }
+
+  /**
+   * Copy of the snapshot with the rows read again from the database, a null value removes the row. The load time is
+   * kept, the other rows were not read again. Only the maps with changed rows are copied, the others are shared with
+   * this snapshot.
+   */
+  public AclSnapshot update(Map<String, Integer> changedTopicProjects,
+                            Map<String, Pair<Integer, String>> changedProjectRoles,
+                            Map<Pair<Integer, Integer>, String> changedSharedProjects) {
+    Map<String, Integer> newTopicProjects = apply(topicProjects, changedTopicProjects);
+    Map<String, Pair<Integer, String>> newProjectRoles = apply(projectRoles, changedProjectRoles);
+    ProjectShareMap newSharedProjects = sharedProjects;
+    if (!changedSharedProjects.isEmpty()) {
+      newSharedProjects = sharedProjects.copy();
+      for (Map.Entry<Pair<Integer, Integer>, String> changedShare : changedSharedProjects.entrySet()) {
+        int topicProjectId = changedShare.getKey().getValue0();
+        int userProjectId = changedShare.getKey().getValue1();
+        newSharedProjects.remove(topicProjectId, userProjectId);
+        if (changedShare.getValue() != null) {
+          newSharedProjects.put(topicProjectId, userProjectId, ProjectShareMap.encode(changedShare.getValue()));
+        }
+      }
+    }
+    if (changedTopicProjects.isEmpty() && changedSharedProjects.isEmpty()) {
+      // the topic access of the projects depends only on the topics and the shares
+      return new AclSnapshot(newTopicProjects, newProjectRoles, newSharedProjects, projectTopics, loadedAtMs);
+    }
+    return new AclSnapshot(newTopicProjects, newProjectRoles, newSharedProjects, loadedAtMs);
+  }
+
+  private static <K, V> Map<K, V> apply(Map<K, V> rows, Map<K, V> changedRows) {
+    if (changedRows.isEmpty()) {
+      return rows;
+    }
+    Map<K, V> newRows = new HashMap<>(rows);
+    for (Map.Entry<K, V> changedRow : changedRows.entrySet()) {
+      if (changedRow.getValue() == null) {
+        newRows.remove(changedRow.getKey());
+      } else {
+        newRows.put(changedRow.getKey(), changedRow.getValue());
+      }
+    }
+    return Collections.unmodifiableMap(newRows);
+  }
+
+  public Integer getTopicProject(String topicName) {
+    return topicProjects.get(topicName);
+  }
+
+  public Pair<Integer, String> getProjectRole(String principalName) {
+    return projectRoles.get(principalName);
+  }
+
+  /**
+   * @return the permission code of {@link ProjectShareMap}
+   */
+  public byte getSharedProject(int topicProjectId, int userProjectId) {
+    return sharedProjects.get(topicProjectId, userProjectId);
+  }
+
+  public ProjectTopics getProjectTopics(int projectId) {
+    return projectTopics.getOrDefault(projectId, ProjectTopics.EMPTY);
+  }
+
+  public Map<String, Integer> getTopicProjects() {
+    return topicProjects;
+  }
+
+  public Map<String, Pair<Integer, String>> getProjectRoles() {
+    return projectRoles;
+  }
+
+  public ProjectShareMap getSharedProjects() {
+    return sharedProjects;
+  }
+
+  public long getLoadedAtMs() {
+    return loadedAtMs;
+  }
+}
@@ -0,0 +1,124 @@
+package io.hops.kafka;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how fast the cache misses of request threads reach the database, with a token bucket per principal and one
+ * shared by all principals, so a client cycling through unknown topics or principals cannot take the connection pool
+ * from everyone else. A request thread enters with its principal before it authorizes a request, loads over the
+ * limit then fail with a {@link ThrottledException}. Loads of threads without a principal (warm up, refresh,
+ * snapshot) are not limited. The bursts are one second worth of loads. Throttled loads are counted in aggregate, the
+ * principals are only logged, at most once per {@value #THROTTLED_LOG_INTERVAL_MS} ms.
+ * <p>
+ */
+public class AdmissionControl {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AdmissionControl.class.getName());
+
+  // The bucket of a principal is forgotten a while after its last load
+  private static final long PRINCIPAL_IDLE_MS = 600000;
+  private static final long THROTTLED_LOG_INTERVAL_MS = 10000;
+
+  // null if the rate of all principals is not limited
+  private final TokenBucket global;
+  // null if the rate of each principal is not limited
+  private final LoadingCache<String, TokenBucket> principals;
+  // null if metrics are disabled
+  private final AuthorizerMetrics metrics;
+  private final ThreadLocal<String> principalName = new ThreadLocal<>();
+  private final LongAdder throttledSinceLog = new LongAdder();
+  private final AtomicLong nextThrottledLogNanos = new AtomicLong(System.nanoTime());
+
+  /**
+   * @param globalRate    loads per second of all principals, 0 for no limit
+   * @param principalRate loads per second of each principal, 0 for no limit
+   * @param maxPrincipals principals whose rate is tracked, the least recently seen are forgotten
+   */
+  public AdmissionControl(double globalRate, double principalRate, long maxPrincipals, AuthorizerMetrics metrics) {
+    this.global = globalRate > 0 ? newTokenBucket(globalRate) : null;
+    this.principals = principalRate > 0 ? CacheBuilder.newBuilder()
+        .maximumSize(maxPrincipals)
+        .expireAfterAccess(PRINCIPAL_IDLE_MS, TimeUnit.MILLISECONDS)
+        .build(CacheLoader.from(() -> newTokenBucket(principalRate))) : null;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Attributes the loads of the current thread to the principal until {@link #exit()}.
+   */
+  public void enter(String principalName) {
+    this.principalName.set(principalName);
+  }
+
+  public void exit() {
+    principalName.remove();
+  }
+
+  /**
+   * Takes a token of the principal of the current thread and a shared one, does nothing if the thread has no
+   * principal.
+   *
+   * @throws ThrottledException if one of the buckets is empty
+   */
+  public void acquire() throws ThrottledException {
+    String name = principalName.get();
+    if (name == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    // a throttled principal does not take the shared tokens
+    if (principals != null && !principals.getUnchecked(name).tryAcquire(now)) {
+      throw throttled(name, "Load rate of the principal exceeded", now);
+    }
+    if (global != null && !global.tryAcquire(now)) {
+      throw throttled(name, "Load rate of all principals exceeded", now);
+    }
+  }
+
+  /**
+   * Wraps a cache loader so its loads take tokens first.
+   */
+  public <K, V> CacheLoader<K, V> admitted(CacheLoader<K, V> cacheLoader) {
+    return new CacheLoader<K, V>() {
+      @Override
+      public V load(K key) throws Exception {
+        acquire();
+        return cacheLoader.load(key);
+      }
+
+      @Override
+      public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+        // bulk loads are one query
+        acquire();
+        return cacheLoader.loadAll(keys);
+      }
+    };
+  }
+
+  private ThrottledException throttled(String name, String message, long now) {
+    if (metrics != null) {
+      metrics.recordThrottled();
+    }
+    throttledSinceLog.increment();
+    long nextLogNanos = nextThrottledLogNanos.get();
+    if (now - nextLogNanos >= 0 && nextThrottledLogNanos.compareAndSet(nextLogNanos,
+        now + TimeUnit.MILLISECONDS.toNanos(THROTTLED_LOG_INTERVAL_MS))) {
+      LOGGER.warn("Throttled {} cache misses since the last report, the last one of {}: {}",
+          throttledSinceLog.sumThenReset(), name, message);
+    }
+    return new ThrottledException(message);
+  }
+
+  private static TokenBucket newTokenBucket(double rate) {
+    return new TokenBucket(rate, Math.max(1, rate), System.nanoTime());
+  }
+}
@@ -0,0 +1,261 @@
+package io.hops.kafka;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Asynchronous audit trail of authorization decisions. Request handler threads publish decisions into a preallocated
+ * lock free ring buffer, a background thread drains it, counts identical decisions and writes one line per principal,
+ * resource, operation and result once per window. If the buffer is full decisions are dropped and counted instead of
+ * blocking the request handler.
+ * <p>
+ */
+public class AuditLog implements AutoCloseable {
+
+  // The logger Kafka's log4j.properties sends to kafka-authorizer.log, the decisions were logged there before they
+  // were aggregated
+  private static final Logger AUDIT_LOGGER = LoggerFactory.getLogger("kafka.authorizer.logger");
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuditLog.class.getName());
+  // The buffer is drained more often than the window is flushed, so that it does not fill up within a window
+  private static final long MAX_DRAIN_INTERVAL_MS = 100;
+
+  private final Slot[] slots;
+  // Sequence of each slot, position of the slot when it is free to write, position + 1 once published
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong producerPosition = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final long windowMs;
+  private final BiConsumer<Entry, Long> sink;
+
+  // Only used by the draining thread
+  private long consumerPosition;
+  private final Map<Entry, AtomicLong> window = new HashMap<>();
+  private long windowStart = System.currentTimeMillis();
+
+  private ScheduledExecutorService executor;
+
+  public AuditLog(int bufferSize, long windowMs) {
+    this(bufferSize, windowMs, AuditLog::log);
+  }
+
+  // For testing
+  AuditLog(int bufferSize, long windowMs, BiConsumer<Entry, Long> sink) {
+    int capacity = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+    this.slots = new Slot[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new Slot();
+      sequences.set(i, i);
+    }
+    this.mask = capacity - 1;
+    this.windowMs = windowMs;
+    this.sink = sink;
+  }
+
+  /**
+   * Starts draining the buffer in the background.
+   */
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("hops-authorizer-audit-%d").setDaemon(true).build());
+    long drainIntervalMs = Math.max(1, Math.min(windowMs, MAX_DRAIN_INTERVAL_MS));
+    executor.scheduleWithFixedDelay(this::drainSafely, drainIntervalMs, drainIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Publishes a decision without blocking or allocating.
+   *
+   * @return false if the buffer is full and the decision was dropped
+   */
+  public boolean record(String principalName, ResourceType resourceType, String resourceName, AclOperation operation,
+                        AuthorizationResult result) {
+    long position = producerPosition.get();
+    while (true) {
+      int index = (int) position & mask;
+      long available = sequences.get(index) - position;
+      if (available == 0) {
+        if (producerPosition.compareAndSet(position, position + 1)) {
+          Slot slot = slots[index];
+          slot.principalName = principalName;
+          slot.resourceType = resourceType;
+          slot.resourceName = resourceName;
+          slot.operation = operation;
+          slot.result = result;
+          sequences.lazySet(index, position + 1);
+          return true;
+        }
+        position = producerPosition.get();
+      } else if (available < 0) {
+        dropped.incrementAndGet();
+        return false;
+      } else {
+        position = producerPosition.get();
+      }
+    }
+  }
+
+  /**
+   * Moves the published decisions into the current window and flushes the window once it is over.
+   */
+  synchronized void drain() {
+    while (true) {
+      int index = (int) consumerPosition & mask;
+      if (sequences.get(index) != consumerPosition + 1) {
+        break;
+      }
+      Slot slot = slots[index];
+      Entry entry = new Entry(slot.principalName, slot.resourceType, slot.resourceName, slot.operation, slot.result);
+      slot.principalName = null;
+      slot.resourceName = null;
+      sequences.lazySet(index, consumerPosition + mask + 1);
+      consumerPosition++;
+
+      AtomicLong count = window.get(entry);
+      if (count == null) {
+        window.put(entry, new AtomicLong(1));
+      } else {
+        count.incrementAndGet();
+      }
+    }
+    if (System.currentTimeMillis() - windowStart >= windowMs) {
+      flush();
+    }
+  }
+
+  /**
+   * Writes the aggregated decisions of the current window and starts a new one.
+   */
+  synchronized void flush() {
+    for (Map.Entry<Entry, AtomicLong> aggregate : window.entrySet()) {
+      sink.accept(aggregate.getKey(), aggregate.getValue().get());
+    }
+    window.clear();
+    windowStart = System.currentTimeMillis();
+    long droppedDecisions = dropped.getAndSet(0);
+    if (droppedDecisions > 0) {
+      LOGGER.warn("Audit buffer full, dropped {} decisions", droppedDecisions);
+    }
+  }
+
+  long getDropped() {
+    return dropped.get();
+  }
+
+  private void drainSafely() {
+    try {
+      drain();
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to drain audit buffer", e);
+    }
+  }
+
+  /**
+   * Stops the background thread and flushes what is left in the buffer.
+   */
+  @Override
+  public synchronized void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    drain();
+    flush();
+  }
+
+  private static void log(Entry entry, Long count) {
+    AUDIT_LOGGER.info("User '{}' performs '{}' on resource '{}' named '{}': {} ({} times)", entry.principalName,
+        entry.operation, entry.resourceType, entry.resourceName, entry.result, count);
+  }
+
+  // Preallocated, reused for every decision published at its position
+  private static final class Slot {
+    private String principalName;
+    private ResourceType resourceType;
+    private String resourceName;
+    private AclOperation operation;
+    private AuthorizationResult result;
+  }
+
+  /**
+   * Decisions that are aggregated into one audit line.
+   */
+  public static final class Entry {
+
+    private final String principalName;
+    private final ResourceType resourceType;
+    private final String resourceName;
+    private final AclOperation operation;
+    private final AuthorizationResult result;
+
+    public Entry(String principalName, ResourceType resourceType, String resourceName, AclOperation operation,
+                 AuthorizationResult result) {
+      this.principalName = principalName;
+      this.resourceType = resourceType;
+      this.resourceName = resourceName;
+      this.operation = operation;
+      this.result = result;
+    }
+
+    public String getPrincipalName() {
+      return principalName;
+    }
+
+    public ResourceType getResourceType() {
+      return resourceType;
+    }
+
+    public String getResourceName() {
+      return resourceName;
+    }
+
+    public AclOperation getOperation() {
+      return operation;
+    }
+
+    public AuthorizationResult getResult() {
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry that = (Entry) o;
+      return resourceType == that.resourceType && operation == that.operation && result == that.result &&
+          Objects.equals(principalName, that.principalName) && Objects.equals(resourceName, that.resourceName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(principalName, resourceType, resourceName, operation, result);
+    }
+
+    @Override
+    public String toString() {
+      return "Entry{principalName='" + principalName + "', resourceType=" + resourceType + ", resourceName='" +
+          resourceName + "', operation=" + operation + ", result=" + result + "}";
+    }
+  }
+}
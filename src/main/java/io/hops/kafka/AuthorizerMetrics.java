@@ -0,0 +1,299 @@
+package io.hops.kafka;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.JmxReporter;
+import org.apache.kafka.common.metrics.KafkaMetricsContext;
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.CumulativeCount;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.common.metrics.stats.Percentile;
+import org.apache.kafka.common.metrics.stats.Percentiles;
+import org.apache.kafka.common.metrics.stats.Rate;
+import org.apache.kafka.common.metrics.stats.WindowedCount;
+import org.apache.kafka.common.metrics.stats.WindowedSum;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.utils.Time;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Metrics of the authorizer, reported to JMX under {@value #JMX_PREFIX}: authorize latency per resource type, cache
+ * statistics, database query latency per statement and connection pool usage. Latencies are in milliseconds, except
+ * the authorize latency percentiles which are in microseconds.
+ * Authorize calls are counted with striped counters, only a sample of them records its latency in the synchronized
+ * sensors.
+ * <p>
+ */
+public class AuthorizerMetrics implements AutoCloseable {
+
+  public static final String JMX_PREFIX = "kafka.authorizer";
+  public static final String GROUP = "hops-acl-authorizer";
+
+  // 1000 buckets whose width grows linearly up to the max, the last bucket is 2 / 1000 of the max wide
+  private static final int PERCENTILES_SIZE_IN_BYTES = 4000;
+  // Query and pool wait latencies, up to the database timeouts
+  private static final double PERCENTILES_MAX_MS = 1000;
+  // Authorize latencies, cache hits take a few microseconds and loads above the max fall in the last bucket
+  private static final double AUTHORIZE_PERCENTILES_MAX_US = 10000;
+  // One in this many authorize calls records its latency
+  private static final int AUTHORIZE_SAMPLE_INTERVAL = 16;
+
+  private final Metrics metrics;
+  private final int authorizeSampleInterval;
+  private final Map<ResourceType, LongAdder> authorizeCount = new EnumMap<>(ResourceType.class);
+  private final Map<ResourceType, Sensor> authorizeLatency = new EnumMap<>(ResourceType.class);
+  private final Map<ResourceType, Sensor> authorizeLatencyUs = new EnumMap<>(ResourceType.class);
+  private final Map<ResourceType, Sensor> authorizeRate = new EnumMap<>(ResourceType.class);
+  private final Sensor retries;
+  private final Sensor budgetExceeded;
+  private final Sensor throttled;
+  private final Sensor nameFilterDenied;
+  private final ConcurrentMap<String, Sensor> queryLatency = new ConcurrentHashMap<>();
+
+  public AuthorizerMetrics() {
+    this(new Metrics(new MetricConfig(), Collections.singletonList(new JmxReporter()), Time.SYSTEM,
+        new KafkaMetricsContext(JMX_PREFIX)), AUTHORIZE_SAMPLE_INTERVAL);
+  }
+
+  // For testing
+  AuthorizerMetrics(Metrics metrics, int authorizeSampleInterval) {
+    this.metrics = metrics;
+    this.authorizeSampleInterval = authorizeSampleInterval;
+    for (ResourceType resourceType : ResourceType.values()) {
+      Map<String, String> tags = Collections.singletonMap("resource-type", resourceType.name().toLowerCase());
+      LongAdder count = new LongAdder();
+      authorizeCount.put(resourceType, count);
+      metrics.addMetric(metrics.metricName("authorize-total", GROUP, "Calls", tags), (config, now) -> count.sum());
+      Sensor latency = metrics.sensor("authorize-" + resourceType.name().toLowerCase());
+      addAvgMax(latency, "authorize", tags);
+      authorizeLatency.put(resourceType, latency);
+      Sensor latencyUs = metrics.sensor("authorize-us-" + resourceType.name().toLowerCase());
+      addPercentiles(latencyUs, "authorize", "-us", "microseconds", AUTHORIZE_PERCENTILES_MAX_US, tags);
+      authorizeLatencyUs.put(resourceType, latencyUs);
+      // each sampled call stands for the calls that were not sampled
+      Sensor rate = metrics.sensor("authorize-sampled-" + resourceType.name().toLowerCase());
+      rate.add(metrics.metricName("authorize-rate", GROUP, "Calls per second", tags), new Rate(new WindowedSum()));
+      authorizeRate.put(resourceType, rate);
+    }
+    retries = metrics.sensor("authorize-retries");
+    retries.add(metrics.metricName("authorize-retry-rate", GROUP, "Authorizations retried per second"),
+        new Rate(new WindowedCount()));
+    retries.add(metrics.metricName("authorize-retry-total", GROUP, "Authorizations retried"), new CumulativeCount());
+    budgetExceeded = metrics.sensor("authorize-budget-exceeded");
+    budgetExceeded.add(metrics.metricName("authorize-budget-exceeded-rate", GROUP,
+        "Authorizations answered by the fallback per second"), new Rate(new WindowedCount()));
+    budgetExceeded.add(metrics.metricName("authorize-budget-exceeded-total", GROUP,
+        "Authorizations answered by the fallback"), new CumulativeCount());
+    throttled = metrics.sensor("load-throttled");
+    throttled.add(metrics.metricName("load-throttled-rate", GROUP, "Cache misses throttled per second"),
+        new Rate(new WindowedCount()));
+    throttled.add(metrics.metricName("load-throttled-total", GROUP, "Cache misses throttled"), new CumulativeCount());
+    nameFilterDenied = metrics.sensor("name-filter-denied");
+    nameFilterDenied.add(metrics.metricName("name-filter-denied-rate", GROUP,
+        "Authorizations denied per second because the topic or the principal is not registered"),
+        new Rate(new WindowedCount()));
+    nameFilterDenied.add(metrics.metricName("name-filter-denied-total", GROUP,
+        "Authorizations denied because the topic or the principal is not registered"), new CumulativeCount());
+  }
+
+  /**
+   * @return the start of an authorize call whose latency is sampled, 0 if the call is only counted
+   */
+  public long startAuthorize() {
+    return ThreadLocalRandom.current().nextInt(authorizeSampleInterval) == 0 ? System.nanoTime() : 0;
+  }
+
+  /**
+   * @param startNanos returned by {@link #startAuthorize()}
+   */
+  public void recordAuthorize(ResourceType resourceType, long startNanos) {
+    authorizeCount.get(resourceType).increment();
+    if (startNanos != 0) {
+      long elapsedNanos = System.nanoTime() - startNanos;
+      authorizeLatency.get(resourceType).record((double) elapsedNanos / TimeUnit.MILLISECONDS.toNanos(1));
+      authorizeLatencyUs.get(resourceType).record((double) elapsedNanos / TimeUnit.MICROSECONDS.toNanos(1));
+      authorizeRate.get(resourceType).record(authorizeSampleInterval);
+    }
+  }
+
+  public void recordRetry() {
+    retries.record();
+  }
+
+  public void recordBudgetExceeded() {
+    budgetExceeded.record();
+  }
+
+  public void recordNameFilterDenied() {
+    nameFilterDenied.record();
+  }
+
+  /**
+   * Counts a throttled cache miss. There are no counters per principal, a client cycling through principal names
+   * would register a metric for each.
+   */
+  public void recordThrottled() {
+    throttled.record();
+  }
+
+  public void recordQuery(String statement, long startNanos) {
+    queryLatency.computeIfAbsent(statement, this::querySensor).record(elapsedMs(startNanos));
+  }
+
+  /**
+   * Reports the statistics of a cache built with recordStats.
+   */
+  public void registerCache(String cacheName, Cache<?, ?> cache) {
+    Map<String, String> tags = Collections.singletonMap("cache", cacheName);
+    addCacheMetric("cache-hit-total", "Cache hits", tags, cache, CacheStats::hitCount);
+    addCacheMetric("cache-miss-total", "Cache misses", tags, cache, CacheStats::missCount);
+    addCacheMetric("cache-hit-ratio", "Ratio of hits to requests", tags, cache, CacheStats::hitRate);
+    addCacheMetric("cache-load-success-total", "Successful loads", tags, cache, CacheStats::loadSuccessCount);
+    addCacheMetric("cache-load-failure-total", "Failed loads", tags, cache, CacheStats::loadExceptionCount);
+    addCacheMetric("cache-load-time-avg", "Average load time in ms", tags, cache,
+        stats -> stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1));
+    addCacheMetric("cache-eviction-total", "Evicted and expired entries", tags, cache, CacheStats::evictionCount);
+    metrics.addMetric(metrics.metricName("cache-size", GROUP, "Entries in the cache", tags),
+        (config, now) -> cache.size());
+  }
+
+  /**
+   * Counts the entries a cache evicted because it reached its size or memory bound, then calls the listener.
+   */
+  public <K, V> RemovalListener<K, V> countSizeEvictions(String cacheName, RemovalListener<K, V> removalListener) {
+    Map<String, String> tags = Collections.singletonMap("cache", cacheName);
+    Sensor sizeEvictions = metrics.sensor("cache-size-evictions-" + cacheName);
+    sizeEvictions.add(metrics.metricName("cache-size-eviction-rate", GROUP,
+        "Entries evicted per second because the cache is full", tags), new Rate(new WindowedCount()));
+    sizeEvictions.add(metrics.metricName("cache-size-eviction-total", GROUP,
+        "Entries evicted because the cache is full", tags), new CumulativeCount());
+    return notification -> recordRemoval(sizeEvictions, notification, removalListener);
+  }
+
+  private static <K, V> void recordRemoval(Sensor sizeEvictions, RemovalNotification<K, V> notification,
+                                           RemovalListener<K, V> removalListener) {
+    if (notification.getCause() == RemovalCause.SIZE) {
+      sizeEvictions.record();
+    }
+    removalListener.onRemoval(notification);
+  }
+
+  /**
+   * Reports whether the database circuit breaker is open, 1 if it is.
+   */
+  public void registerCircuitBreaker(CircuitBreaker circuitBreaker) {
+    metrics.addMetric(metrics.metricName("database-circuit-open", GROUP, "1 if the database circuit breaker is open"),
+        (config, now) -> circuitBreaker.isOpen() ? 1 : 0);
+  }
+
+  /**
+   * Reports connection pool usage and the time spent waiting for a connection.
+   */
+  public MetricsTrackerFactory poolMetricsTrackerFactory(int maximumPoolSize) {
+    return poolMetricsTrackerFactory(maximumPoolSize, Collections.emptyMap());
+  }
+
+  /**
+   * Reports the usage of one of several pools, told apart by the tags.
+   */
+  public MetricsTrackerFactory poolMetricsTrackerFactory(int maximumPoolSize, Map<String, String> tags) {
+    return (poolName, poolStats) -> poolMetricsTracker(poolStats, maximumPoolSize, tags);
+  }
+
+  private IMetricsTracker poolMetricsTracker(PoolStats poolStats, int maximumPoolSize, Map<String, String> tags) {
+    addPoolMetric("pool-active-connections", "Connections in use", tags, poolStats::getActiveConnections);
+    addPoolMetric("pool-idle-connections", "Idle connections", tags, poolStats::getIdleConnections);
+    addPoolMetric("pool-total-connections", "Open connections", tags, poolStats::getTotalConnections);
+    addPoolMetric("pool-pending-threads", "Threads waiting for a connection", tags, poolStats::getPendingThreads);
+    addPoolMetric("pool-usage-ratio", "Ratio of connections in use to the maximum pool size", tags,
+        () -> (double) poolStats.getActiveConnections() / maximumPoolSize);
+    String sensorSuffix = tags.isEmpty() ? "" : "-" + tags.values();
+    Sensor wait = latencySensor("pool-wait" + sensorSuffix, "pool-wait", tags);
+    Sensor timeouts = metrics.sensor("pool-timeouts" + sensorSuffix);
+    timeouts.add(metrics.metricName("pool-timeout-total", GROUP, "Connection requests that timed out", tags),
+        new CumulativeCount());
+    return new IMetricsTracker() {
+      @Override
+      public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        wait.record((double) elapsedAcquiredNanos / TimeUnit.MILLISECONDS.toNanos(1));
+      }
+
+      @Override
+      public void recordConnectionTimeout() {
+        timeouts.record();
+      }
+    };
+  }
+
+  private Sensor querySensor(String statement) {
+    return latencySensor("query-" + statement, "query", Collections.singletonMap("statement", statement));
+  }
+
+  private Sensor latencySensor(String sensorName, String metricPrefix, Map<String, String> tags) {
+    Sensor sensor = metrics.sensor(sensorName);
+    sensor.add(metrics.metricName(metricPrefix + "-rate", GROUP, "Calls per second", tags),
+        new Rate(new WindowedCount()));
+    addLatencyStats(sensor, metricPrefix, tags);
+    return sensor;
+  }
+
+  private void addLatencyStats(Sensor sensor, String metricPrefix, Map<String, String> tags) {
+    addAvgMax(sensor, metricPrefix, tags);
+    addPercentiles(sensor, metricPrefix, "", "ms", PERCENTILES_MAX_MS, tags);
+  }
+
+  private void addAvgMax(Sensor sensor, String metricPrefix, Map<String, String> tags) {
+    sensor.add(metrics.metricName(metricPrefix + "-latency-avg", GROUP, "Average latency in ms", tags), new Avg());
+    sensor.add(metrics.metricName(metricPrefix + "-latency-max", GROUP, "Maximum latency in ms", tags), new Max());
+  }
+
+  private void addPercentiles(Sensor sensor, String metricPrefix, String metricSuffix, String unit, double max,
+                              Map<String, String> tags) {
+    sensor.add(new Percentiles(PERCENTILES_SIZE_IN_BYTES, max, Percentiles.BucketSizing.LINEAR,
+        new Percentile(metrics.metricName(metricPrefix + "-latency-p50" + metricSuffix, GROUP,
+            "Median latency in " + unit, tags), 50),
+        new Percentile(metrics.metricName(metricPrefix + "-latency-p95" + metricSuffix, GROUP,
+            "95th percentile latency in " + unit, tags), 95),
+        new Percentile(metrics.metricName(metricPrefix + "-latency-p99" + metricSuffix, GROUP,
+            "99th percentile latency in " + unit, tags), 99)));
+  }
+
+  private void addCacheMetric(String name, String description, Map<String, String> tags, Cache<?, ?> cache,
+                              ToDoubleFunction<CacheStats> stat) {
+    MetricName metricName = metrics.metricName(name, GROUP, description, tags);
+    metrics.addMetric(metricName, (config, now) -> stat.applyAsDouble(cache.stats()));
+  }
+
+  private void addPoolMetric(String name, String description, Map<String, String> tags, DoubleSupplier value) {
+    metrics.addMetric(metrics.metricName(name, GROUP, description, tags), (config, now) -> value.getAsDouble());
+  }
+
+  private static double elapsedMs(long startNanos) {
+    return (double) (System.nanoTime() - startNanos) / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override
+  public void close() {
+    metrics.close();
+  }
+}
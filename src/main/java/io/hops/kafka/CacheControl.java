@@ -0,0 +1,37 @@
+package io.hops.kafka;
+
+/**
+ * Registered under {@value #OBJECT_NAME}.
+ * <p>
+ */
+public class CacheControl implements CacheControlMBean {
+
+  public static final String OBJECT_NAME = AuthorizerMetrics.JMX_PREFIX + ":type=" + AuthorizerMetrics.GROUP +
+      ",name=cache-control";
+
+  private final HopsAclAuthorizer authorizer;
+
+  public CacheControl(HopsAclAuthorizer authorizer) {
+    this.authorizer = authorizer;
+  }
+
+  @Override
+  public void invalidateTopic(String topicName) {
+    authorizer.invalidateTopic(topicName);
+  }
+
+  @Override
+  public void invalidateProjectMember(String projectName, String username) {
+    authorizer.invalidateProjectMember(projectName + Consts.PROJECT_USER_DELIMITER + username);
+  }
+
+  @Override
+  public void invalidateProjectShare(int topicProjectId, int userProjectId) {
+    authorizer.invalidateProjectShare(topicProjectId, userProjectId);
+  }
+
+  @Override
+  public void invalidateAll() {
+    authorizer.invalidateAll();
+  }
+}
@@ -0,0 +1,29 @@
+package io.hops.kafka;
+
+/**
+ * JMX operations that evict changed entries from the authorizer caches, so that membership and share changes take
+ * effect right away instead of once the entries expire.
+ * <p>
+ */
+public interface CacheControlMBean {
+
+  /**
+   * Evicts a created, deleted or recreated topic.
+   */
+  void invalidateTopic(String topicName);
+
+  /**
+   * Evicts a project member whose role changed or who was added or removed.
+   */
+  void invalidateProjectMember(String projectName, String username);
+
+  /**
+   * Evicts the share of the topics of a project with another project.
+   */
+  void invalidateProjectShare(int topicProjectId, int userProjectId);
+
+  /**
+   * Evicts every entry.
+   */
+  void invalidateAll();
+}
@@ -0,0 +1,57 @@
+package io.hops.kafka;
+
+/**
+ * Change events of the invalidation topic and the change log table. Events are space separated:
+ * <ul>
+ *   <li>{@code topic <topicName>}</li>
+ *   <li>{@code member <projectName> <username>}</li>
+ *   <li>{@code share <topicProjectId> <userProjectId>}</li>
+ *   <li>{@code all}</li>
+ * </ul>
+ * <p>
+ */
+public final class ChangeEvents {
+
+  private ChangeEvents() {}
+
+  /**
+   * Evicts the entries changed by the event.
+   *
+   * @return false if the event is invalid
+   */
+  public static boolean apply(String event, CacheControlMBean cacheControl) {
+    if (event == null) {
+      return false;
+    }
+    String[] fields = event.trim().split(" +");
+    try {
+      switch (fields[0]) {
+        case "topic":
+          if (fields.length == 2) {
+            cacheControl.invalidateTopic(fields[1]);
+            return true;
+          }
+          return false;
+        case "member":
+          if (fields.length == 3) {
+            cacheControl.invalidateProjectMember(fields[1], fields[2]);
+            return true;
+          }
+          return false;
+        case "share":
+          if (fields.length == 3) {
+            cacheControl.invalidateProjectShare(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+            return true;
+          }
+          return false;
+        case "all":
+          cacheControl.invalidateAll();
+          return true;
+        default:
+          return false;
+      }
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package io.hops.kafka;
+
+import org.javatuples.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Polls a change log table for the {@link ChangeEvents} written since the last poll and evicts the changed entries,
+ * so only changed rows are loaded again instead of every entry once per polling period. The table is expected to
+ * have an increasing {@code id} and an {@code event} column, filled by triggers on project_team, project_topics and
+ * dataset_shared_with. The ids must become visible in increasing order, a change committed with an id below the
+ * high water mark is missed until its entries expire.
+ * <p>
+ */
+public class ChangeLogSync {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChangeLogSync.class.getName());
+  // The table name is part of the statement, it can not be bound
+  private static final Pattern TABLE_NAME = Pattern.compile("\\w+(\\.\\w+)?");
+
+  private final DbConnection dbConnection;
+  private final String changeLogTable;
+  private final int batchSize;
+  private final CacheControlMBean cacheControl;
+  // id of the last applied change, -1 until it is read from the table
+  private long highWaterMark = -1;
+
+  public ChangeLogSync(DbConnection dbConnection, String changeLogTable, int batchSize,
+                       CacheControlMBean cacheControl) {
+    if (!TABLE_NAME.matcher(changeLogTable).matches()) {
+      throw new IllegalArgumentException("Invalid change log table: " + changeLogTable);
+    }
+    this.dbConnection = dbConnection;
+    this.changeLogTable = changeLogTable;
+    this.batchSize = batchSize;
+    this.cacheControl = cacheControl;
+  }
+
+  /**
+   * Starts from the last logged change, it has to be called before the entries are loaded so no change in between is
+   * missed. Does nothing if it was called already.
+   */
+  public synchronized void initialize() throws SQLException {
+    if (highWaterMark < 0) {
+      highWaterMark = dbConnection.getLastChange(changeLogTable);
+      LOGGER.info("Syncing changes logged in {} after {}", changeLogTable, highWaterMark);
+    }
+  }
+
+  /**
+   * Applies the changes logged since the last sync.
+   *
+   * @return the number of applied changes
+   */
+  public synchronized int sync() throws SQLException {
+    initialize();
+    int applied = 0;
+    List<Pair<Long, String>> changes;
+    do {
+      changes = dbConnection.getChanges(changeLogTable, highWaterMark, batchSize);
+      for (Pair<Long, String> change : changes) {
+        if (!ChangeEvents.apply(change.getValue1(), cacheControl)) {
+          LOGGER.warn("Ignoring invalid change {}: '{}'", change.getValue0(), change.getValue1());
+        }
+        highWaterMark = change.getValue0();
+        applied++;
+      }
+    } while (changes.size() == batchSize);
+    return applied;
+  }
+
+  /**
+   * Syncs in the background, failures are retried by the next sync.
+   */
+  public void run() {
+    try {
+      int applied = sync();
+      if (applied > 0) {
+        LOGGER.debug("Applied {} changes, high water mark {}", applied, getHighWaterMark());
+      }
+    } catch (SQLException e) {
+      LOGGER.warn("Failed to sync changes from {}", changeLogTable, e);
+    }
+  }
+
+  public synchronized long getHighWaterMark() {
+    return highWaterMark;
+  }
+}
@@ -0,0 +1,43 @@
+package io.hops.kafka;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Circuit breaker of the database connection. It opens after a number of consecutive failures, while it is open no
+ * connection is checked out and queries fail right away. It is closed again by a successful probe.
+ * <p>
+ */
+public class CircuitBreaker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class.getName());
+
+  private final int failureThreshold;
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private volatile boolean open;
+
+  public CircuitBreaker(int failureThreshold) {
+    this.failureThreshold = failureThreshold;
+  }
+
+  public boolean isOpen() {
+    return open;
+  }
+
+  public void recordSuccess() {
+    consecutiveFailures.set(0);
+    if (open) {
+      open = false;
+      LOGGER.info("Database circuit breaker closed");
+    }
+  }
+
+  public void recordFailure() {
+    if (consecutiveFailures.incrementAndGet() >= failureThreshold && !open) {
+      open = true;
+      LOGGER.warn("Database circuit breaker opened after {} consecutive failures", failureThreshold);
+    }
+  }
+}
@@ -21,19 +21,83 @@ public final class Consts {
   public static final String READ_ONLY = "READ_ONLY";
   public static final String EDITABLE_BY_OWNERS = "EDITABLE_BY_OWNERS";
 
+  //Authorizer engines
+  public static final String ENGINE_CACHE = "cache";
+  public static final String ENGINE_SNAPSHOT = "snapshot";
+
+  //Decisions when the latency budget is spent
+  public static final String FALLBACK_DENY = "deny";
+  public static final String FALLBACK_ALLOW = "allow";
+
   //Properties attributes
   public static final String SUPERUSERS_PROP = "super.users";
+  public static final String AUTHORIZER_ENGINE = "authorizer.engine";
+  public static final String AUTHORIZE_BUDGET_MS = "authorize.budget.ms";
+  public static final String AUTHORIZE_BUDGET_FALLBACK = "authorize.budget.fallback";
 
   //Database property names
   public static final String DATABASE_URL = "database.url";
+  //Comma separated database.url of each MySQL server, queries are routed to the fastest ones
+  public static final String DATABASE_URLS = "database.urls";
+  public static final String DATABASE_ENDPOINT_FAILURE_THRESHOLD = "database.endpoint.failure.threshold";
+  public static final String DATABASE_ENDPOINT_EJECTION_MS = "database.endpoint.ejection.ms";
   public static final String DATABASE_USERNAME = "database.username";
   public static final String DATABASE_PASSWORD = "database.password";
   public static final String DATABASE_CACHE_PREPSTMTS = "database.pool.prepstmt.cache.enabled";
   public static final String DATABASE_PREPSTMT_CACHE_SIZE = "database.pool.prepstmt.cache.size";
   public static final String DATABASE_PREPSTMT_CACHE_SQL_LIMIT = "database.pool.prepstmt.cache.sql.limit";
   public static final String DATABASE_MAX_POOL_SIZE = "database.pool.size";
+  public static final String DATABASE_LOAD_THREADS = "database.load.threads";
+  public static final String DATABASE_LOAD_QUEUE_SIZE = "database.load.queue.size";
+  public static final String DATABASE_LOAD_HEDGE_DELAY_MS = "database.load.hedge.delay.ms";
+  //Cache misses loaded per second, by all principals and by each principal
+  public static final String DATABASE_LOAD_RATE_GLOBAL = "database.load.rate.global";
+  public static final String DATABASE_LOAD_RATE_PRINCIPAL = "database.load.rate.principal";
+  public static final String DATABASE_LOAD_THROTTLE_FALLBACK = "database.load.throttle.fallback";
+  public static final String DATABASE_CIRCUIT_FAILURE_THRESHOLD = "database.circuit.failure.threshold";
+  public static final String DATABASE_CIRCUIT_PROBE_INTERVAL_MS = "database.circuit.probe.interval.ms";
+  //Table with an increasing id and an event column, see ChangeEvents
+  public static final String DATABASE_SYNC_CHANGELOG_TABLE = "database.sync.changelog.table";
+  public static final String DATABASE_SYNC_INTERVAL_MS = "database.sync.interval.ms";
+  public static final String DATABASE_SYNC_BATCH_SIZE = "database.sync.batch.size";
   public static final String DATABASE_ACL_POLLING_FREQUENCY_MS = "acl.polling.frequency.ms";
   public static final String CONSUMER_OFFSETS_ACCESS_ALLOWED = "consumer_offsets.access_allowed";
   public static final String CACHE_MAX_SIZE = "cache.max_size";
+  public static final String CACHE_WARMUP_ENABLED = "cache.warmup.enabled";
+  public static final String CACHE_WARMUP_TIMEOUT_MS = "cache.warmup.timeout.ms";
+  public static final String CACHE_REFRESH_ENABLED = "cache.refresh.enabled";
+  public static final String CACHE_REFRESH_RATIO = "cache.refresh.ratio";
+  public static final String CACHE_REFRESH_JITTER_RATIO = "cache.refresh.jitter.ratio";
+  public static final String CACHE_LOADER_THREADS = "cache.loader.threads";
+  public static final String CACHE_NEGATIVE_MAX_SIZE = "cache.negative.max_size";
+  public static final String CACHE_NEGATIVE_TTL_MS = "cache.negative.ttl.ms";
+  public static final String CACHE_DECISION_MAX_SIZE = "cache.decision.max_size";
+  //Memory bounds in MB, they replace the entry count bounds of the caches they are set for
+  public static final String CACHE_TOPIC_PROJECT_MAX_MB = "cache.topic_project.max_mb";
+  public static final String CACHE_USER_PROJECT_MAX_MB = "cache.user_project.max_mb";
+  public static final String CACHE_PROJECT_SHARE_MAX_MB = "cache.project_share.max_mb";
+  public static final String CACHE_DECISION_MAX_MB = "cache.decision.max_mb";
+  public static final String CACHE_PROJECT_TOPICS_MAX_MB = "cache.project_topics.max_mb";
+  public static final String CACHE_STALE_GRACE_MS = "cache.stale.grace.ms";
+  //Bloom filters of the registered topic and principal names, only used by the cache engine
+  public static final String CACHE_NAME_FILTER_ENABLED = "cache.name_filter.enabled";
+  public static final String CACHE_NAME_FILTER_FPP = "cache.name_filter.fpp";
+  public static final String CACHE_NAME_FILTER_REBUILD_INTERVAL_MS = "cache.name_filter.rebuild.interval.ms";
+  public static final String AUDIT_ENABLED = "audit.enabled";
+  public static final String AUDIT_BUFFER_SIZE = "audit.buffer.size";
+  public static final String AUDIT_WINDOW_MS = "audit.window.ms";
+  public static final String METRICS_ENABLED = "metrics.enabled";
+  //Principals built from the same certificates are cached by HopsPrincipalBuilder, 0 disables the cache
+  public static final String PRINCIPAL_CACHE_MAX_SIZE = "principal.cache.max_size";
+  public static final String PRINCIPAL_CACHE_TTL_MS = "principal.cache.ttl.ms";
+  public static final String SNAPSHOT_FILE_PATH = "snapshot.file.path";
+  public static final String SNAPSHOT_FILE_WRITE_INTERVAL_MS = "snapshot.file.write.interval.ms";
+  public static final String SNAPSHOT_FILE_MAX_AGE_MS = "snapshot.file.max.age.ms";
+  //Interval of the full reloads of the snapshot when the changes of the change log are applied to it
+  public static final String SNAPSHOT_FULL_RELOAD_INTERVAL_MS = "snapshot.full_reload.interval.ms";
+  public static final String INVALIDATION_JMX_ENABLED = "invalidation.jmx.enabled";
+  public static final String INVALIDATION_TOPIC = "invalidation.topic";
+  //Prefix of the configs of the invalidation topic consumer, e.g. invalidation.consumer.bootstrap.servers
+  public static final String INVALIDATION_CONSUMER_PREFIX = "invalidation.consumer.";
   
 }
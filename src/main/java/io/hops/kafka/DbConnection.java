@@ -6,8 +6,17 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.javatuples.Pair;
+import org.javatuples.Quartet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,33 +42,134 @@ public class DbConnection {
       "JOIN dataset d ON dsw.dataset = d.id " +
       "WHERE d.feature_store_id IS NOT NULL AND dsw.project = ? AND d.projectId = ?";
 
-  private final HikariDataSource datasource;
+  private static final String SQL_SELECT_ALL_TOPIC_PROJECTS = "SELECT pt.topic_name, pt.project_id " +
+      "FROM project_topics pt";
+
+  private static final String SQL_SELECT_ALL_PROJECT_ROLES = "SELECT p.projectname, u.username, p.id, pt.team_role " +
+      "FROM project_team pt " +
+      "JOIN project p ON pt.project_id = p.id " +
+      "JOIN users u ON pt.team_member = u.email";
+
+  private static final String SQL_SELECT_ALL_SHARED_PROJECTS = "SELECT d.projectId, dsw.project, dsw.permission " +
+      "FROM dataset_shared_with dsw " +
+      "JOIN dataset d ON dsw.dataset = d.id " +
+      "WHERE d.feature_store_id IS NOT NULL";
+
+  private static final String SQL_SELECT_TOPIC_PROJECTS = "SELECT pt.topic_name, pt.project_id " +
+      "FROM project_topics pt " +
+      "WHERE pt.topic_name IN (%s)";
+
+  private static final String SQL_SELECT_PROJECT_ROLES = "SELECT p.projectname, u.username, p.id, pt.team_role " +
+      "FROM project_team pt " +
+      "JOIN project p ON pt.project_id = p.id " +
+      "JOIN users u ON pt.team_member = u.email " +
+      "WHERE (p.projectname, u.username) IN (%s)";
+
+  private static final String SQL_SELECT_SHARED_PROJECTS = "SELECT d.projectId, dsw.project, dsw.permission " +
+      "FROM dataset_shared_with dsw " +
+      "JOIN dataset d ON dsw.dataset = d.id " +
+      "WHERE d.feature_store_id IS NOT NULL AND (d.projectId, dsw.project) IN (%s)";
+
+  private static final String SQL_SELECT_TOPIC_ACCESS = "SELECT tp.project_id, up.id, up.team_role, " +
+      "(SELECT dsw.permission " +
+      "FROM dataset_shared_with dsw " +
+      "JOIN dataset d ON dsw.dataset = d.id " +
+      "WHERE d.feature_store_id IS NOT NULL AND dsw.project = up.id AND d.projectId = tp.project_id " +
+      "LIMIT 1) " +
+      "FROM (SELECT ? AS topic_name) k " +
+      "LEFT JOIN project_topics tp ON tp.topic_name = k.topic_name " +
+      "LEFT JOIN (SELECT p.id, pt.team_role " +
+      "FROM project_team pt " +
+      "JOIN project p ON pt.project_id = p.id " +
+      "JOIN users u ON pt.team_member = u.email " +
+      "WHERE p.projectname = ? AND u.username = ?) up ON 1 = 1";
+
+  // Whether the project owns a topic, and whether a topic of another project is shared with it with the permission
+  private static final String SQL_SELECT_PROJECT_TOPICS = "SELECT " +
+      "EXISTS (SELECT 1 FROM project_topics pt WHERE pt.project_id = ?), " +
+      "EXISTS (SELECT 1 " +
+      "FROM dataset_shared_with dsw " +
+      "JOIN dataset d ON dsw.dataset = d.id " +
+      "JOIN project_topics pt ON pt.project_id = d.projectId " +
+      "WHERE d.feature_store_id IS NOT NULL AND dsw.project = ? AND d.projectId <> ? AND dsw.permission = ?)";
+
+  // The change log table is configurable, its name is validated by ChangeLogSync
+  private static final String SQL_SELECT_CHANGES = "SELECT c.id, c.event " +
+      "FROM %s c " +
+      "WHERE c.id > ? " +
+      "ORDER BY c.id " +
+      "LIMIT ?";
+
+  private static final String SQL_SELECT_LAST_CHANGE = "SELECT MAX(c.id) " +
+      "FROM %s c";
+
+  // Seconds a recovery probe waits for the database to answer
+  private static final int PROBE_TIMEOUT_S = 5;
+
+  // Maximum number of keys bound to a single multi-key statement
+  private static final int IN_LIST_CHUNK_SIZE = 500;
+
+  private final EndpointRouter router;
+  // Endpoint of the connection the thread checked out last, its queries are recorded on it
+  private final ThreadLocal<EndpointRouter.Endpoint> currentEndpoint = new ThreadLocal<>();
+  // null if metrics are disabled
+  private final AuthorizerMetrics metrics;
+  private final CircuitBreaker circuitBreaker;
 
   // For testing
   protected DbConnection(HikariDataSource datasource) {
-    this.datasource = datasource;
-  }
-  
-  public DbConnection(String dbUrl, String dbUserName, String dbPassword, int maximumPoolSize,
-                      String cachePrepStmts, String prepStmtCacheSize, String prepStmtCacheSqlLimit) {
-    LOGGER.info("Initializing database pool to: {}", dbUrl);
-    HikariConfig config = new HikariConfig();
-    config.setJdbcUrl("jdbc:mysql://" + dbUrl);
-    config.setUsername(dbUserName);
-    config.setPassword(dbPassword);
-    config.addDataSourceProperty("cachePrepStmts", cachePrepStmts);
-    config.addDataSourceProperty("prepStmtCacheSize", prepStmtCacheSize);
-    config.addDataSourceProperty("prepStmtCacheSqlLimit", prepStmtCacheSqlLimit);
-    config.addDataSourceProperty("maximumPoolSize", maximumPoolSize);
-    datasource = new HikariDataSource(config);
-    LOGGER.info("connection made successfully to: {}", dbUrl);
+    this(datasource, null, new CircuitBreaker(Integer.MAX_VALUE));
+  }
+
+  // For testing
+  protected DbConnection(HikariDataSource datasource, AuthorizerMetrics metrics, CircuitBreaker circuitBreaker) {
+    this(new EndpointRouter(Collections.singletonList(new EndpointRouter.Endpoint("default", datasource)), 1, 0),
+        metrics, circuitBreaker);
+  }
+
+  // For testing
+  protected DbConnection(EndpointRouter router, AuthorizerMetrics metrics, CircuitBreaker circuitBreaker) {
+    this.router = router;
+    this.metrics = metrics;
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  /**
+   * Opens a connection pool per database front end, queries are routed across them by an {@link EndpointRouter}.
+   */
+  public DbConnection(List<String> dbUrls, String dbUserName, String dbPassword, int maximumPoolSize,
+                      String cachePrepStmts, String prepStmtCacheSize, String prepStmtCacheSqlLimit,
+                      AuthorizerMetrics metrics, CircuitBreaker circuitBreaker, int endpointFailureThreshold,
+                      long endpointEjectionMs) {
+    List<EndpointRouter.Endpoint> endpoints = new ArrayList<>();
+    for (String dbUrl : dbUrls) {
+      LOGGER.info("Initializing database pool to: {}", dbUrl);
+      HikariConfig config = new HikariConfig();
+      config.setJdbcUrl("jdbc:mysql://" + dbUrl);
+      config.setUsername(dbUserName);
+      config.setPassword(dbPassword);
+      config.addDataSourceProperty("cachePrepStmts", cachePrepStmts);
+      config.addDataSourceProperty("prepStmtCacheSize", prepStmtCacheSize);
+      config.addDataSourceProperty("prepStmtCacheSqlLimit", prepStmtCacheSqlLimit);
+      config.addDataSourceProperty("maximumPoolSize", maximumPoolSize);
+      if (metrics != null) {
+        // the pool metrics of a single endpoint keep their names without tags
+        config.setMetricsTrackerFactory(metrics.poolMetricsTrackerFactory(maximumPoolSize, dbUrls.size() == 1 ?
+            Collections.emptyMap() : Collections.singletonMap("endpoint", dbUrl)));
+      }
+      endpoints.add(new EndpointRouter.Endpoint(dbUrl, new HikariDataSource(config)));
+      LOGGER.info("connection made successfully to: {}", dbUrl);
+    }
+    this.router = new EndpointRouter(endpoints, endpointFailureThreshold, endpointEjectionMs);
+    this.metrics = metrics;
+    this.circuitBreaker = circuitBreaker;
   }
 
   public Integer getTopicProject(String topicName) throws SQLException {
-    try (Connection connection = datasource.getConnection();
+    try (Connection connection = getConnection();
          PreparedStatement preparedStatement = connection.prepareStatement(SQL_SELECT_TOPIC_PROJECT)) {
       preparedStatement.setString(1, topicName);
-      try(ResultSet resultSet = preparedStatement.executeQuery()) {
+      try(ResultSet resultSet = executeQuery(preparedStatement, "topic-project")) {
         if (resultSet.next())
           return resultSet.getInt(1);
         return null;
@@ -68,11 +178,11 @@ public class DbConnection {
   }
 
   public Pair<Integer, String> getProjectRole(String projectName, String username) throws SQLException {
-    try (Connection connection = datasource.getConnection();
+    try (Connection connection = getConnection();
          PreparedStatement preparedStatement = connection.prepareStatement(SQL_SELECT_PROJECT_ROLE)) {
       preparedStatement.setString(1, projectName);
       preparedStatement.setString(2, username);
-      try(ResultSet resultSet = preparedStatement.executeQuery()) {
+      try(ResultSet resultSet = executeQuery(preparedStatement, "project-role")) {
         if (resultSet.next())
           return new Pair<>(resultSet.getInt(1), resultSet.getString(2));
         return null;
@@ -81,11 +191,11 @@ public class DbConnection {
   }
 
   public String getSharedProject(int userProjectId, int topicProjectId) throws SQLException {
-    try (Connection connection = datasource.getConnection();
+    try (Connection connection = getConnection();
          PreparedStatement preparedStatement = connection.prepareStatement(SQL_SELECT_SHARED_PROJECT)) {
       preparedStatement.setInt(1, userProjectId);
       preparedStatement.setInt(2, topicProjectId);
-      try(ResultSet resultSet = preparedStatement.executeQuery()) {
+      try(ResultSet resultSet = executeQuery(preparedStatement, "shared-project")) {
         if (resultSet.next())
           return resultSet.getString(1);
         return null;
@@ -94,11 +204,335 @@ public class DbConnection {
   }
 
   /**
-   * Closes the jdbc datasource pool.
+   * Checks whether a project owns topics and whether topics of other projects are shared with it read only, without
+   * loading the topics. A project pair with several shared feature store datasets counts if any of them is read only.
+   */
+  public ProjectTopics getProjectTopics(int projectId) throws SQLException {
+    try (Connection connection = getConnection();
+         PreparedStatement preparedStatement = connection.prepareStatement(SQL_SELECT_PROJECT_TOPICS)) {
+      preparedStatement.setInt(1, projectId);
+      preparedStatement.setInt(2, projectId);
+      preparedStatement.setInt(3, projectId);
+      preparedStatement.setString(4, Consts.READ_ONLY);
+      try (ResultSet resultSet = executeQuery(preparedStatement, "project-topics")) {
+        if (!resultSet.next()) {
+          return ProjectTopics.EMPTY;
+        }
+        return ProjectTopics.of(resultSet.getBoolean(1), resultSet.getBoolean(2));
+      }
+    }
+  }
+
+  /**
+   * Resolves everything needed to authorize a user on a topic with a single query, instead of one query each for the
+   * topic project, the user project role and the project share.
+   *
+   * @return topicProjectId, userProjectId, userRole, sharePermission, each of them null if there is no such row
+   */
+  public Quartet<Integer, Integer, String, String> getTopicAccess(String topicName, String projectName,
+                                                                  String username) throws SQLException {
+    try (Connection connection = getConnection();
+         PreparedStatement preparedStatement = connection.prepareStatement(SQL_SELECT_TOPIC_ACCESS)) {
+      preparedStatement.setString(1, topicName);
+      preparedStatement.setString(2, projectName);
+      preparedStatement.setString(3, username);
+      try (ResultSet resultSet = executeQuery(preparedStatement, "topic-access")) {
+        if (!resultSet.next()) {
+          return new Quartet<>(null, null, null, null);
+        }
+        int topicProjectId = resultSet.getInt(1);
+        boolean topicMissing = resultSet.wasNull();
+        int userProjectId = resultSet.getInt(2);
+        boolean userMissing = resultSet.wasNull();
+        return new Quartet<>(
+            topicMissing ? null : topicProjectId,
+            userMissing ? null : userProjectId,
+            resultSet.getString(3),
+            resultSet.getString(4));
+      }
+    }
+  }
+
+  /**
+   * Loads the project of every registered topic.
+   *
+   * @return topicName -> topicProjectId
+   */
+  public Map<String, Integer> getTopicProjects() throws SQLException {
+    Map<String, Integer> topicProjects = new HashMap<>();
+    try (Connection connection = getConnection();
+         PreparedStatement preparedStatement = connection.prepareStatement(SQL_SELECT_ALL_TOPIC_PROJECTS);
+         ResultSet resultSet = executeQuery(preparedStatement, "all-topic-projects")) {
+      while (resultSet.next()) {
+        topicProjects.put(resultSet.getString(1), resultSet.getInt(2));
+      }
+    }
+    return topicProjects;
+  }
+
+  /**
+   * Loads the project and role of every project member.
+   *
+   * @return principalName (aka. projectName__username) -> userProjectId, userRole
+   */
+  public Map<String, Pair<Integer, String>> getProjectRoles() throws SQLException {
+    Map<String, Pair<Integer, String>> projectRoles = new HashMap<>();
+    try (Connection connection = getConnection();
+         PreparedStatement preparedStatement = connection.prepareStatement(SQL_SELECT_ALL_PROJECT_ROLES);
+         ResultSet resultSet = executeQuery(preparedStatement, "all-project-roles")) {
+      while (resultSet.next()) {
+        String principalName = resultSet.getString(1) + Consts.PROJECT_USER_DELIMITER + resultSet.getString(2);
+        projectRoles.put(principalName, new Pair<>(resultSet.getInt(3), resultSet.getString(4)));
+      }
+    }
+    return projectRoles;
+  }
+
+  /**
+   * Loads the share permission of every feature store shared between projects. If a project pair has several
+   * shared feature store datasets the first permission is kept, same as {@link #getSharedProject(int, int)}.
+   *
+   * @return topicProjectId, userProjectId -> sharePermission
+   */
+  public Map<Pair<Integer, Integer>, String> getSharedProjects() throws SQLException {
+    Map<Pair<Integer, Integer>, String> sharedProjects = new HashMap<>();
+    try (Connection connection = getConnection();
+         PreparedStatement preparedStatement = connection.prepareStatement(SQL_SELECT_ALL_SHARED_PROJECTS);
+         ResultSet resultSet = executeQuery(preparedStatement, "all-shared-projects")) {
+      while (resultSet.next()) {
+        sharedProjects.putIfAbsent(new Pair<>(resultSet.getInt(1), resultSet.getInt(2)), resultSet.getString(3));
+      }
+    }
+    return sharedProjects;
+  }
+
+  /**
+   * Looks up the project of many topics, with one statement per {@value #IN_LIST_CHUNK_SIZE} topics.
+   *
+   * @return topicName -> topicProjectId, topics that are not registered are missing from the result
+   */
+  public Map<String, Integer> getTopicProjects(Collection<String> topicNames) throws SQLException {
+    Map<String, Integer> topicProjects = new HashMap<>();
+    for (List<String> chunk : chunks(topicNames)) {
+      String sql = String.format(SQL_SELECT_TOPIC_PROJECTS, placeholders(chunk.size(), "?"));
+      try (Connection connection = getConnection();
+           PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+        int index = 1;
+        for (String topicName : chunk) {
+          preparedStatement.setString(index++, topicName);
+        }
+        try (ResultSet resultSet = executeQuery(preparedStatement, "topic-projects")) {
+          while (resultSet.next()) {
+            topicProjects.put(resultSet.getString(1), resultSet.getInt(2));
+          }
+        }
+      }
+    }
+    return topicProjects;
+  }
+
+  /**
+   * Looks up the project and role of many principals, with one statement per {@value #IN_LIST_CHUNK_SIZE}
+   * principals.
+   *
+   * @param projectUsers projectName, username pairs
+   * @return principalName (aka. projectName__username) -> userProjectId, userRole, principals that are not project
+   *     members are missing from the result
+   */
+  public Map<String, Pair<Integer, String>> getProjectRoles(Collection<Pair<String, String>> projectUsers)
+      throws SQLException {
+    Map<String, Pair<Integer, String>> projectRoles = new HashMap<>();
+    for (List<Pair<String, String>> chunk : chunks(projectUsers)) {
+      String sql = String.format(SQL_SELECT_PROJECT_ROLES, placeholders(chunk.size(), "(?, ?)"));
+      try (Connection connection = getConnection();
+           PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+        int index = 1;
+        for (Pair<String, String> projectUser : chunk) {
+          preparedStatement.setString(index++, projectUser.getValue0());
+          preparedStatement.setString(index++, projectUser.getValue1());
+        }
+        try (ResultSet resultSet = executeQuery(preparedStatement, "project-roles")) {
+          while (resultSet.next()) {
+            String principalName = resultSet.getString(1) + Consts.PROJECT_USER_DELIMITER + resultSet.getString(2);
+            projectRoles.put(principalName, new Pair<>(resultSet.getInt(3), resultSet.getString(4)));
+          }
+        }
+      }
+    }
+    return projectRoles;
+  }
+
+  /**
+   * Looks up the share permission of many project pairs, with one statement per {@value #IN_LIST_CHUNK_SIZE} pairs.
+   *
+   * @param projectPairs topicProjectId, userProjectId pairs
+   * @return topicProjectId, userProjectId -> sharePermission, pairs without a shared feature store are missing from
+   *     the result
+   */
+  public Map<Pair<Integer, Integer>, String> getSharedProjects(Collection<Pair<Integer, Integer>> projectPairs)
+      throws SQLException {
+    Map<Pair<Integer, Integer>, String> sharedProjects = new HashMap<>();
+    for (List<Pair<Integer, Integer>> chunk : chunks(projectPairs)) {
+      String sql = String.format(SQL_SELECT_SHARED_PROJECTS, placeholders(chunk.size(), "(?, ?)"));
+      try (Connection connection = getConnection();
+           PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+        int index = 1;
+        for (Pair<Integer, Integer> projectPair : chunk) {
+          preparedStatement.setInt(index++, projectPair.getValue0());
+          preparedStatement.setInt(index++, projectPair.getValue1());
+        }
+        try (ResultSet resultSet = executeQuery(preparedStatement, "shared-projects")) {
+          while (resultSet.next()) {
+            sharedProjects.putIfAbsent(new Pair<>(resultSet.getInt(1), resultSet.getInt(2)), resultSet.getString(3));
+          }
+        }
+      }
+    }
+    return sharedProjects;
+  }
+
+  /**
+   * Loads the changes logged after a change.
+   *
+   * @return id -> event, in the order of the ids
+   */
+  public List<Pair<Long, String>> getChanges(String changeLogTable, long afterId, int limit) throws SQLException {
+    List<Pair<Long, String>> changes = new ArrayList<>();
+    try (Connection connection = getConnection();
+         PreparedStatement preparedStatement = connection.prepareStatement(
+             String.format(SQL_SELECT_CHANGES, changeLogTable))) {
+      preparedStatement.setLong(1, afterId);
+      preparedStatement.setInt(2, limit);
+      try (ResultSet resultSet = executeQuery(preparedStatement, "changes")) {
+        while (resultSet.next()) {
+          changes.add(new Pair<>(resultSet.getLong(1), resultSet.getString(2)));
+        }
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * @return the id of the last logged change, 0 if nothing is logged
+   */
+  public long getLastChange(String changeLogTable) throws SQLException {
+    try (Connection connection = getConnection();
+         PreparedStatement preparedStatement = connection.prepareStatement(
+             String.format(SQL_SELECT_LAST_CHANGE, changeLogTable));
+         ResultSet resultSet = executeQuery(preparedStatement, "last-change")) {
+      // MAX of an empty table is NULL, which getLong returns as 0
+      return resultSet.next() ? resultSet.getLong(1) : 0;
+    }
+  }
+
+  /**
+   * Checks if an open circuit breaker can be closed again, does nothing while it is closed.
+   */
+  public void probe() {
+    if (!circuitBreaker.isOpen()) {
+      return;
+    }
+    for (EndpointRouter.Endpoint endpoint : router.getEndpoints()) {
+      try (Connection connection = endpoint.getDatasource().getConnection()) {
+        if (connection.isValid(PROBE_TIMEOUT_S)) {
+          circuitBreaker.recordSuccess();
+          return;
+        }
+      } catch (SQLException e) {
+        LOGGER.debug("Database endpoint {} is still unavailable", endpoint.getName(), e);
+      }
+    }
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  // No connection is checked out while the circuit breaker is open
+  private Connection getConnection() throws SQLException {
+    if (circuitBreaker.isOpen()) {
+      throw new SQLException("Database circuit breaker is open");
+    }
+    EndpointRouter.Endpoint endpoint = router.select();
+    try {
+      Connection connection = endpoint.getDatasource().getConnection();
+      currentEndpoint.set(endpoint);
+      return connection;
+    } catch (SQLException e) {
+      recordFailure(endpoint, e);
+      throw e;
+    }
+  }
+
+  // The statement name tags the query latency metric. MySQL buffers the whole result in executeQuery, so this
+  // covers the rows too.
+  private ResultSet executeQuery(PreparedStatement preparedStatement, String statement) throws SQLException {
+    EndpointRouter.Endpoint endpoint = currentEndpoint.get();
+    endpoint.startQuery();
+    long startNanos = System.nanoTime();
+    try {
+      ResultSet resultSet = preparedStatement.executeQuery();
+      circuitBreaker.recordSuccess();
+      router.recordSuccess(endpoint, System.nanoTime() - startNanos);
+      return resultSet;
+    } catch (SQLException e) {
+      recordFailure(endpoint, e);
+      throw e;
+    } finally {
+      endpoint.endQuery();
+      if (metrics != null) {
+        metrics.recordQuery(statement, startNanos);
+      }
+    }
+  }
+
+  // Errors of the statement itself, like a constraint or a syntax error, say nothing about the database health
+  private void recordFailure(EndpointRouter.Endpoint endpoint, SQLException e) {
+    if (isUnavailable(e)) {
+      circuitBreaker.recordFailure();
+      router.recordFailure(endpoint);
+    }
+  }
+
+  /**
+   * @return whether the database or the connection to it failed, SQL state class 08 is a connection exception
+   */
+  static boolean isUnavailable(SQLException e) {
+    return e instanceof SQLTransientException || e instanceof SQLRecoverableException
+        || (e.getSQLState() != null && e.getSQLState().startsWith("08"));
+  }
+
+  private static <T> List<List<T>> chunks(Collection<T> keys) {
+    if (keys.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<T> keyList = new ArrayList<>(keys);
+    List<List<T>> chunks = new ArrayList<>();
+    for (int from = 0; from < keyList.size(); from += IN_LIST_CHUNK_SIZE) {
+      chunks.add(keyList.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, keyList.size())));
+    }
+    return chunks;
+  }
+
+  private static String placeholders(int count, String placeholder) {
+    StringBuilder placeholders = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        placeholders.append(", ");
+      }
+      placeholders.append(placeholder);
+    }
+    return placeholders.toString();
+  }
+
+  /**
+   * Closes the jdbc datasource pools.
    */
   public void close() {
-    if (datasource != null) {
-      datasource.close();
+    for (EndpointRouter.Endpoint endpoint : router.getEndpoints()) {
+      if (endpoint.getDatasource() != null) {
+        endpoint.getDatasource().close();
+      }
     }
   }
 }
@@ -0,0 +1,141 @@
+package io.hops.kafka;
+
+import com.google.common.cache.Cache;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache of topic decisions that are invalidated by topic, principal or project share without scanning the cache.
+ * Every decision is stamped with the generations of its topic, its principal and, for shared topics, its project
+ * share, taken before the entries it is based on are read. An invalidation evicts the entries first and then bumps the
+ * generations, so a decision based on evicted entries is never served, even if it is put after the invalidation.
+ * The generations are striped, an invalidation also drops the decisions of the names that share its stripe.
+ * <p>
+ */
+public class DecisionCache {
+
+  // Power of two
+  private static final int STRIPES = 4096;
+  private static final int NO_SHARE = -1;
+
+  private final Cache<DecisionKey, Decision> cache;
+  private final AtomicLongArray topicGenerations = new AtomicLongArray(STRIPES);
+  private final AtomicLongArray principalGenerations = new AtomicLongArray(STRIPES);
+  private final AtomicLongArray shareGenerations = new AtomicLongArray(STRIPES);
+
+  public DecisionCache(Cache<DecisionKey, Decision> cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * @return the decision, null if it is not cached or was invalidated since it was stamped
+   */
+  public AuthorizationResult get(DecisionKey key) {
+    Decision decision = cache.getIfPresent(key);
+    if (decision == null) {
+      return null;
+    }
+    Stamp stamp = decision.stamp;
+    if (stamp.topicGeneration == topicGenerations.get(stripe(key.getTopicName().hashCode())) &&
+        stamp.principalGeneration == principalGenerations.get(stripe(key.getPrincipalName().hashCode())) &&
+        (stamp.shareStripe == NO_SHARE || stamp.shareGeneration == shareGenerations.get(stamp.shareStripe))) {
+      return decision.result;
+    }
+    cache.asMap().remove(key, decision);
+    return null;
+  }
+
+  /**
+   * Current generation of the decisions of a principal, read it before the principal entry is read.
+   */
+  public long principalGeneration(String principalName) {
+    return principalGenerations.get(stripe(principalName.hashCode()));
+  }
+
+  /**
+   * Stamps a decision with the current generation of its topic, call it before the topic entry is read.
+   *
+   * @param principalGeneration generation of the principal, read before its entry was read
+   */
+  public Stamp stamp(DecisionKey key, long principalGeneration) {
+    return new Stamp(topicGenerations.get(stripe(key.getTopicName().hashCode())), principalGeneration, NO_SHARE, 0);
+  }
+
+  /**
+   * Adds the current generation of a project share to the stamp, call it before the share entry is read.
+   */
+  public Stamp stampShare(Stamp stamp, int topicProjectId, int userProjectId) {
+    int shareStripe = shareStripe(topicProjectId, userProjectId);
+    return new Stamp(stamp.topicGeneration, stamp.principalGeneration, shareStripe,
+        shareGenerations.get(shareStripe));
+  }
+
+  public void put(DecisionKey key, Stamp stamp, AuthorizationResult result) {
+    cache.put(key, new Decision(result, stamp));
+  }
+
+  public void invalidateTopic(String topicName) {
+    topicGenerations.incrementAndGet(stripe(topicName.hashCode()));
+  }
+
+  public void invalidatePrincipal(String principalName) {
+    principalGenerations.incrementAndGet(stripe(principalName.hashCode()));
+  }
+
+  public void invalidateShare(int topicProjectId, int userProjectId) {
+    shareGenerations.incrementAndGet(shareStripe(topicProjectId, userProjectId));
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+    // every decision has a topic, decisions put by concurrent authorize calls are dropped as well
+    for (int i = 0; i < STRIPES; i++) {
+      topicGenerations.incrementAndGet(i);
+    }
+  }
+
+  public Cache<DecisionKey, Decision> getCache() {
+    return cache;
+  }
+
+  private static int shareStripe(int topicProjectId, int userProjectId) {
+    return stripe(31 * topicProjectId + userProjectId);
+  }
+
+  private static int stripe(int hash) {
+    return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+  }
+
+  /**
+   * Generations a decision is based on.
+   */
+  public static final class Stamp {
+
+    private final long topicGeneration;
+    private final long principalGeneration;
+    private final int shareStripe;
+    private final long shareGeneration;
+
+    private Stamp(long topicGeneration, long principalGeneration, int shareStripe, long shareGeneration) {
+      this.topicGeneration = topicGeneration;
+      this.principalGeneration = principalGeneration;
+      this.shareStripe = shareStripe;
+      this.shareGeneration = shareGeneration;
+    }
+  }
+
+  /**
+   * Cached decision and the generations it is based on.
+   */
+  public static final class Decision {
+
+    private final AuthorizationResult result;
+    private final Stamp stamp;
+
+    private Decision(AuthorizationResult result, Stamp stamp) {
+      this.result = result;
+      this.stamp = stamp;
+    }
+  }
+}
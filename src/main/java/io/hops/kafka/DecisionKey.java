@@ -0,0 +1,59 @@
+package io.hops.kafka;
+
+import org.apache.kafka.common.acl.AclOperation;
+
+/**
+ * Key of a topic authorization decision: principal, topic and operation. The hash code is computed once, so a
+ * decision cache probe costs a single hash table lookup.
+ * <p>
+ */
+public final class DecisionKey {
+
+  private final String principalName;
+  private final String topicName;
+  private final AclOperation operation;
+  private final int hash;
+
+  public DecisionKey(String principalName, String topicName, AclOperation operation) {
+    this.principalName = principalName;
+    this.topicName = topicName;
+    this.operation = operation;
+    this.hash = 31 * (31 * principalName.hashCode() + topicName.hashCode()) + operation.ordinal();
+  }
+
+  public String getPrincipalName() {
+    return principalName;
+  }
+
+  public String getTopicName() {
+    return topicName;
+  }
+
+  public AclOperation getOperation() {
+    return operation;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DecisionKey)) {
+      return false;
+    }
+    DecisionKey that = (DecisionKey) o;
+    return hash == that.hash && operation == that.operation && topicName.equals(that.topicName) &&
+        principalName.equals(that.principalName);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return "DecisionKey{principalName='" + principalName + "', topicName='" + topicName + "', operation=" +
+        operation + "}";
+  }
+}
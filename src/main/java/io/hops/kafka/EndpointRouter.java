@@ -0,0 +1,164 @@
+package io.hops.kafka;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes queries across the connection pools of several MySQL front ends of the same NDB cluster. Each query goes to
+ * the better of two randomly picked endpoints, scored by their latency average times the queries in flight, so the
+ * fastest endpoints get most of the load without all of it landing on one of them. An endpoint that fails a number
+ * of queries in a row is ejected for a while and gets the best latency average when it comes back, so it is tried
+ * again right away.
+ * <p>
+ */
+public class EndpointRouter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EndpointRouter.class.getName());
+  // Weight of the latest query in the latency average
+  private static final double EWMA_ALPHA = 0.2;
+
+  private final List<Endpoint> endpoints;
+  private final int failureThreshold;
+  private final long ejectionNanos;
+
+  public EndpointRouter(List<Endpoint> endpoints, int failureThreshold, long ejectionMs) {
+    if (endpoints.isEmpty()) {
+      throw new IllegalArgumentException("No database endpoint");
+    }
+    this.endpoints = Collections.unmodifiableList(endpoints);
+    this.failureThreshold = failureThreshold;
+    this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMs);
+  }
+
+  /**
+   * @return the endpoint of the next query, an ejected one only if every endpoint is ejected
+   */
+  public Endpoint select() {
+    if (endpoints.size() == 1) {
+      return endpoints.get(0);
+    }
+    long now = System.nanoTime();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(endpoints.size());
+    int second = random.nextInt(endpoints.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    Endpoint a = available(endpoints.get(first), now);
+    Endpoint b = available(endpoints.get(second), now);
+    if (a == null || b == null) {
+      return a != null ? a : (b != null ? b : leastEjected(now));
+    }
+    return a.score() <= b.score() ? a : b;
+  }
+
+  public void recordSuccess(Endpoint endpoint, long latencyNanos) {
+    endpoint.consecutiveFailures.set(0);
+    // racy, a lost sample does not matter for an average
+    endpoint.latencyEwmaNanos = endpoint.latencyEwmaNanos == 0 ? latencyNanos :
+        EWMA_ALPHA * latencyNanos + (1 - EWMA_ALPHA) * endpoint.latencyEwmaNanos;
+  }
+
+  public void recordFailure(Endpoint endpoint) {
+    if (endpoints.size() > 1 && endpoint.consecutiveFailures.incrementAndGet() == failureThreshold) {
+      long ejectedUntil = System.nanoTime() + ejectionNanos;
+      endpoint.ejectedUntilNanos = ejectedUntil == 0 ? 1 : ejectedUntil;
+      LOGGER.warn("Ejected database endpoint {} for {} ms after {} consecutive failures", endpoint.name,
+          TimeUnit.NANOSECONDS.toMillis(ejectionNanos), failureThreshold);
+    }
+  }
+
+  public List<Endpoint> getEndpoints() {
+    return endpoints;
+  }
+
+  // null if the endpoint is ejected, an endpoint coming back starts with the best average
+  private Endpoint available(Endpoint endpoint, long now) {
+    long ejectedUntil = endpoint.ejectedUntilNanos;
+    if (ejectedUntil == 0) {
+      return endpoint;
+    }
+    if (now - ejectedUntil < 0) {
+      return null;
+    }
+    endpoint.latencyEwmaNanos = bestLatency();
+    endpoint.consecutiveFailures.set(0);
+    endpoint.ejectedUntilNanos = 0;
+    LOGGER.info("Database endpoint {} is back", endpoint.name);
+    return endpoint;
+  }
+
+  private double bestLatency() {
+    double best = 0;
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.ejectedUntilNanos == 0 && (best == 0 || endpoint.latencyEwmaNanos < best)) {
+        best = endpoint.latencyEwmaNanos;
+      }
+    }
+    return best;
+  }
+
+  private Endpoint leastEjected(long now) {
+    Endpoint least = endpoints.get(0);
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.ejectedUntilNanos - now < least.ejectedUntilNanos - now) {
+        least = endpoint;
+      }
+    }
+    return least;
+  }
+
+  /**
+   * Connection pool of a database front end.
+   */
+  public static final class Endpoint {
+
+    private final String name;
+    private final HikariDataSource datasource;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile double latencyEwmaNanos;
+    // 0 while the endpoint is not ejected
+    private volatile long ejectedUntilNanos;
+
+    public Endpoint(String name, HikariDataSource datasource) {
+      this.name = name;
+      this.datasource = datasource;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public HikariDataSource getDatasource() {
+      return datasource;
+    }
+
+    public void startQuery() {
+      inFlight.incrementAndGet();
+    }
+
+    public void endQuery() {
+      inFlight.decrementAndGet();
+    }
+
+    public double getLatencyEwmaNanos() {
+      return latencyEwmaNanos;
+    }
+
+    public boolean isEjected() {
+      return ejectedUntilNanos != 0;
+    }
+
+    private double score() {
+      return latencyEwmaNanos * (inFlight.get() + 1);
+    }
+  }
+}
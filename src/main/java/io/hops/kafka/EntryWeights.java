@@ -0,0 +1,47 @@
+package io.hops.kafka;
+
+import com.google.common.cache.Weigher;
+import org.javatuples.Pair;
+
+/**
+ * Estimated heap bytes of the cache entries, used to bound the caches by memory instead of by number of entries.
+ * The estimates assume a 64 bit JVM with compressed oops and count strings as two bytes per char, which
+ * overestimates compact strings.
+ * <p>
+ */
+public final class EntryWeights {
+
+  // Cache entry, its reference in the segment table and the write and access queue links
+  static final int CACHE_ENTRY_BYTES = 64;
+  static final int INTEGER_BYTES = 16;
+  // javatuples Pair with its value array and list view, without the values
+  static final int PAIR_BYTES = 80;
+  // DecisionKey without the names
+  static final int DECISION_KEY_BYTES = 32;
+  private static final int STRING_BYTES = 40;
+
+  public static final Weigher<String, Integer> TOPIC_PROJECT = (topicName, topicProjectId) ->
+      CACHE_ENTRY_BYTES + stringBytes(topicName) + INTEGER_BYTES;
+
+  public static final Weigher<String, Pair<Integer, String>> USER_PROJECT = (principalName, projectRole) ->
+      CACHE_ENTRY_BYTES + stringBytes(principalName) + PAIR_BYTES + INTEGER_BYTES +
+          stringBytes(projectRole.getValue1());
+
+  public static final Weigher<Pair<Integer, Integer>, String> PROJECT_SHARE = (projectPair, sharePermission) ->
+      CACHE_ENTRY_BYTES + PAIR_BYTES + 2 * INTEGER_BYTES + stringBytes(sharePermission);
+
+  // The topic access is one of four shared instances
+  public static final Weigher<Integer, ProjectTopics> PROJECT_TOPICS = (projectId, topics) ->
+      CACHE_ENTRY_BYTES + INTEGER_BYTES;
+
+  // The decision is a shared enum constant
+  public static final Weigher<DecisionKey, Object> DECISION = (decisionKey, decision) ->
+      CACHE_ENTRY_BYTES + DECISION_KEY_BYTES + stringBytes(decisionKey.getPrincipalName()) +
+          stringBytes(decisionKey.getTopicName());
+
+  private EntryWeights() {}
+
+  static int stringBytes(String value) {
+    return value == null ? 0 : STRING_BYTES + 2 * value.length();
+  }
+}
@@ -1,14 +1,28 @@
 package io.hops.kafka;
 
+import com.google.common.base.Splitter;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.Endpoint;
 import org.apache.kafka.common.acl.AclBinding;
 import org.apache.kafka.common.acl.AclBindingFilter;
 import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourcePattern;
 import org.apache.kafka.common.resource.ResourceType;
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.utils.SecurityUtils;
 import org.apache.kafka.server.authorizer.AclCreateResult;
 import org.apache.kafka.server.authorizer.AclDeleteResult;
 import org.apache.kafka.server.authorizer.Action;
@@ -17,19 +31,37 @@ import org.apache.kafka.server.authorizer.AuthorizationResult;
 import org.apache.kafka.server.authorizer.Authorizer;
 import org.apache.kafka.server.authorizer.AuthorizerServerInfo;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import org.javatuples.Pair;
+import org.javatuples.Quartet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,10 +78,38 @@ public class HopsAclAuthorizer implements Authorizer {
   //List of users that will be treated as superusers and will have access to
   //all the resources for all actions from all posts, defaults to no superusers.
   private Set<KafkaPrincipal> superUsers = new HashSet<>();
+  // names of the super users, the principal type is not part of the subject names
+  private String[] superUserNames = new String[0];
   //Identifies if work with __consumer_offsets topic is allowed.
   private boolean consumerOffsetsAccessAllowed = false;
+  //Identifies if the caches are bulk loaded before the client listeners are opened.
+  private boolean cacheWarmUpEnabled = true;
+  //Maximum time the client listeners wait for the cache warm up.
+  private long cacheWarmUpTimeoutMs = 60000;
+  //Identifies if expiring entries are reloaded in the background while the old value is still served.
+  private boolean cacheRefreshEnabled = true;
+  //Fraction of the polling frequency after which an entry is refreshed.
+  private double cacheRefreshRatio = 0.75;
+  //Fraction of the polling frequency used as maximum random delay of a refresh.
+  private double cacheRefreshJitterRatio = 0.1;
+  private int cacheLoaderThreads = 2;
+  //Interval at which expired entries are removed from the caches.
+  private long cacheCleanUpIntervalMs = 1000;
+  //Identifies if decisions are taken from a periodically reloaded snapshot instead of the caches.
+  private boolean snapshotEngine = false;
+  private long snapshotReloadIntervalMs;
+  //Interval of the full reloads that catch the changes missed by the change log.
+  private long snapshotFullReloadIntervalMs = 3600000;
 
   private DbConnection dbConnection;
+  // Runs the database loads of request threads within a latency budget, null if loads run inline without a budget
+  private LoadExecutor loadExecutor;
+  //Decision of the requests whose latency budget is spent before their entries are loaded.
+  private AuthorizationResult budgetFallback = AuthorizationResult.DENIED;
+  // Limits the rate of the database loads of request threads, null if it is not limited
+  private AdmissionControl admissionControl;
+  //Decision of the requests whose cache misses are over the load rate.
+  private AuthorizationResult throttleFallback = AuthorizationResult.DENIED;
 
   // topicName -> topicProjectId
   private LoadingCache<String, Integer> topicProject;
@@ -58,6 +118,66 @@ public class HopsAclAuthorizer implements Authorizer {
   // topicProjectId, userProjectId -> sharePermission
   private LoadingCache<Pair<Integer, Integer>, String> projectShare;
 
+  // projectId -> owned and shared in topics, for authorizeByResourceType
+  private LoadingCache<Integer, ProjectTopics> projectTopics = projectTopicsCache(60000, null, 10000);
+
+  // principalName, topicName, operation -> decision, for decisions based on the caches above
+  private DecisionCache decisions = new DecisionCache(CacheBuilder.newBuilder().maximumSize(100000).build());
+
+  // Keys of the caches above that have no row in the database
+  private NegativeCache<String> missingTopics = new NegativeCache<>(10000, 10000);
+  private NegativeCache<String> missingPrincipals = new NegativeCache<>(10000, 10000);
+  private NegativeCache<Pair<Integer, Integer>> missingShares = new NegativeCache<>(10000, 10000);
+
+  // Registered topic and principal names, null if the filters are disabled
+  private NameFilter topicFilter;
+  private NameFilter principalFilter;
+  private long nameFilterRebuildIntervalMs = 3600000;
+
+  // Expired entries of the caches above, served while the database is failing
+  private StaleCache<String, Pair<Integer, String>> staleUserProject = new StaleCache<>(10000, 300000);
+  private StaleCache<Pair<Integer, Integer>, String> staleProjectShare = new StaleCache<>(10000, 300000);
+  //Interval of the recovery probes while the database circuit breaker is open.
+  private long databaseProbeIntervalMs = 5000;
+
+  // Latest snapshot of the authorization state, only used by the snapshot engine
+  private volatile AclSnapshot snapshot;
+
+  // Local copy of the authorization state loaded at start, null if it is not persisted
+  private Path snapshotFilePath;
+  private long snapshotFileWriteIntervalMs = 300000;
+  //Maximum age of a snapshot file that is loaded at start, older files are ignored.
+  private long snapshotFileMaxAgeMs = 3600000;
+  // State loaded from the snapshot file into the caches, until the warm up reconciled it with the database
+  private volatile AclSnapshot fileSnapshot;
+  // Start of the latest load of the caches from the database, 0 if nothing was loaded yet
+  private final AtomicLong cacheLoadedAtMs = new AtomicLong();
+
+  // Aggregated audit trail of the decisions, null if auditing is disabled
+  private AuditLog auditLog;
+  // null if metrics are disabled
+  private AuthorizerMetrics metrics;
+  // Evicts changed entries, null if the invalidation topic is not configured
+  private InvalidationConsumer invalidationConsumer;
+  private boolean invalidationJmxEnabled = true;
+  // Evicts the entries changed in the change log table, null if entries are only evicted once they expire
+  private ChangeLogSync changeLogSync;
+  private long changeLogSyncIntervalMs = 1000;
+  private ObjectName cacheControlName;
+  // Set while a snapshot update triggered by an invalidation is queued, coalesces bursts of invalidations
+  private final AtomicBoolean snapshotReloadQueued = new AtomicBoolean();
+  // Rows invalidated since the snapshot was last updated, read again by the queued update
+  private final Set<String> changedTopics = ConcurrentHashMap.newKeySet();
+  private final Set<String> changedPrincipals = ConcurrentHashMap.newKeySet();
+  private final Set<Pair<Integer, Integer>> changedShares = ConcurrentHashMap.newKeySet();
+  // Set when every row was invalidated, the queued update reloads the whole snapshot
+  private final AtomicBoolean snapshotFullReloadQueued = new AtomicBoolean();
+  // Serializes the reloads and updates of the snapshot, an older state never replaces a newer one
+  private final Object snapshotLock = new Object();
+
+  private ScheduledExecutorService backgroundExecutor;
+  private ScheduledExecutorService loaderExecutor;
+
   public HopsAclAuthorizer() {}
 
   // For testing
@@ -88,100 +208,1215 @@ public class HopsAclAuthorizer implements Authorizer {
       consumerOffsetsAccessAllowed = Boolean.parseBoolean((String) consumerOffsetsAccessAllowedObj);
     }
 
-    //initialize database connection.
-    dbConnection = new DbConnection(
-        configs.get(Consts.DATABASE_URL).toString(),
-        configs.get(Consts.DATABASE_USERNAME).toString(),
-        configs.get(Consts.DATABASE_PASSWORD).toString(),
-        Integer.parseInt(configs.get(Consts.DATABASE_MAX_POOL_SIZE).toString()),
-        configs.get(Consts.DATABASE_CACHE_PREPSTMTS).toString(),
-        configs.get(Consts.DATABASE_PREPSTMT_CACHE_SIZE).toString(),
-        configs.get(Consts.DATABASE_PREPSTMT_CACHE_SQL_LIMIT).toString());
+    Object authorizerEngineObj = configs.get(Consts.AUTHORIZER_ENGINE);
+    if (authorizerEngineObj != null) {
+      String authorizerEngine = String.valueOf(authorizerEngineObj);
+      if (!Consts.ENGINE_CACHE.equals(authorizerEngine) && !Consts.ENGINE_SNAPSHOT.equals(authorizerEngine)) {
+        throw new IllegalArgumentException("Unknown " + Consts.AUTHORIZER_ENGINE + ": " + authorizerEngine);
+      }
+      snapshotEngine = Consts.ENGINE_SNAPSHOT.equals(authorizerEngine);
+    }
+
+    boolean auditEnabled = true;
+    Object auditEnabledObj = configs.get(Consts.AUDIT_ENABLED);
+    if (auditEnabledObj != null) {
+      auditEnabled = Boolean.parseBoolean(String.valueOf(auditEnabledObj));
+    }
+    int auditBufferSize = 65536;
+    Object auditBufferSizeObj = configs.get(Consts.AUDIT_BUFFER_SIZE);
+    if (auditBufferSizeObj != null) {
+      auditBufferSize = Integer.parseInt(String.valueOf(auditBufferSizeObj));
+    }
+    long auditWindowMs = 10000;
+    Object auditWindowMsObj = configs.get(Consts.AUDIT_WINDOW_MS);
+    if (auditWindowMsObj != null) {
+      auditWindowMs = Long.parseLong(String.valueOf(auditWindowMsObj));
+    }
+    if (auditEnabled) {
+      auditLog = new AuditLog(auditBufferSize, auditWindowMs);
+    }
+
+    Object cacheWarmUpEnabledObj = configs.get(Consts.CACHE_WARMUP_ENABLED);
+    if (cacheWarmUpEnabledObj != null) {
+      cacheWarmUpEnabled = Boolean.parseBoolean(String.valueOf(cacheWarmUpEnabledObj));
+    }
+
+    Object cacheWarmUpTimeoutMsObj = configs.get(Consts.CACHE_WARMUP_TIMEOUT_MS);
+    if (cacheWarmUpTimeoutMsObj != null) {
+      cacheWarmUpTimeoutMs = Long.parseLong(String.valueOf(cacheWarmUpTimeoutMsObj));
+    }
+
+    Object cacheRefreshEnabledObj = configs.get(Consts.CACHE_REFRESH_ENABLED);
+    if (cacheRefreshEnabledObj != null) {
+      cacheRefreshEnabled = Boolean.parseBoolean(String.valueOf(cacheRefreshEnabledObj));
+    }
+
+    Object cacheRefreshRatioObj = configs.get(Consts.CACHE_REFRESH_RATIO);
+    if (cacheRefreshRatioObj != null) {
+      cacheRefreshRatio = Double.parseDouble(String.valueOf(cacheRefreshRatioObj));
+    }
+
+    Object cacheRefreshJitterRatioObj = configs.get(Consts.CACHE_REFRESH_JITTER_RATIO);
+    if (cacheRefreshJitterRatioObj != null) {
+      cacheRefreshJitterRatio = Double.parseDouble(String.valueOf(cacheRefreshJitterRatioObj));
+    }
+
+    if (cacheRefreshRatio <= 0 || cacheRefreshJitterRatio < 0 || cacheRefreshRatio + cacheRefreshJitterRatio >= 1) {
+      // a refresh has to complete before the entry expires
+      throw new IllegalArgumentException(Consts.CACHE_REFRESH_RATIO + " + " + Consts.CACHE_REFRESH_JITTER_RATIO +
+          " must be in (0, 1)");
+    }
+
+    Object cacheLoaderThreadsObj = configs.get(Consts.CACHE_LOADER_THREADS);
+    if (cacheLoaderThreadsObj != null) {
+      cacheLoaderThreads = Integer.parseInt(String.valueOf(cacheLoaderThreadsObj));
+    }
+
+    boolean metricsEnabled = true;
+    Object metricsEnabledObj = configs.get(Consts.METRICS_ENABLED);
+    if (metricsEnabledObj != null) {
+      metricsEnabled = Boolean.parseBoolean(String.valueOf(metricsEnabledObj));
+    }
+    if (metricsEnabled) {
+      metrics = new AuthorizerMetrics();
+    }
+
+    int databaseFailureThreshold = 5;
+    Object databaseFailureThresholdObj = configs.get(Consts.DATABASE_CIRCUIT_FAILURE_THRESHOLD);
+    if (databaseFailureThresholdObj != null) {
+      databaseFailureThreshold = Integer.parseInt(String.valueOf(databaseFailureThresholdObj));
+    }
+    Object databaseProbeIntervalMsObj = configs.get(Consts.DATABASE_CIRCUIT_PROBE_INTERVAL_MS);
+    if (databaseProbeIntervalMsObj != null) {
+      databaseProbeIntervalMs = Long.parseLong(String.valueOf(databaseProbeIntervalMsObj));
+    }
+    CircuitBreaker circuitBreaker = new CircuitBreaker(databaseFailureThreshold);
+    dbConnection = createDbConnection(configs, circuitBreaker);
+
+    long authorizeBudgetMs = 500;
+    Object authorizeBudgetMsObj = configs.get(Consts.AUTHORIZE_BUDGET_MS);
+    if (authorizeBudgetMsObj != null) {
+      authorizeBudgetMs = Long.parseLong(String.valueOf(authorizeBudgetMsObj));
+    }
+    budgetFallback = fallback(configs, Consts.AUTHORIZE_BUDGET_FALLBACK);
+    // one load per pooled connection, the others wait in the queue
+    int databaseLoadThreads = Integer.parseInt(configs.get(Consts.DATABASE_MAX_POOL_SIZE).toString());
+    Object databaseLoadThreadsObj = configs.get(Consts.DATABASE_LOAD_THREADS);
+    if (databaseLoadThreadsObj != null) {
+      databaseLoadThreads = Integer.parseInt(String.valueOf(databaseLoadThreadsObj));
+    }
+    int databaseLoadQueueSize = 1000;
+    Object databaseLoadQueueSizeObj = configs.get(Consts.DATABASE_LOAD_QUEUE_SIZE);
+    if (databaseLoadQueueSizeObj != null) {
+      databaseLoadQueueSize = Integer.parseInt(String.valueOf(databaseLoadQueueSizeObj));
+    }
+    // 0 disables hedged loads
+    long databaseLoadHedgeDelayMs = 0;
+    Object databaseLoadHedgeDelayMsObj = configs.get(Consts.DATABASE_LOAD_HEDGE_DELAY_MS);
+    if (databaseLoadHedgeDelayMsObj != null) {
+      databaseLoadHedgeDelayMs = Long.parseLong(String.valueOf(databaseLoadHedgeDelayMsObj));
+    }
+    if (authorizeBudgetMs > 0) {
+      loadExecutor = new LoadExecutor(databaseLoadThreads, databaseLoadQueueSize, authorizeBudgetMs,
+          databaseLoadHedgeDelayMs);
+    }
+    // 0 does not limit the rate
+    double databaseLoadRateGlobal = 0;
+    Object databaseLoadRateGlobalObj = configs.get(Consts.DATABASE_LOAD_RATE_GLOBAL);
+    if (databaseLoadRateGlobalObj != null) {
+      databaseLoadRateGlobal = Double.parseDouble(String.valueOf(databaseLoadRateGlobalObj));
+    }
+    double databaseLoadRatePrincipal = 0;
+    Object databaseLoadRatePrincipalObj = configs.get(Consts.DATABASE_LOAD_RATE_PRINCIPAL);
+    if (databaseLoadRatePrincipalObj != null) {
+      databaseLoadRatePrincipal = Double.parseDouble(String.valueOf(databaseLoadRatePrincipalObj));
+    }
+    throttleFallback = fallback(configs, Consts.DATABASE_LOAD_THROTTLE_FALLBACK);
 
     long expireDuration = Long.parseLong(String.valueOf(configs.get(Consts.DATABASE_ACL_POLLING_FREQUENCY_MS)));
+    snapshotReloadIntervalMs = expireDuration;
+    Object snapshotFullReloadIntervalMsObj = configs.get(Consts.SNAPSHOT_FULL_RELOAD_INTERVAL_MS);
+    if (snapshotFullReloadIntervalMsObj != null) {
+      snapshotFullReloadIntervalMs = Long.parseLong(String.valueOf(snapshotFullReloadIntervalMsObj));
+    }
+    if (cacheRefreshEnabled) {
+      loaderExecutor = Executors.newScheduledThreadPool(cacheLoaderThreads, new ThreadFactoryBuilder()
+          .setNameFormat("hops-authorizer-loader-%d")
+          .setDaemon(true)
+          .build());
+    }
+    long negativeCacheMaxSize = 10000;
+    Object negativeCacheMaxSizeObj = configs.get(Consts.CACHE_NEGATIVE_MAX_SIZE);
+    if (negativeCacheMaxSizeObj != null) {
+      negativeCacheMaxSize = Long.parseLong(String.valueOf(negativeCacheMaxSizeObj));
+    }
+    long negativeCacheTtlMs = Math.min(10000, expireDuration);
+    Object negativeCacheTtlMsObj = configs.get(Consts.CACHE_NEGATIVE_TTL_MS);
+    if (negativeCacheTtlMsObj != null) {
+      negativeCacheTtlMs = Long.parseLong(String.valueOf(negativeCacheTtlMsObj));
+    }
+    missingTopics = new NegativeCache<>(negativeCacheMaxSize, negativeCacheTtlMs);
+    missingPrincipals = new NegativeCache<>(negativeCacheMaxSize, negativeCacheTtlMs);
+    missingShares = new NegativeCache<>(negativeCacheMaxSize, negativeCacheTtlMs);
+    // the logged changes invalidate the rows, the expiry only catches the changes missed by the log, like the full
+    // snapshot reloads do
+    long cacheExpireDuration = expireDuration;
+    if (configs.get(Consts.DATABASE_SYNC_CHANGELOG_TABLE) != null) {
+      cacheExpireDuration = Math.max(expireDuration, snapshotFullReloadIntervalMs);
+    }
+
+    boolean nameFilterEnabled = false;
+    Object nameFilterEnabledObj = configs.get(Consts.CACHE_NAME_FILTER_ENABLED);
+    if (nameFilterEnabledObj != null) {
+      nameFilterEnabled = Boolean.parseBoolean(String.valueOf(nameFilterEnabledObj));
+    }
+    double nameFilterFpp = 0.01;
+    Object nameFilterFppObj = configs.get(Consts.CACHE_NAME_FILTER_FPP);
+    if (nameFilterFppObj != null) {
+      nameFilterFpp = Double.parseDouble(String.valueOf(nameFilterFppObj));
+    }
+    Object nameFilterRebuildIntervalMsObj = configs.get(Consts.CACHE_NAME_FILTER_REBUILD_INTERVAL_MS);
+    if (nameFilterRebuildIntervalMsObj != null) {
+      nameFilterRebuildIntervalMs = Long.parseLong(String.valueOf(nameFilterRebuildIntervalMsObj));
+    }
+    long decisionCacheMaxSize = 100000;
+    Object decisionCacheMaxSizeObj = configs.get(Consts.CACHE_DECISION_MAX_SIZE);
+    if (decisionCacheMaxSizeObj != null) {
+      decisionCacheMaxSize = Long.parseLong(String.valueOf(decisionCacheMaxSizeObj));
+    }
+    decisions = new DecisionCache(bounded(newCacheBuilder(), EntryWeights.DECISION,
+        maxBytes(configs, Consts.CACHE_DECISION_MAX_MB), decisionCacheMaxSize, removalListener("decisions", null))
+        .expireAfterWrite(cacheExpireDuration, TimeUnit.MILLISECONDS)
+        .build());
+
     long cacheMaxSize = Long.parseLong(String.valueOf(configs.get(Consts.CACHE_MAX_SIZE)));
-    topicProject = CacheBuilder.newBuilder()
-        .maximumSize(cacheMaxSize)
-        .build(new CacheLoader<String, Integer>() {
+    long cacheStaleGraceMs = 300000;
+    Object cacheStaleGraceMsObj = configs.get(Consts.CACHE_STALE_GRACE_MS);
+    if (cacheStaleGraceMsObj != null) {
+      cacheStaleGraceMs = Long.parseLong(String.valueOf(cacheStaleGraceMsObj));
+    }
+    staleUserProject = new StaleCache<>(cacheMaxSize, cacheStaleGraceMs);
+    staleProjectShare = new StaleCache<>(cacheMaxSize, cacheStaleGraceMs);
+    if (databaseLoadRateGlobal > 0 || databaseLoadRatePrincipal > 0) {
+      admissionControl = new AdmissionControl(databaseLoadRateGlobal, databaseLoadRatePrincipal, cacheMaxSize,
+          metrics);
+    }
+    // guarded by the admission control like the other caches
+    projectTopics = projectTopicsCache(cacheExpireDuration, maxBytes(configs, Consts.CACHE_PROJECT_TOPICS_MAX_MB),
+        cacheMaxSize);
+    topicProject = bounded(newCacheBuilder(), EntryWeights.TOPIC_PROJECT,
+        maxBytes(configs, Consts.CACHE_TOPIC_PROJECT_MAX_MB), cacheMaxSize, removalListener("topic-project", null))
+        .build(guarded(tracked(new CacheLoader<String, Integer>() {
           @Override
           public Integer load(String topicName) throws SQLException {
             LOGGER.info("Getting topics project. topicName: {}", topicName);
-            return dbConnection.getTopicProject(topicName);
+            Integer topicProjectId = dbConnection.getTopicProject(topicName);
+            if (topicProjectId == null) {
+              missingTopics.add(topicName);
+            }
+            return topicProjectId;
           }
-        });
-    userProject = CacheBuilder.newBuilder()
-        .expireAfterWrite(expireDuration, TimeUnit.MILLISECONDS)
-        .build(new CacheLoader<String, Pair<Integer, String>>() {
+
+          @Override
+          public Map<String, Integer> loadAll(Iterable<? extends String> topicNames) throws SQLException {
+            List<String> topicNameList = Lists.newArrayList(topicNames);
+            LOGGER.info("Getting topics projects. topics: {}", topicNameList.size());
+            Map<String, Integer> topicProjects = dbConnection.getTopicProjects(topicNameList);
+            for (String topicName : topicNameList) {
+              if (!topicProjects.containsKey(topicName)) {
+                missingTopics.add(topicName);
+              }
+            }
+            return topicProjects;
+          }
+        })));
+    userProject = bounded(expiringCacheBuilder(cacheExpireDuration), EntryWeights.USER_PROJECT,
+        maxBytes(configs, Consts.CACHE_USER_PROJECT_MAX_MB), cacheMaxSize,
+        removalListener("user-project", expiring(staleUserProject, decisions::invalidatePrincipal)))
+        .build(refreshing(guarded(tracked(new CacheLoader<String, Pair<Integer, String>>() {
           @Override
           public Pair<Integer, String> load(String principalName) throws SQLException {
-            String[] principalNameSplit = principalName.split(Consts.PROJECT_USER_DELIMITER);
-            String projectName = principalNameSplit[0];
-            String username = principalNameSplit[1];
+            Pair<String, String> projectUser = splitPrincipalName(principalName);
+            if (projectUser == null) {
+              // not a project user
+              missingPrincipals.add(principalName);
+              return null;
+            }
+            String projectName = projectUser.getValue0();
+            String username = projectUser.getValue1();
             LOGGER.info("Getting users project role. projectName: {}, username: {}",
                 projectName, username);
-            return dbConnection.getProjectRole(projectName, username);
+            Pair<Integer, String> projectRole = dbConnection.getProjectRole(projectName, username);
+            if (projectRole == null) {
+              missingPrincipals.add(principalName);
+            }
+            return projectRole;
           }
-        });
-    projectShare = CacheBuilder.newBuilder()
-        .expireAfterWrite(expireDuration, TimeUnit.MILLISECONDS)
-        .build(new CacheLoader<Pair<Integer, Integer>, String>() {
+
+          @Override
+          public Map<String, Pair<Integer, String>> loadAll(Iterable<? extends String> principalNames)
+              throws SQLException {
+            List<Pair<String, String>> projectUsers = new ArrayList<>();
+            for (String principalName : principalNames) {
+              Pair<String, String> projectUser = splitPrincipalName(principalName);
+              if (projectUser != null) {
+                projectUsers.add(projectUser);
+              }
+            }
+            LOGGER.info("Getting users project roles. users: {}", projectUsers.size());
+            Map<String, Pair<Integer, String>> projectRoles = dbConnection.getProjectRoles(projectUsers);
+            for (String principalName : principalNames) {
+              if (!projectRoles.containsKey(principalName)) {
+                missingPrincipals.add(principalName);
+              }
+            }
+            return projectRoles;
+          }
+        })), cacheExpireDuration, this::projectRoleChanged));
+    projectShare = bounded(expiringCacheBuilder(cacheExpireDuration), EntryWeights.PROJECT_SHARE,
+        maxBytes(configs, Consts.CACHE_PROJECT_SHARE_MAX_MB), cacheMaxSize,
+        removalListener("project-share", expiring(staleProjectShare, this::invalidateShareDecisions)))
+        .build(refreshing(guarded(tracked(new CacheLoader<Pair<Integer, Integer>, String>() {
           @Override
           public String load(Pair<Integer, Integer> pair) throws SQLException {
             int topicProjectId = pair.getValue0();
             int userProjectId = pair.getValue1();
             LOGGER.info("Getting project share permission. topicProjectId: {}, userProjectId: {}",
                 topicProjectId, userProjectId);
-            return dbConnection.getSharedProject(userProjectId, topicProjectId);
+            String sharePermission = dbConnection.getSharedProject(userProjectId, topicProjectId);
+            if (sharePermission == null) {
+              missingShares.add(pair);
+            }
+            return sharePermission;
+          }
+
+          @Override
+          public Map<Pair<Integer, Integer>, String> loadAll(Iterable<? extends Pair<Integer, Integer>> pairs)
+              throws SQLException {
+            List<Pair<Integer, Integer>> pairList = Lists.newArrayList(pairs);
+            LOGGER.info("Getting project share permissions. pairs: {}", pairList.size());
+            Map<Pair<Integer, Integer>, String> sharedProjects = dbConnection.getSharedProjects(pairList);
+            for (Pair<Integer, Integer> pair : pairList) {
+              if (!sharedProjects.containsKey(pair)) {
+                missingShares.add(pair);
+              }
+            }
+            return sharedProjects;
+          }
+        })), cacheExpireDuration, this::projectShareChanged));
+
+    Object invalidationJmxEnabledObj = configs.get(Consts.INVALIDATION_JMX_ENABLED);
+    if (invalidationJmxEnabledObj != null) {
+      invalidationJmxEnabled = Boolean.parseBoolean(String.valueOf(invalidationJmxEnabledObj));
+    }
+    Object invalidationTopicObj = configs.get(Consts.INVALIDATION_TOPIC);
+    if (invalidationTopicObj != null) {
+      Map<String, Object> consumerConfigs = new HashMap<>();
+      for (Map.Entry<String, ?> config : configs.entrySet()) {
+        if (config.getKey().startsWith(Consts.INVALIDATION_CONSUMER_PREFIX)) {
+          consumerConfigs.put(config.getKey().substring(Consts.INVALIDATION_CONSUMER_PREFIX.length()),
+              config.getValue());
+        }
+      }
+      consumerConfigs.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+      invalidationConsumer = new InvalidationConsumer(
+          new KafkaConsumer<>(consumerConfigs, new StringDeserializer(), new StringDeserializer()),
+          String.valueOf(invalidationTopicObj), new CacheControl(this));
+    }
+
+    Object snapshotFilePathObj = configs.get(Consts.SNAPSHOT_FILE_PATH);
+    if (snapshotFilePathObj != null) {
+      snapshotFilePath = Paths.get(String.valueOf(snapshotFilePathObj));
+    }
+    Object snapshotFileWriteIntervalMsObj = configs.get(Consts.SNAPSHOT_FILE_WRITE_INTERVAL_MS);
+    if (snapshotFileWriteIntervalMsObj != null) {
+      snapshotFileWriteIntervalMs = Long.parseLong(String.valueOf(snapshotFileWriteIntervalMsObj));
+    }
+    Object snapshotFileMaxAgeMsObj = configs.get(Consts.SNAPSHOT_FILE_MAX_AGE_MS);
+    if (snapshotFileMaxAgeMsObj != null) {
+      snapshotFileMaxAgeMs = Long.parseLong(String.valueOf(snapshotFileMaxAgeMsObj));
+    }
+
+    Object changeLogTableObj = configs.get(Consts.DATABASE_SYNC_CHANGELOG_TABLE);
+    if (changeLogTableObj != null) {
+      Object changeLogSyncIntervalMsObj = configs.get(Consts.DATABASE_SYNC_INTERVAL_MS);
+      if (changeLogSyncIntervalMsObj != null) {
+        changeLogSyncIntervalMs = Long.parseLong(String.valueOf(changeLogSyncIntervalMsObj));
+      }
+      int changeLogSyncBatchSize = 1000;
+      Object changeLogSyncBatchSizeObj = configs.get(Consts.DATABASE_SYNC_BATCH_SIZE);
+      if (changeLogSyncBatchSizeObj != null) {
+        changeLogSyncBatchSize = Integer.parseInt(String.valueOf(changeLogSyncBatchSizeObj));
+      }
+      changeLogSync = new ChangeLogSync(dbConnection, String.valueOf(changeLogTableObj), changeLogSyncBatchSize,
+          new CacheControl(this));
+    }
+
+    // the snapshot engine has every name in memory already
+    if (nameFilterEnabled && !snapshotEngine) {
+      if (invalidationConsumer != null || changeLogSync != null) {
+        topicFilter = new NameFilter(nameFilterFpp);
+        principalFilter = new NameFilter(nameFilterFpp);
+      } else {
+        // names registered after a rebuild would be denied until the next one
+        LOGGER.warn("{} requires {} or {}, the name filters are disabled", Consts.CACHE_NAME_FILTER_ENABLED,
+            Consts.INVALIDATION_TOPIC, Consts.DATABASE_SYNC_CHANGELOG_TABLE);
+      }
+    }
+
+    if (metrics != null) {
+      metrics.registerCache("topic-project", topicProject);
+      metrics.registerCache("user-project", userProject);
+      metrics.registerCache("project-share", projectShare);
+      metrics.registerCache("project-topics", projectTopics);
+      metrics.registerCache("decisions", decisions.getCache());
+      metrics.registerCircuitBreaker(circuitBreaker);
+    }
+  }
+
+  // Opens the connection pools, overridden by tests and benchmarks that serve the queries from memory
+  protected DbConnection createDbConnection(Map<String, ?> configs, CircuitBreaker circuitBreaker) {
+    List<String> databaseUrls;
+    Object databaseUrlsObj = configs.get(Consts.DATABASE_URLS);
+    if (databaseUrlsObj != null) {
+      databaseUrls = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(String.valueOf(databaseUrlsObj));
+    } else {
+      databaseUrls = Collections.singletonList(configs.get(Consts.DATABASE_URL).toString());
+    }
+    int endpointFailureThreshold = 3;
+    Object endpointFailureThresholdObj = configs.get(Consts.DATABASE_ENDPOINT_FAILURE_THRESHOLD);
+    if (endpointFailureThresholdObj != null) {
+      endpointFailureThreshold = Integer.parseInt(String.valueOf(endpointFailureThresholdObj));
+    }
+    long endpointEjectionMs = 30000;
+    Object endpointEjectionMsObj = configs.get(Consts.DATABASE_ENDPOINT_EJECTION_MS);
+    if (endpointEjectionMsObj != null) {
+      endpointEjectionMs = Long.parseLong(String.valueOf(endpointEjectionMsObj));
+    }
+
+    return new DbConnection(
+        databaseUrls,
+        configs.get(Consts.DATABASE_USERNAME).toString(),
+        configs.get(Consts.DATABASE_PASSWORD).toString(),
+        Integer.parseInt(configs.get(Consts.DATABASE_MAX_POOL_SIZE).toString()),
+        configs.get(Consts.DATABASE_CACHE_PREPSTMTS).toString(),
+        configs.get(Consts.DATABASE_PREPSTMT_CACHE_SIZE).toString(),
+        configs.get(Consts.DATABASE_PREPSTMT_CACHE_SQL_LIMIT).toString(),
+        metrics,
+        circuitBreaker,
+        endpointFailureThreshold,
+        endpointEjectionMs);
+  }
+
+  // Splits projectName__username, returns null if the principal is not a project user
+  private static Pair<String, String> splitPrincipalName(String principalName) {
+    return HopsKafkaPrincipal.splitProjectUser(principalName);
+  }
+
+  // Not refreshed in the background, the index is only used for the rare authorizeByResourceType calls
+  private LoadingCache<Integer, ProjectTopics> projectTopicsCache(long expireDuration, Long maxBytes, long maxSize) {
+    return bounded(newCacheBuilder(), EntryWeights.PROJECT_TOPICS, maxBytes, maxSize,
+        removalListener("project-topics", null))
+        .expireAfterWrite(expireDuration, TimeUnit.MILLISECONDS)
+        .build(guarded(new CacheLoader<Integer, ProjectTopics>() {
+          @Override
+          public ProjectTopics load(Integer projectId) throws SQLException {
+            LOGGER.info("Getting project topics. projectId: {}", projectId);
+            return dbConnection.getProjectTopics(projectId);
           }
-        });
+        }));
+  }
+
+  // Records when the caches were last loaded from the database, the age of the snapshot file they are written to
+  private <K, V> CacheLoader<K, V> tracked(CacheLoader<K, V> cacheLoader) {
+    return new CacheLoader<K, V>() {
+      @Override
+      public V load(K key) throws Exception {
+        long startMs = System.currentTimeMillis();
+        V value = cacheLoader.load(key);
+        cacheLoaded(startMs);
+        return value;
+      }
+
+      @Override
+      public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+        long startMs = System.currentTimeMillis();
+        Map<K, V> values = cacheLoader.loadAll(keys);
+        cacheLoaded(startMs);
+        return values;
+      }
+    };
+  }
+
+  private void cacheLoaded(long startMs) {
+    cacheLoadedAtMs.accumulateAndGet(startMs, Math::max);
   }
 
+  // Tokens are taken on the request thread, before the load is handed to the load executor
+  private <K, V> CacheLoader<K, V> guarded(CacheLoader<K, V> cacheLoader) {
+    CacheLoader<K, V> budgeted = loadExecutor == null ? cacheLoader : loadExecutor.budgeted(cacheLoader);
+    return admissionControl == null ? budgeted : admissionControl.admitted(budgeted);
+  }
+
+  // Deny if the fallback is not configured
+  private static AuthorizationResult fallback(Map<String, ?> configs, String fallbackConfig) {
+    Object fallbackObj = configs.get(fallbackConfig);
+    if (fallbackObj == null) {
+      return AuthorizationResult.DENIED;
+    }
+    String fallback = String.valueOf(fallbackObj);
+    if (!Consts.FALLBACK_DENY.equals(fallback) && !Consts.FALLBACK_ALLOW.equals(fallback)) {
+      throw new IllegalArgumentException("Unknown " + fallbackConfig + ": " + fallback);
+    }
+    return Consts.FALLBACK_ALLOW.equals(fallback) ? AuthorizationResult.ALLOWED : AuthorizationResult.DENIED;
+  }
+
+  private CacheBuilder<Object, Object> newCacheBuilder() {
+    CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+    if (metrics != null) {
+      cacheBuilder.recordStats();
+    }
+    return cacheBuilder;
+  }
+
+  /**
+   * Bounds a cache by the estimated bytes of its entries if maxBytes is set, by the number of entries otherwise.
+   */
+  private static <K, V> CacheBuilder<K, V> bounded(CacheBuilder<Object, Object> cacheBuilder,
+                                                  Weigher<K, ? super V> weigher, Long maxBytes, long maxSize,
+                                                  RemovalListener<K, V> removalListener) {
+    if (maxBytes != null) {
+      return cacheBuilder.maximumWeight(maxBytes).weigher(weigher).removalListener(removalListener);
+    }
+    return cacheBuilder.maximumSize(maxSize).removalListener(removalListener);
+  }
+
+  // null if the size is not configured
+  private static Long maxBytes(Map<String, ?> configs, String maxMbConfig) {
+    Object maxMbObj = configs.get(maxMbConfig);
+    if (maxMbObj == null) {
+      return null;
+    }
+    return Long.parseLong(String.valueOf(maxMbObj)) * 1024 * 1024;
+  }
+
+  // Counts the entries evicted for memory, then calls the listener if there is one
+  private <K, V> RemovalListener<K, V> removalListener(String cacheName, RemovalListener<K, V> removalListener) {
+    RemovalListener<K, V> listener = removalListener != null ? removalListener : notification -> { };
+    return metrics == null ? listener : metrics.countSizeEvictions(cacheName, listener);
+  }
+
+  private CacheBuilder<Object, Object> expiringCacheBuilder(long expireDuration) {
+    CacheBuilder<Object, Object> cacheBuilder = newCacheBuilder()
+        .expireAfterWrite(expireDuration, TimeUnit.MILLISECONDS);
+    if (loaderExecutor != null) {
+      cacheBuilder.refreshAfterWrite((long) (expireDuration * cacheRefreshRatio), TimeUnit.MILLISECONDS);
+    }
+    return cacheBuilder;
+  }
+
+  // The change listener drops the decisions on an entry whose refresh changed it
+  private <K, V> CacheLoader<K, V> refreshing(CacheLoader<K, V> cacheLoader, long expireDuration,
+                                              BiConsumer<K, V> changeListener) {
+    if (loaderExecutor == null) {
+      return cacheLoader;
+    }
+    return new RefreshingCacheLoader<>(cacheLoader, loaderExecutor, (long) (expireDuration * cacheRefreshJitterRatio),
+        changeListener);
+  }
+
+  /**
+   * Passes the removed entries on to the stale cache, and drops the decisions on an entry once it expires, so a
+   * decision does not outlive the entries it is based on.
+   */
+  private static <K, V> RemovalListener<K, V> expiring(StaleCache<K, V> staleCache, Consumer<K> expiryListener) {
+    return new RemovalListener<K, V>() {
+      @Override
+      public void onRemoval(RemovalNotification<K, V> notification) {
+        if (notification.getCause() == RemovalCause.EXPIRED) {
+          expiryListener.accept(notification.getKey());
+        }
+        staleCache.onRemoval(notification);
+      }
+    };
+  }
+
+  // The new value is in the cache before the decisions are dropped, a decision taken after the drop is based on it
+  private void projectRoleChanged(String principalName, Pair<Integer, String> projectRole) {
+    if (projectRole == null) {
+      userProject.invalidate(principalName);
+    } else {
+      userProject.put(principalName, projectRole);
+    }
+    decisions.invalidatePrincipal(principalName);
+  }
+
+  private void projectShareChanged(Pair<Integer, Integer> projectPair, String sharePermission) {
+    if (sharePermission == null) {
+      projectShare.invalidate(projectPair);
+    } else {
+      projectShare.put(projectPair, sharePermission);
+    }
+    invalidateShareDecisions(projectPair);
+  }
+
+  private void invalidateShareDecisions(Pair<Integer, Integer> projectPair) {
+    decisions.invalidateShare(projectPair.getValue0(), projectPair.getValue1());
+  }
+
+  // Expired entries are removed, and their decisions dropped, on cache writes and on some reads otherwise
+  private void cleanUpCaches() {
+    userProject.cleanUp();
+    projectShare.cleanUp();
+  }
+
+  /**
+   * Warms up the caches (or loads the first snapshot) in the background. Client listeners are opened once the warm up
+   * finished, failed or timed out, early start and inter-broker listeners are opened right away.
+   *
+   * @param authorizerServerInfo
+   */
   @Override
   public Map<Endpoint, ? extends CompletionStage<Void>> start(AuthorizerServerInfo authorizerServerInfo) {
-    // Nothing major to do during the startup. We could potentially warm up the caches.
-    return new HashMap<>();
+    backgroundExecutor = Executors.newScheduledThreadPool(2, new ThreadFactoryBuilder()
+        .setNameFormat("hops-authorizer-background-%d")
+        .setDaemon(true)
+        .build());
+    // before any reload is scheduled, so the file never replaces a newer snapshot
+    boolean snapshotFileLoaded = loadSnapshotFile();
+    if (auditLog != null) {
+      auditLog.start();
+    }
+    if (invalidationJmxEnabled) {
+      registerCacheControl();
+    }
+    if (invalidationConsumer != null) {
+      invalidationConsumer.start();
+    }
+    if (dbConnection != null) {
+      backgroundExecutor.scheduleWithFixedDelay(dbConnection::probe, databaseProbeIntervalMs, databaseProbeIntervalMs,
+          TimeUnit.MILLISECONDS);
+    }
+
+    if (!snapshotEngine) {
+      backgroundExecutor.scheduleWithFixedDelay(this::cleanUpCaches, cacheCleanUpIntervalMs, cacheCleanUpIntervalMs,
+          TimeUnit.MILLISECONDS);
+    }
+
+    if (changeLogSync != null) {
+      backgroundExecutor.scheduleWithFixedDelay(changeLogSync::run, changeLogSyncIntervalMs, changeLogSyncIntervalMs,
+          TimeUnit.MILLISECONDS);
+    }
+
+    if (topicFilter != null && dbConnection != null) {
+      // the warm up builds the filters first
+      long initialDelay = cacheWarmUpEnabled ? nameFilterRebuildIntervalMs : 0;
+      backgroundExecutor.scheduleWithFixedDelay(this::rebuildNameFilters, initialDelay, nameFilterRebuildIntervalMs,
+          TimeUnit.MILLISECONDS);
+    }
+
+    if (snapshotEngine && changeLogSync != null) {
+      // logged changes are applied to the snapshot, the full reloads catch the changes that were missed
+      long initialDelay = cacheWarmUpEnabled ? snapshotFullReloadIntervalMs : 0;
+      backgroundExecutor.scheduleWithFixedDelay(this::reloadSnapshot, initialDelay, snapshotFullReloadIntervalMs,
+          TimeUnit.MILLISECONDS);
+    } else if (snapshotEngine) {
+      long initialDelay = cacheWarmUpEnabled ? snapshotReloadIntervalMs : 0;
+      backgroundExecutor.scheduleWithFixedDelay(this::reloadSnapshot, initialDelay, snapshotReloadIntervalMs,
+          TimeUnit.MILLISECONDS);
+    }
+
+    CompletableFuture<Void> cachesReady = new CompletableFuture<>();
+    // the warm up reconciles the state of the snapshot file with the database
+    if (cacheWarmUpEnabled || (snapshotFileLoaded && !snapshotEngine)) {
+      backgroundExecutor.execute(() -> warmUp(cachesReady));
+      backgroundExecutor.schedule(() -> warmUpTimeout(cachesReady), cacheWarmUpTimeoutMs, TimeUnit.MILLISECONDS);
+    } else {
+      cachesReady.complete(null);
+    }
+    if (snapshotFileLoaded) {
+      // decisions are served from the file until the warm up finished
+      cachesReady.complete(null);
+    }
+    if (snapshotFilePath != null) {
+      backgroundExecutor.scheduleWithFixedDelay(this::writeSnapshotFile, snapshotFileWriteIntervalMs,
+          snapshotFileWriteIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    Map<Endpoint, CompletableFuture<Void>> futures = new HashMap<>();
+    for (Endpoint endpoint : authorizerServerInfo.endpoints()) {
+      boolean earlyStart = endpoint.equals(authorizerServerInfo.interBrokerEndpoint()) ||
+          endpoint.listenerName().map(authorizerServerInfo.earlyStartListeners()::contains).orElse(false);
+      futures.put(endpoint, earlyStart ? CompletableFuture.completedFuture(null) : cachesReady);
+    }
+    return futures;
+  }
+
+  /**
+   * Loads the snapshot file into the snapshot or the caches.
+   *
+   * @return true if a file was loaded
+   */
+  protected boolean loadSnapshotFile() {
+    if (snapshotFilePath == null) {
+      return false;
+    }
+    AclSnapshot loadedSnapshot;
+    try {
+      loadedSnapshot = SnapshotFile.read(snapshotFilePath, snapshotFileMaxAgeMs);
+    } catch (IOException e) {
+      LOGGER.warn("Failed to load snapshot file {}, loading from the database", snapshotFilePath, e);
+      return false;
+    }
+    if (loadedSnapshot == null) {
+      LOGGER.info("No snapshot file {} younger than {} ms, loading from the database", snapshotFilePath,
+          snapshotFileMaxAgeMs);
+      return false;
+    }
+    if (snapshotEngine) {
+      snapshot = loadedSnapshot;
+    } else {
+      topicProject.putAll(loadedSnapshot.getTopicProjects());
+      userProject.putAll(loadedSnapshot.getProjectRoles());
+      loadedSnapshot.getSharedProjects().forEach((topicProjectId, userProjectId, permission) ->
+          projectShare.put(new Pair<>(topicProjectId, userProjectId), ProjectShareMap.decode(permission)));
+      fileSnapshot = loadedSnapshot;
+    }
+    LOGGER.info("Loaded snapshot file {} with {} topics, {} project members and {} project shares", snapshotFilePath,
+        loadedSnapshot.getTopicProjects().size(), loadedSnapshot.getProjectRoles().size(),
+        loadedSnapshot.getSharedProjects().size());
+    return true;
+  }
+
+  /**
+   * Writes the snapshot, or the cached entries, to the snapshot file. Nothing is written before anything is loaded,
+   * so a broker that fails to start does not replace a good file with an empty one. The file keeps the time the state
+   * was loaded from the database, state loaded from the file itself keeps aging until the database is reached again.
+   */
+  protected void writeSnapshotFile() {
+    AclSnapshot currentSnapshot = snapshot;
+    if (!snapshotEngine) {
+      // the entries of the file are current once the warm up reconciled them
+      AclSnapshot loadedSnapshot = fileSnapshot;
+      long loadedAtMs = loadedSnapshot != null ? loadedSnapshot.getLoadedAtMs() : cacheLoadedAtMs.get();
+      if (loadedAtMs == 0) {
+        return;
+      }
+      currentSnapshot = new AclSnapshot(new HashMap<>(topicProject.asMap()), new HashMap<>(userProject.asMap()),
+          new HashMap<>(projectShare.asMap()), loadedAtMs);
+    }
+    if (currentSnapshot == null ||
+        (currentSnapshot.getTopicProjects().isEmpty() && currentSnapshot.getProjectRoles().isEmpty())) {
+      return;
+    }
+    try {
+      SnapshotFile.write(snapshotFilePath, currentSnapshot);
+    } catch (IOException e) {
+      LOGGER.warn("Failed to write snapshot file {}", snapshotFilePath, e);
+    }
+  }
+
+  private void registerCacheControl() {
+    try {
+      ObjectName objectName = new ObjectName(CacheControl.OBJECT_NAME);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(new CacheControl(this), objectName);
+      cacheControlName = objectName;
+    } catch (JMException e) {
+      LOGGER.warn("Failed to register {}, entries are only evicted once they expire", CacheControl.OBJECT_NAME, e);
+    }
+  }
+
+  private void warmUp(CompletableFuture<Void> cachesReady) {
+    if (changeLogSync != null) {
+      try {
+        changeLogSync.initialize();
+      } catch (SQLException e) {
+        LOGGER.warn("Failed to read the change log, the first sync starts from the last change", e);
+      }
+    }
+    if (snapshotEngine) {
+      reloadSnapshot();
+    } else {
+      warmUpCaches();
+    }
+    cachesReady.complete(null);
+  }
+
+  private void warmUpTimeout(CompletableFuture<Void> cachesReady) {
+    if (cachesReady.complete(null)) {
+      LOGGER.warn("Cache warm up did not finish within {} ms, opening listeners", cacheWarmUpTimeoutMs);
+    }
+  }
+
+  protected void warmUpCaches() {
+    try {
+      long startTime = System.currentTimeMillis();
+      if (topicFilter != null) {
+        topicFilter.startRebuild();
+        principalFilter.startRebuild();
+      }
+      Map<String, Integer> topicProjects = dbConnection.getTopicProjects();
+      topicProject.putAll(topicProjects);
+      Map<String, Pair<Integer, String>> projectRoles = dbConnection.getProjectRoles();
+      userProject.putAll(projectRoles);
+      if (topicFilter != null) {
+        topicFilter.finishRebuild(topicProjects.keySet());
+        principalFilter.finishRebuild(projectRoles.keySet());
+      }
+      Map<Pair<Integer, Integer>, String> sharedProjects = dbConnection.getSharedProjects();
+      projectShare.putAll(sharedProjects);
+      AclSnapshot loadedSnapshot = fileSnapshot;
+      if (loadedSnapshot != null) {
+        fileSnapshot = null;
+        reconcile(loadedSnapshot, topicProjects, projectRoles, sharedProjects);
+      }
+      cacheLoaded(startTime);
+      LOGGER.info("Warmed up caches with {} topics, {} project members and {} project shares in {} ms",
+          topicProjects.size(), projectRoles.size(), sharedProjects.size(), System.currentTimeMillis() - startTime);
+    } catch (SQLException e) {
+      if (topicFilter != null) {
+        topicFilter.abortRebuild();
+        principalFilter.abortRebuild();
+      }
+      LOGGER.warn("Failed to warm up caches, entries will be loaded on demand", e);
+    }
+  }
+
+  // Evicts the entries loaded from the snapshot file that are no longer in the database
+  private void reconcile(AclSnapshot loadedSnapshot, Map<String, Integer> topicProjects,
+                         Map<String, Pair<Integer, String>> projectRoles,
+                         Map<Pair<Integer, Integer>, String> sharedProjects) {
+    topicProject.invalidateAll(Sets.difference(loadedSnapshot.getTopicProjects().keySet(), topicProjects.keySet()));
+    userProject.invalidateAll(Sets.difference(loadedSnapshot.getProjectRoles().keySet(), projectRoles.keySet()));
+    List<Pair<Integer, Integer>> removedShares = new ArrayList<>();
+    loadedSnapshot.getSharedProjects().forEach((topicProjectId, userProjectId, permission) ->
+        removedShares.add(new Pair<>(topicProjectId, userProjectId)));
+    removedShares.removeAll(sharedProjects.keySet());
+    projectShare.invalidateAll(removedShares);
+    projectTopics.invalidateAll();
+    decisions.invalidateAll();
+  }
+
+  /**
+   * Rebuilds the name filters from the database, which drops the removed names.
+   */
+  protected void rebuildNameFilters() {
+    try {
+      long startTime = System.currentTimeMillis();
+      topicFilter.startRebuild();
+      principalFilter.startRebuild();
+      Set<String> topicNames = dbConnection.getTopicProjects().keySet();
+      Set<String> principalNames = dbConnection.getProjectRoles().keySet();
+      topicFilter.finishRebuild(topicNames);
+      principalFilter.finishRebuild(principalNames);
+      LOGGER.info("Rebuilt name filters with {} topics and {} project members in {} ms", topicNames.size(),
+          principalNames.size(), System.currentTimeMillis() - startTime);
+    } catch (SQLException e) {
+      topicFilter.abortRebuild();
+      principalFilter.abortRebuild();
+      LOGGER.warn("Failed to rebuild the name filters, keeping the previous ones", e);
+    }
+  }
+
+  protected void reloadSnapshot() {
+    synchronized (snapshotLock) {
+      try {
+        long startTime = System.currentTimeMillis();
+        AclSnapshot newSnapshot = AclSnapshot.load(dbConnection);
+        snapshot = newSnapshot;
+        LOGGER.info("Reloaded snapshot with {} topics, {} project members and {} project shares in {} ms",
+            newSnapshot.getTopicProjects().size(), newSnapshot.getProjectRoles().size(),
+            newSnapshot.getSharedProjects().size(), System.currentTimeMillis() - startTime);
+      } catch (Exception e) {
+        // Keep serving the previous snapshot, the next reload will try again
+        LOGGER.warn("Failed to reload snapshot, keeping the previous one", e);
+      }
+    }
+  }
+
+  /**
+   * Reads the invalidated rows again and swaps in a copy of the snapshot with them, instead of reloading every table.
+   */
+  protected void updateSnapshot() {
+    List<String> topicNames = drain(changedTopics);
+    List<String> principalNames = drain(changedPrincipals);
+    List<Pair<Integer, Integer>> projectPairs = drain(changedShares);
+    synchronized (snapshotLock) {
+      AclSnapshot currentSnapshot = snapshot;
+      if (currentSnapshot == null) {
+        // nothing was loaded yet, the rows are read with the others
+        reloadSnapshot();
+        return;
+      }
+      try {
+        long startTime = System.currentTimeMillis();
+        List<Pair<String, String>> projectUsers = new ArrayList<>();
+        for (String principalName : principalNames) {
+          Pair<String, String> projectUser = splitPrincipalName(principalName);
+          if (projectUser != null) {
+            projectUsers.add(projectUser);
+          }
+        }
+        snapshot = currentSnapshot.update(
+            changedRows(topicNames, dbConnection.getTopicProjects(topicNames)),
+            changedRows(principalNames, dbConnection.getProjectRoles(projectUsers)),
+            changedRows(projectPairs, dbConnection.getSharedProjects(projectPairs)));
+        LOGGER.info("Updated snapshot with {} topics, {} project members and {} project shares in {} ms",
+            topicNames.size(), principalNames.size(), projectPairs.size(), System.currentTimeMillis() - startTime);
+      } catch (SQLException e) {
+        // read again with the next invalidation, or by the next full reload
+        changedTopics.addAll(topicNames);
+        changedPrincipals.addAll(principalNames);
+        changedShares.addAll(projectPairs);
+        LOGGER.warn("Failed to update snapshot, keeping the previous one", e);
+      }
+    }
+  }
+
+  private static <K> List<K> drain(Set<K> changedKeys) {
+    List<K> keys = new ArrayList<>();
+    for (Iterator<K> iterator = changedKeys.iterator(); iterator.hasNext(); ) {
+      keys.add(iterator.next());
+      iterator.remove();
+    }
+    return keys;
+  }
+
+  // The rows of the keys, null for the keys that no longer have a row
+  private static <K, V> Map<K, V> changedRows(List<K> keys, Map<K, V> rows) {
+    Map<K, V> changedRows = new HashMap<>();
+    for (K key : keys) {
+      changedRows.put(key, rows.get(key));
+    }
+    return changedRows;
+  }
+
+  /**
+   * Evicts a topic, decisions on it and the topic index of the projects.
+   */
+  public void invalidateTopic(String topicName) {
+    LOGGER.info("Invalidating topic '{}'", topicName);
+    topicProject.invalidate(topicName);
+    missingTopics.invalidate(topicName);
+    if (topicFilter != null) {
+      // the topic may have been created
+      topicFilter.put(topicName);
+    }
+    // the topic may have been recreated in another project
+    projectTopics.invalidateAll();
+    decisions.invalidateTopic(topicName);
+    updateInvalidatedSnapshot(changedTopics, topicName);
+  }
+
+  /**
+   * Evicts a project member and decisions on its requests.
+   */
+  public void invalidateProjectMember(String principalName) {
+    LOGGER.info("Invalidating project member '{}'", principalName);
+    userProject.invalidate(principalName);
+    missingPrincipals.invalidate(principalName);
+    if (principalFilter != null) {
+      principalFilter.put(principalName);
+    }
+    staleUserProject.invalidate(principalName);
+    decisions.invalidatePrincipal(principalName);
+    updateInvalidatedSnapshot(changedPrincipals, principalName);
+  }
+
+  /**
+   * Evicts the share of a project with another project and decisions on the topics it shares.
+   */
+  public void invalidateProjectShare(int topicProjectId, int userProjectId) {
+    LOGGER.info("Invalidating project share. topicProjectId: {}, userProjectId: {}", topicProjectId, userProjectId);
+    Pair<Integer, Integer> projectPair = new Pair<>(topicProjectId, userProjectId);
+    projectShare.invalidate(projectPair);
+    missingShares.invalidate(projectPair);
+    staleProjectShare.invalidate(projectPair);
+    projectTopics.invalidate(userProjectId);
+    decisions.invalidateShare(topicProjectId, userProjectId);
+    updateInvalidatedSnapshot(changedShares, projectPair);
+  }
+
+  public void invalidateAll() {
+    LOGGER.info("Invalidating all entries");
+    topicProject.invalidateAll();
+    userProject.invalidateAll();
+    projectShare.invalidateAll();
+    projectTopics.invalidateAll();
+    missingTopics.invalidateAll();
+    missingPrincipals.invalidateAll();
+    missingShares.invalidateAll();
+    staleUserProject.invalidateAll();
+    staleProjectShare.invalidateAll();
+    decisions.invalidateAll();
+    if (topicFilter != null) {
+      // every name might be registered until the filters are rebuilt
+      topicFilter.reset();
+      principalFilter.reset();
+      if (backgroundExecutor != null) {
+        backgroundExecutor.execute(this::rebuildNameFilters);
+      }
+    }
+    if (snapshotEngine && backgroundExecutor != null) {
+      snapshotFullReloadQueued.set(true);
+      queueSnapshotUpdate();
+    }
+  }
+
+  // The snapshot is immutable, a copy with the invalidated row read again is swapped in
+  private <K> void updateInvalidatedSnapshot(Set<K> changedKeys, K key) {
+    if (snapshotEngine) {
+      changedKeys.add(key);
+      queueSnapshotUpdate();
+    }
+  }
+
+  private void queueSnapshotUpdate() {
+    if (backgroundExecutor != null && snapshotReloadQueued.compareAndSet(false, true)) {
+      backgroundExecutor.execute(this::updateQueuedSnapshot);
+    }
+  }
+
+  private void updateQueuedSnapshot() {
+    snapshotReloadQueued.set(false);
+    if (snapshotFullReloadQueued.getAndSet(false)) {
+      // the reload reads the invalidated rows as well
+      changedTopics.clear();
+      changedPrincipals.clear();
+      changedShares.clear();
+      reloadSnapshot();
+    } else {
+      updateSnapshot();
+    }
   }
 
   @Override
   public List<AuthorizationResult> authorize(AuthorizableRequestContext requestContext, List<Action> list) {
     KafkaPrincipal principal = requestContext.principal();
-    String host = requestContext.clientAddress().getHostAddress();
-    List<String> subjectNames = Arrays.asList(principal.getName().split(Consts.SEMI_COLON));
-    String principalName = getPrincipalName(subjectNames);
+    String principalName = getPrincipalName(principal);
 
-    LOGGER.debug("authorize :: session: {}", requestContext);
-    LOGGER.debug("authorize :: subjectNames: {}", subjectNames);
-    LOGGER.debug("authorize :: principal.name: {}", principalName);
-    LOGGER.debug("authorize :: principal.type: {}", principal.getPrincipalType());
-    LOGGER.debug("authorize :: host: {}", host);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("authorize :: session: {}", requestContext);
+      LOGGER.debug("authorize :: subjectNames: {}", principal.getName());
+      LOGGER.debug("authorize :: principal.name: {}", principalName);
+      LOGGER.debug("authorize :: principal.type: {}", principal.getPrincipalType());
+      LOGGER.debug("authorize :: host: {}", requestContext.clientAddress().getHostAddress());
+    }
 
     if (principalName.equalsIgnoreCase(Consts.ANONYMOUS)) {
-      LOGGER.info("No Acl found for cluster authorization, user: {}", principalName);
-      return list.stream()
-        .map(a -> AuthorizationResult.DENIED)
-        .collect(Collectors.toList());
+      for (Action action : list) {
+        audit(principalName, action, AuthorizationResult.DENIED);
+      }
+      return Collections.nCopies(list.size(), AuthorizationResult.DENIED);
+    }
+
+    if (isSuperUser(principal)) {
+      for (Action action : list) {
+        audit(principalName, action, AuthorizationResult.ALLOWED);
+      }
+      return Collections.nCopies(list.size(), AuthorizationResult.ALLOWED);
+    }
+
+    if (loadExecutor != null) {
+      loadExecutor.startBudget();
+    }
+    if (admissionControl != null) {
+      admissionControl.enter(principalName);
+    }
+    try {
+      return authorize(principalName, list);
+    } finally {
+      if (loadExecutor != null) {
+        loadExecutor.endBudget();
+      }
+      if (admissionControl != null) {
+        admissionControl.exit();
+      }
+    }
+  }
+
+  private List<AuthorizationResult> authorize(String principalName, List<Action> list) {
+    if (list.size() == 1) {
+      return Collections.singletonList(authorize(principalName, null, list.get(0), null));
+    }
+
+    // The principal is resolved once per request and actions on the same topic and operation are decided once
+    ProjectUser projectUser = new ProjectUser(principalName, list);
+    Map<DecisionKey, AuthorizationResult> topicDecisions = new HashMap<>(list.size() * 4 / 3 + 1);
+    List<AuthorizationResult> results = new ArrayList<>(list.size());
+    for (Action action : list) {
+      ResourcePattern resourcePattern = action.resourcePattern();
+      if (resourcePattern.resourceType() != ResourceType.TOPIC) {
+        results.add(authorize(principalName, projectUser, action, null));
+        continue;
+      }
+      DecisionKey key = new DecisionKey(principalName, resourcePattern.name(), action.operation());
+      AuthorizationResult result = topicDecisions.get(key);
+      if (result == null) {
+        result = authorize(principalName, projectUser, action, key);
+        topicDecisions.put(key, result);
+      } else {
+        audit(principalName, action, result);
+      }
+      results.add(result);
+    }
+    return results;
+  }
+
+  /**
+   * Loads the uncached topics of a request, and the shares of their projects, with a few multi-key queries instead
+   * of one query per topic. Failures are ignored, the remaining entries are then loaded one by one.
+   */
+  private void prefetch(ProjectUser projectUser, List<Action> actions) {
+    Set<String> uncachedTopics = new HashSet<>();
+    for (Action action : actions) {
+      ResourcePattern resourcePattern = action.resourcePattern();
+      if (resourcePattern.resourceType() == ResourceType.TOPIC && isUncachedTopic(resourcePattern.name())) {
+        uncachedTopics.add(resourcePattern.name());
+      }
+    }
+    try {
+      if (!uncachedTopics.isEmpty()) {
+        topicProject.getAll(uncachedTopics);
+      }
+    } catch (CacheLoader.InvalidCacheLoadException e) {
+      // Some topics are not registered, the others are cached
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      LOGGER.warn("Failed to prefetch {} topics", uncachedTopics.size(), e.getCause());
+      return;
+    }
+
+    Pair<Integer, String> projectRole;
+    try {
+      projectRole = projectUser.getProjectRole();
+    } catch (ExecutionException e) {
+      projectUser.reset();
+      return;
+    }
+    if (projectRole == null || uncachedTopics.isEmpty()) {
+      // shares of cached topics are very likely cached as well
+      return;
+    }
+
+    int userProjectId = projectRole.getValue0();
+    Set<Pair<Integer, Integer>> uncachedShares = new HashSet<>();
+    for (String topicName : uncachedTopics) {
+      Integer topicProjectId = topicProject.getIfPresent(topicName);
+      if (topicProjectId != null && topicProjectId != userProjectId) {
+        Pair<Integer, Integer> projectPair = new Pair<>(topicProjectId, userProjectId);
+        if (!missingShares.contains(projectPair) && projectShare.getIfPresent(projectPair) == null) {
+          uncachedShares.add(projectPair);
+        }
+      }
+    }
+    try {
+      if (!uncachedShares.isEmpty()) {
+        projectShare.getAll(uncachedShares);
+      }
+    } catch (CacheLoader.InvalidCacheLoadException e) {
+      // Some projects are not shared, the others are cached
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      LOGGER.warn("Failed to prefetch {} project shares", uncachedShares.size(), e.getCause());
+    }
+  }
+
+  /**
+   * Resolves an uncached topic together with the uncached principal, and the share between their projects, with one
+   * query and caches all results. Nothing is cached if the principal is cached already or the query fails, the
+   * entries are then loaded one by one.
+   */
+  private void resolveTopicAccess(String topicName, String principalName) {
+    if (missingPrincipals.contains(principalName) || userProject.getIfPresent(principalName) != null) {
+      return;
+    }
+    Pair<String, String> projectUser = splitPrincipalName(principalName);
+    if (projectUser == null) {
+      return;
+    }
+
+    Quartet<Integer, Integer, String, String> topicAccess;
+    long startMs = System.currentTimeMillis();
+    try {
+      LOGGER.info("Getting topic access. topicName: {}, projectName: {}, username: {}",
+          topicName, projectUser.getValue0(), projectUser.getValue1());
+      topicAccess = load(() -> dbConnection.getTopicAccess(topicName, projectUser.getValue0(),
+          projectUser.getValue1()));
+    } catch (ThrottledException e) {
+      // the entries are throttled when they are loaded one by one as well
+      return;
+    } catch (Exception e) {
+      LOGGER.warn("Failed to get topic access. topicName: {}, principalName: {}", topicName, principalName, e);
+      return;
+    }
+    cacheLoaded(startMs);
+    if (topicAccess == null) {
+      return;
+    }
+
+    Integer topicProjectId = topicAccess.getValue0();
+    Integer userProjectId = topicAccess.getValue1();
+    if (topicProjectId == null) {
+      missingTopics.add(topicName);
+    } else {
+      topicProject.put(topicName, topicProjectId);
+    }
+    if (userProjectId == null) {
+      missingPrincipals.add(principalName);
+    } else {
+      userProject.put(principalName, new Pair<>(userProjectId, topicAccess.getValue2()));
+    }
+    if (topicProjectId != null && userProjectId != null && !topicProjectId.equals(userProjectId)) {
+      Pair<Integer, Integer> projectPair = new Pair<>(topicProjectId, userProjectId);
+      if (topicAccess.getValue3() == null) {
+        missingShares.add(projectPair);
+      } else {
+        projectShare.put(projectPair, topicAccess.getValue3());
+      }
     }
+  }
 
-    if (isSuperUser(subjectNames)) {
-      LOGGER.info("Super user cluster authorization, user: {}", principalName);
-      return list.stream()
-        .map(a -> AuthorizationResult.ALLOWED)
-        .collect(Collectors.toList());
+  private <V> V load(Callable<V> load) throws Exception {
+    if (admissionControl != null) {
+      admissionControl.acquire();
     }
+    return loadExecutor == null ? load.call() : loadExecutor.call(load);
+  }
 
-    return list.stream()
-        .map(a -> authorize(principalName, a))
-        .collect(Collectors.toList());
+  private boolean isUncachedTopic(String topicName) {
+    return topicProject.getIfPresent(topicName) == null && !missingTopics.contains(topicName) &&
+        !"__consumer_offsets".equals(topicName);
   }
 
   public AuthorizationResult authorize(String principalName, Action action) {
+    return authorize(principalName, null, action, null);
+  }
+
+  // projectUser is null outside of a batch and created on a decision cache miss, decisionKey is the key of a topic
+  // action if it is already known, null otherwise
+  private AuthorizationResult authorize(String principalName, ProjectUser projectUser, Action action,
+                                        DecisionKey decisionKey) {
+    long startNanos = metrics != null ? metrics.startAuthorize() : 0;
+    AuthorizationResult result = decide(principalName, projectUser, action, decisionKey);
+    audit(principalName, action, result);
+    if (metrics != null) {
+      metrics.recordAuthorize(action.resourcePattern().resourceType(), startNanos);
+    }
+    return result;
+  }
+
+  private void audit(String principalName, Action action, AuthorizationResult result) {
+    if (auditLog != null) {
+      auditLog.record(principalName, action.resourcePattern().resourceType(), action.resourcePattern().name(),
+          action.operation(), result);
+    }
+  }
+
+  private AuthorizationResult decide(String principalName, ProjectUser projectUser, Action action,
+                                     DecisionKey decisionKey) {
     ResourceType resourceType = action.resourcePattern().resourceType();
     String resourceName = action.resourcePattern().name();
     AclOperation operation = action.operation();
 
-    LOGGER.info("User '{}' performs '{}' on resource '{}' named '{}'",
-      principalName, operation.toString(), resourceType, resourceName);
-
     switch (resourceType) {
       case CLUSTER:
         if (operation.equals(AclOperation.IDEMPOTENT_WRITE)) {
@@ -194,8 +1429,10 @@ public class HopsAclAuthorizer implements Authorizer {
         if ("__consumer_offsets".equals(resourceName)) {
           return consumerOffsetsAccessAllowed ? AuthorizationResult.ALLOWED : AuthorizationResult.DENIED;
         }
-    
-        return authorizeProjectUser(resourceName, principalName, operation);
+        if (decisionKey == null) {
+          decisionKey = new DecisionKey(principalName, resourceName, operation);
+        }
+        return authorizeProjectUser(decisionKey, projectUser);
       default:
         return AuthorizationResult.DENIED;
     }
@@ -218,36 +1455,240 @@ public class HopsAclAuthorizer implements Authorizer {
     return null;
   }
 
+  /**
+   * Checks if the principal may perform the operation on at least one resource of the type, e.g. if it may write to
+   * any topic when an idempotent or transactional producer is initialized.
+   */
   @Override
   public AuthorizationResult authorizeByResourceType(AuthorizableRequestContext requestContext,
                                                      AclOperation operation, ResourceType resource) {
+    SecurityUtils.authorizeByResourceTypeCheckArgs(operation, resource);
+    KafkaPrincipal principal = requestContext.principal();
+    String principalName = getPrincipalName(principal);
+    AuthorizationResult result;
+    if (loadExecutor != null) {
+      loadExecutor.startBudget();
+    }
+    if (admissionControl != null) {
+      admissionControl.enter(principalName);
+    }
+    try {
+      result = decideByResourceType(principal, principalName, operation, resource);
+    } finally {
+      if (loadExecutor != null) {
+        loadExecutor.endBudget();
+      }
+      if (admissionControl != null) {
+        admissionControl.exit();
+      }
+    }
+    if (auditLog != null) {
+      auditLog.record(principalName, resource, ResourcePattern.WILDCARD_RESOURCE, operation, result);
+    }
+    return result;
+  }
+
+  private AuthorizationResult decideByResourceType(KafkaPrincipal principal, String principalName,
+                                                   AclOperation operation, ResourceType resource) {
+    if (principalName.equalsIgnoreCase(Consts.ANONYMOUS)) {
+      return AuthorizationResult.DENIED;
+    }
+    if (isSuperUser(principal)) {
+      return AuthorizationResult.ALLOWED;
+    }
+
+    switch (resource) {
+      case CLUSTER:
+        if (operation.equals(AclOperation.IDEMPOTENT_WRITE)) {
+          return AuthorizationResult.ALLOWED;
+        }
+        return AuthorizationResult.DENIED;
+      case GROUP:
+        return AuthorizationResult.ALLOWED;
+      case TOPIC:
+        if (consumerOffsetsAccessAllowed) {
+          // every operation is allowed on __consumer_offsets
+          return AuthorizationResult.ALLOWED;
+        }
+        return authorizeAnyTopic(principalName, operation);
+      default:
+        return AuthorizationResult.DENIED;
+    }
+  }
+
+  // Allowed if the role permits the operation on the owned topics, or a read only share on the shared in topics
+  private AuthorizationResult authorizeAnyTopic(String principalName, AclOperation operation) {
+    Pair<Integer, String> projectRole;
+    ProjectTopics topics;
+    try {
+      AclSnapshot currentSnapshot = snapshot;
+      if (currentSnapshot != null) {
+        projectRole = currentSnapshot.getProjectRole(principalName);
+        if (projectRole == null) {
+          return AuthorizationResult.DENIED;
+        }
+        topics = currentSnapshot.getProjectTopics(projectRole.getValue0());
+      } else {
+        if (principalFilter != null && !principalFilter.mightContain(principalName)) {
+          nameFilterDenied();
+          return AuthorizationResult.DENIED;
+        }
+        projectRole = new ProjectUser(principalName, null).getProjectRole();
+        if (projectRole == null) {
+          return AuthorizationResult.DENIED;
+        }
+        topics = projectTopics.get(projectRole.getValue0());
+      }
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof TimeoutException) {
+        return budgetExceeded(principalName, "any topic");
+      }
+      if (e.getCause() instanceof ThrottledException) {
+        return throttled(principalName, "any topic");
+      }
+      LOGGER.error("Failed to authorize user '{}' to perform '{}' on any topic", principalName, operation,
+          e.getCause());
+      return AuthorizationResult.DENIED;
+    }
+
+    if (topics.hasOwnedTopics() &&
+        authorizeOperation(operation, projectRole.getValue1()) == AuthorizationResult.ALLOWED) {
+      return AuthorizationResult.ALLOWED;
+    }
+    if (topics.hasSharedInTopics()) {
+      return authorizeOperation(operation, Consts.DATA_SCIENTIST);
+    }
     return AuthorizationResult.DENIED;
   }
 
-  private AuthorizationResult authorizeProjectUser(String topicName, String principalName, AclOperation operation) {
+  // Not cached, the next request loads the entries again
+  private AuthorizationResult budgetExceeded(String principalName, String topicName) {
+    if (metrics != null) {
+      metrics.recordBudgetExceeded();
+    }
+    LOGGER.debug("Latency budget spent authorizing user '{}' on topic '{}', falling back to {}", principalName,
+        topicName, budgetFallback);
+    return budgetFallback;
+  }
+
+  // False if the topic or the principal is definitely not registered, then neither the caches nor the database are
+  // asked
+  private boolean mightBeRegistered(String principalName, String topicName) {
+    if (topicFilter == null ||
+        (topicFilter.mightContain(topicName) && principalFilter.mightContain(principalName))) {
+      return true;
+    }
+    nameFilterDenied();
+    return false;
+  }
+
+  private void nameFilterDenied() {
+    if (metrics != null) {
+      metrics.recordNameFilterDenied();
+    }
+  }
+
+  // Counted by the admission control, not cached either
+  private AuthorizationResult throttled(String principalName, String topicName) {
+    LOGGER.debug("Load rate exceeded authorizing user '{}' on topic '{}', falling back to {}", principalName,
+        topicName, throttleFallback);
+    return throttleFallback;
+  }
+
+  private AuthorizationResult authorizeProjectUser(DecisionKey decisionKey, ProjectUser projectUser) {
+    String topicName = decisionKey.getTopicName();
+    String principalName = decisionKey.getPrincipalName();
+    AclOperation operation = decisionKey.getOperation();
+    // Until the first snapshot is loaded the snapshot engine falls back to the caches
+    AclSnapshot currentSnapshot = snapshot;
+    if (currentSnapshot != null) {
+      return authorizeProjectUser(currentSnapshot, topicName, principalName, operation);
+    }
+
+    AuthorizationResult decision = decisions.get(decisionKey);
+    if (decision != null) {
+      return decision;
+    }
+    if (!mightBeRegistered(principalName, topicName)) {
+      return AuthorizationResult.DENIED;
+    }
+    if (projectUser == null) {
+      projectUser = new ProjectUser(principalName, null);
+    }
+    // taken before the entries are read, a concurrent invalidation then drops the decision
+    DecisionCache.Stamp stamp = decisions.stamp(decisionKey, projectUser.principalGeneration);
+
     int tries = 2;
     while (tries > 0) {
       try {
         // get topic related info
-        int topicProjectId = topicProject.get(topicName);
+        if (missingTopics.contains(topicName)) {
+          return AuthorizationResult.DENIED;
+        }
+        Integer topicProjectId = topicProject.getIfPresent(topicName);
+        if (topicProjectId == null) {
+          if (!projectUser.prefetch()) {
+            resolveTopicAccess(topicName, principalName);
+            if (missingTopics.contains(topicName)) {
+              return AuthorizationResult.DENIED;
+            }
+          }
+          topicProjectId = topicProject.get(topicName);
+        }
 
         // get user related info
-        Pair<Integer, String> pair = userProject.get(principalName);
+        Pair<Integer, String> pair = projectUser.getProjectRole();
+        if (pair == null) {
+          return AuthorizationResult.DENIED;
+        }
         int userProjectId = pair.getValue0();
         String userRole = pair.getValue1();
 
+        boolean staleShare = false;
         if (topicProjectId == userProjectId) {
           // Working on the same project
           LOGGER.debug("Topic: '{}' on the same project", topicName);
-          return authorizeOperation(operation, userRole);
+          decision = authorizeOperation(operation, userRole);
         } else {
           // Working on the shared project
           LOGGER.debug("Topic: '{}' on shared project", topicName);
-          String sharePermission = projectShare.get(new Pair<>(topicProjectId, userProjectId));
-          return authorizePermission(operation, sharePermission);
+          Pair<Integer, Integer> projectPair = new Pair<>(topicProjectId, userProjectId);
+          if (missingShares.contains(projectPair)) {
+            return AuthorizationResult.DENIED;
+          }
+          stamp = decisions.stampShare(stamp, topicProjectId, userProjectId);
+          String sharePermission;
+          try {
+            sharePermission = projectShare.get(projectPair);
+          } catch (CacheLoader.InvalidCacheLoadException e) {
+            // no row in the database anymore
+            staleProjectShare.invalidate(projectPair);
+            throw e;
+          } catch (ExecutionException e) {
+            sharePermission = staleProjectShare.getStale(projectPair, e);
+            staleShare = true;
+          }
+          decision = authorizePermission(operation, sharePermission);
+        }
+        // Only decisions based on existing rows are cached, denials of missing rows are cached by the negative caches.
+        // Decisions based on expired entries, served while the database is failing, are not cached either.
+        if (!staleShare && !projectUser.isStale()) {
+          decisions.put(decisionKey, stamp, decision);
         }
+        return decision;
       } catch (ExecutionException e) {
+        if (e.getCause() instanceof TimeoutException) {
+          // retrying would not get through within the budget either
+          return budgetExceeded(principalName, topicName);
+        }
+        if (e.getCause() instanceof ThrottledException) {
+          return throttled(principalName, topicName);
+        }
         tries--;
+        projectUser.reset();
+        if (metrics != null) {
+          metrics.recordRetry();
+        }
         LOGGER.error("Failed to authorize user '{}' to perform '{}' on topic '{}', retries left: {}",
             principalName, operation.toString(), topicName, tries, e.getCause());
       } catch (CacheLoader.InvalidCacheLoadException e) {
@@ -258,6 +1699,95 @@ public class HopsAclAuthorizer implements Authorizer {
     return AuthorizationResult.DENIED;
   }
 
+  private AuthorizationResult authorizeProjectUser(AclSnapshot currentSnapshot, String topicName, String principalName,
+                                                   AclOperation operation) {
+    Integer topicProjectId = currentSnapshot.getTopicProject(topicName);
+    if (topicProjectId == null) {
+      return AuthorizationResult.DENIED;
+    }
+
+    Pair<Integer, String> pair = currentSnapshot.getProjectRole(principalName);
+    if (pair == null) {
+      return AuthorizationResult.DENIED;
+    }
+    int userProjectId = pair.getValue0();
+    String userRole = pair.getValue1();
+
+    if (topicProjectId == userProjectId) {
+      // Working on the same project
+      LOGGER.debug("Topic: '{}' on the same project", topicName);
+      return authorizeOperation(operation, userRole);
+    } else {
+      // Working on the shared project
+      LOGGER.debug("Topic: '{}' on shared project", topicName);
+      return authorizePermission(operation, currentSnapshot.getSharedProject(topicProjectId, userProjectId));
+    }
+  }
+
+  /**
+   * Project and role of a principal, looked up at most once per authorize call.
+   */
+  private final class ProjectUser {
+
+    private final String principalName;
+    // Generation of the decisions of the principal, read before its project role
+    private final long principalGeneration;
+    // Actions of the request that are loaded in bulk on the first topic cache miss
+    private List<Action> prefetchActions;
+    private Pair<Integer, String> projectRole;
+    private boolean missing;
+    // Set if the project role is an expired entry
+    private boolean stale;
+
+    private ProjectUser(String principalName, List<Action> prefetchActions) {
+      this.principalName = principalName;
+      this.principalGeneration = decisions.principalGeneration(principalName);
+      this.prefetchActions = prefetchActions;
+    }
+
+    // Returns false if this is not a batch request
+    private boolean prefetch() {
+      if (prefetchActions == null) {
+        return false;
+      }
+      List<Action> actions = prefetchActions;
+      prefetchActions = null;
+      HopsAclAuthorizer.this.prefetch(this, actions);
+      return true;
+    }
+
+    // Returns null if the principal is not a project member, failed lookups are not remembered so they can be retried
+    private Pair<Integer, String> getProjectRole() throws ExecutionException {
+      if (projectRole == null && !missing) {
+        if (missingPrincipals.contains(principalName)) {
+          missing = true;
+        } else {
+          try {
+            projectRole = userProject.get(principalName);
+          } catch (CacheLoader.InvalidCacheLoadException e) {
+            // This exception is thrown if cache result is 'null' (nothing in database)
+            staleUserProject.invalidate(principalName);
+            missing = true;
+          } catch (ExecutionException e) {
+            projectRole = staleUserProject.getStale(principalName, e);
+            stale = true;
+          }
+        }
+      }
+      return projectRole;
+    }
+
+    private boolean isStale() {
+      return stale;
+    }
+
+    private void reset() {
+      projectRole = null;
+      missing = false;
+      stale = false;
+    }
+  }
+
   protected AuthorizationResult authorizePermission(AclOperation operation, String sharePermission) {
     switch (sharePermission) {
       case Consts.READ_ONLY:
@@ -269,6 +1799,13 @@ public class HopsAclAuthorizer implements Authorizer {
     }
   }
 
+  protected AuthorizationResult authorizePermission(AclOperation operation, byte sharePermission) {
+    if (sharePermission == ProjectShareMap.READ_ONLY) {
+      return authorizeOperation(operation, Consts.DATA_SCIENTIST);
+    }
+    return AuthorizationResult.DENIED;
+  }
+
   protected AuthorizationResult authorizeOperation(AclOperation operation, String userRole) {
     switch (operation) {
       case WRITE:
@@ -284,21 +1821,102 @@ public class HopsAclAuthorizer implements Authorizer {
   
   protected boolean isSuperUser(List<String> subjectNames) {
     // to be considered a super user there has to be an intersection between user subject names and super users
-    if (superUsers.stream().anyMatch(su -> subjectNames.contains(su.getName()))) {
-      LOGGER.debug(
-          "principal = {} is a super user, allowing operation without checking acls.", getPrincipalName(subjectNames));
-      return true;
+    for (String superUserName : superUserNames) {
+      if (subjectNames.contains(superUserName)) {
+        logSuperUser(subjectNames.get(0), true);
+        return true;
+      }
     }
-    LOGGER.debug("principal = {} is not a super user.", getPrincipalName(subjectNames));
+    logSuperUser(subjectNames.get(0), false);
     return false;
   }
 
-  private String getPrincipalName(List<String> subjectNames) {
-    return subjectNames.get(0); // the first cert name is principal name
+  /**
+   * Same as {@link #isSuperUser(List)} for the ';' separated subject names of a principal, the names are compared in
+   * place instead of being split.
+   */
+  protected boolean isSuperUser(String subjectNames) {
+    int start = 0;
+    while (start <= subjectNames.length()) {
+      int end = subjectNames.indexOf(Consts.SEMI_COLON, start);
+      if (end < 0) {
+        end = subjectNames.length();
+      }
+      for (String superUserName : superUserNames) {
+        if (superUserName.length() == end - start && subjectNames.regionMatches(start, superUserName, 0, end - start)) {
+          logSuperUser(subjectNames, true);
+          return true;
+        }
+      }
+      start = end + 1;
+    }
+    logSuperUser(subjectNames, false);
+    return false;
+  }
+
+  private void logSuperUser(String principalName, boolean superUser) {
+    if (!LOGGER.isDebugEnabled()) {
+      return;
+    }
+    if (superUser) {
+      LOGGER.debug("principal = {} is a super user, allowing operation without checking acls.", principalName);
+    } else {
+      LOGGER.debug("principal = {} is not a super user.", principalName);
+    }
+  }
+
+  // The subject names of principals built by HopsPrincipalBuilder are parsed already
+  private boolean isSuperUser(KafkaPrincipal principal) {
+    if (principal instanceof HopsKafkaPrincipal) {
+      return isSuperUser(((HopsKafkaPrincipal) principal).getSubjectNames());
+    }
+    return isSuperUser(principal.getName());
+  }
+
+  private String getPrincipalName(KafkaPrincipal principal) {
+    if (principal instanceof HopsKafkaPrincipal) {
+      return ((HopsKafkaPrincipal) principal).getPrincipalName();
+    }
+    return getPrincipalName(principal.getName());
+  }
+
+  private String getPrincipalName(String subjectNames) {
+    // subject names are separated by ';', the first cert name is principal name
+    int end = subjectNames.indexOf(Consts.SEMI_COLON);
+    return end < 0 ? subjectNames : subjectNames.substring(0, end);
   }
 
   @Override
   public void close() {
+    if (snapshotFilePath != null && backgroundExecutor != null) {
+      // written on shutdown, so the next start loads the latest state
+      writeSnapshotFile();
+    }
+    if (backgroundExecutor != null) {
+      backgroundExecutor.shutdownNow();
+    }
+    if (loaderExecutor != null) {
+      loaderExecutor.shutdownNow();
+    }
+    if (loadExecutor != null) {
+      loadExecutor.close();
+    }
+    if (invalidationConsumer != null) {
+      invalidationConsumer.close();
+    }
+    if (cacheControlName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(cacheControlName);
+      } catch (JMException e) {
+        LOGGER.warn("Failed to unregister {}", cacheControlName, e);
+      }
+    }
+    if (auditLog != null) {
+      auditLog.close();
+    }
+    if (metrics != null) {
+      metrics.close();
+    }
     dbConnection.close();
   }
 
@@ -310,6 +1928,7 @@ public class HopsAclAuthorizer implements Authorizer {
       String[] userSplits = user.split(Consts.COLON_SEPARATOR);
       superUsers.add(new KafkaPrincipal(userSplits[0], HopsPrincipalBuilder.getPrincipalName(userSplits[1])));
     }
+    superUserNames = superUsers.stream().map(KafkaPrincipal::getName).distinct().toArray(String[]::new);
     LOGGER.debug("superUsers = {}", superUsers);
   }
 }
@@ -0,0 +1,87 @@
+package io.hops.kafka;
+
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.javatuples.Pair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Principal built by {@link HopsPrincipalBuilder} with its subject names parsed once per connection. The name is the
+ * principal name (projectName__username for project users) followed by the alternative names, separated by ';', as
+ * for a plain {@link KafkaPrincipal}, so both serialize the same way.
+ * <p>
+ */
+public class HopsKafkaPrincipal extends KafkaPrincipal {
+
+  private final String principalName;
+  private final List<String> alternativeNames;
+  // principal name followed by the alternative names
+  private final List<String> subjectNames;
+  private final int hashCode;
+
+  public HopsKafkaPrincipal(String principalType, String principalName, List<String> alternativeNames) {
+    this(principalType, principalName, alternativeNames, subjectNames(principalName, alternativeNames));
+  }
+
+  private HopsKafkaPrincipal(String principalType, String principalName, List<String> alternativeNames,
+                             List<String> subjectNames) {
+    super(principalType, String.join(Consts.SEMI_COLON, subjectNames));
+    this.principalName = principalName;
+    this.alternativeNames = Collections.unmodifiableList(new ArrayList<>(alternativeNames));
+    this.subjectNames = Collections.unmodifiableList(subjectNames);
+    this.hashCode = super.hashCode();
+  }
+
+  /**
+   * Parses the ';' separated subject names of a plain principal, e.g. one forwarded by another broker.
+   */
+  public static HopsKafkaPrincipal parse(KafkaPrincipal principal) {
+    if (principal instanceof HopsKafkaPrincipal) {
+      return (HopsKafkaPrincipal) principal;
+    }
+    List<String> names = Arrays.asList(principal.getName().split(Consts.SEMI_COLON, -1));
+    HopsKafkaPrincipal hopsPrincipal = new HopsKafkaPrincipal(principal.getPrincipalType(), names.get(0),
+        names.subList(1, names.size()));
+    hopsPrincipal.tokenAuthenticated(principal.tokenAuthenticated());
+    return hopsPrincipal;
+  }
+
+  /**
+   * Splits projectName__username, returns null if the principal is not a project user.
+   */
+  public static Pair<String, String> splitProjectUser(String principalName) {
+    String[] principalNameSplit = principalName.split(Consts.PROJECT_USER_DELIMITER);
+    if (principalNameSplit.length < 2) {
+      return null;
+    }
+    return new Pair<>(principalNameSplit[0], principalNameSplit[1]);
+  }
+
+  private static List<String> subjectNames(String principalName, List<String> alternativeNames) {
+    List<String> subjectNames = new ArrayList<>(alternativeNames.size() + 1);
+    subjectNames.add(principalName);
+    subjectNames.addAll(alternativeNames);
+    return subjectNames;
+  }
+
+  public String getPrincipalName() {
+    return principalName;
+  }
+
+  public List<String> getAlternativeNames() {
+    return alternativeNames;
+  }
+
+  public List<String> getSubjectNames() {
+    return subjectNames;
+  }
+
+  // Cached, principals are hashed on every request
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+}
@@ -15,16 +15,27 @@ package io.hops.kafka;
 import java.io.IOException;
 import java.security.Principal;
 import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.kafka.common.Configurable;
 import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.security.auth.AuthenticationContext;
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
@@ -34,17 +45,42 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Customized Principal Builder for Hopsworks.
+ * Customized Principal Builder for Hopsworks. Once configured, the principals are cached by the fingerprint of the
+ * peer certificates, so the clients reconnecting after a broker restart do not parse their certificates again.
  * <p>
  */
-public class HopsPrincipalBuilder extends DefaultKafkaPrincipalBuilder {
+public class HopsPrincipalBuilder extends DefaultKafkaPrincipalBuilder implements Configurable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger("kafka.authorizer.logger");
+  private static final Pattern COMMON_NAME = Pattern.compile("CN=([^,]+)");
+
+  // SHA-256 of the peer certificates -> principal, null if principals are not cached
+  private Cache<HashCode, KafkaPrincipal> principalCache;
 
   public HopsPrincipalBuilder() {
     super(null, null);
   }
 
+  @Override
+  public void configure(Map<String, ?> configs) {
+    long principalCacheMaxSize = 10000;
+    Object principalCacheMaxSizeObj = configs.get(Consts.PRINCIPAL_CACHE_MAX_SIZE);
+    if (principalCacheMaxSizeObj != null) {
+      principalCacheMaxSize = Long.parseLong(String.valueOf(principalCacheMaxSizeObj));
+    }
+    long principalCacheTtlMs = 3600000;
+    Object principalCacheTtlMsObj = configs.get(Consts.PRINCIPAL_CACHE_TTL_MS);
+    if (principalCacheTtlMsObj != null) {
+      principalCacheTtlMs = Long.parseLong(String.valueOf(principalCacheTtlMsObj));
+    }
+    if (principalCacheMaxSize > 0) {
+      principalCache = CacheBuilder.newBuilder()
+          .maximumSize(principalCacheMaxSize)
+          .expireAfterAccess(principalCacheTtlMs, TimeUnit.MILLISECONDS)
+          .build();
+    }
+  }
+
   /*
    * By default, the TLS username will be of the form
    * "CN=host1.example.com,OU=,O=Confluent,L=London,ST=London,C=GB".
@@ -56,33 +92,74 @@ public class HopsPrincipalBuilder extends DefaultKafkaPrincipalBuilder {
   public KafkaPrincipal build(AuthenticationContext authenticationContext) {
     try {
       SslAuthenticationContext sslAuthenticationContext = (SslAuthenticationContext) authenticationContext;
+      HashCode fingerprint = principalCache != null ? fingerprint(sslAuthenticationContext) : null;
+      if (fingerprint == null) {
+        return buildPrincipal(sslAuthenticationContext);
+      }
+      return principalCache.get(fingerprint, () -> buildPrincipal(sslAuthenticationContext));
+    } catch (Exception e) {
+      throw new KafkaException("Failed to build Kafka principal due to: ", e);
+    }
+  }
 
-      Principal principal = getPrincipal(sslAuthenticationContext);
+  private KafkaPrincipal buildPrincipal(SslAuthenticationContext sslAuthenticationContext) throws IOException {
+    Principal principal = getPrincipal(sslAuthenticationContext);
 
-      // check if ANONYMOUS
-      String tlsUserName = principal.getName();
-      if (tlsUserName.equalsIgnoreCase(Consts.ANONYMOUS)) {
-        return KafkaPrincipal.ANONYMOUS;
-      }
+    // check if ANONYMOUS
+    String tlsUserName = principal.getName();
+    if (tlsUserName.equalsIgnoreCase(Consts.ANONYMOUS)) {
+      return KafkaPrincipal.ANONYMOUS;
+    }
 
-      // get user type
-      String userType = principal.toString().split(Consts.COLON_SEPARATOR)[0];
+    // get user type
+    String userType = principal.toString().split(Consts.COLON_SEPARATOR)[0];
 
-      // get principle name
-      String principleName = getPrincipalName(principal.getName());
+    // get principle name
+    String principleName = getPrincipalName(principal.getName());
 
-      // add alternative names to principal name
-      List<String> alternativeNameList = getAlternativeNames(sslAuthenticationContext);
-      for (String alternativeName: alternativeNameList) {
-        if (!principleName.equals(alternativeName)) {
-          principleName = principleName.concat(Consts.SEMI_COLON + alternativeName);
-        }
+    // add alternative names to principal name
+    List<String> alternativeNameList = new ArrayList<>();
+    for (String alternativeName: getAlternativeNames(sslAuthenticationContext)) {
+      if (!principleName.equals(alternativeName)) {
+        alternativeNameList.add(alternativeName);
       }
+    }
 
-      return new KafkaPrincipal(userType, principleName);
-    } catch (Exception e) {
-      throw new KafkaException("Failed to build Kafka principal due to: ", e);
+    return new HopsKafkaPrincipal(userType, principleName, alternativeNameList);
+  }
+
+  // null if the peer presented no certificate, the principal is then built every time
+  private HashCode fingerprint(SslAuthenticationContext sslAuthenticationContext)
+      throws CertificateEncodingException {
+    Certificate[] certificates;
+    try {
+      certificates = getPeerCertificates(sslAuthenticationContext);
+    } catch (SSLPeerUnverifiedException e) {
+      return null;
+    }
+    // the DER encodings delimit themselves
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (Certificate certificate : certificates) {
+      hasher.putBytes(certificate.getEncoded());
+    }
+    return hasher.hash();
+  }
+
+  protected Certificate[] getPeerCertificates(SslAuthenticationContext sslAuthenticationContext)
+      throws SSLPeerUnverifiedException {
+    return sslAuthenticationContext.session().getPeerCertificates();
+  }
+
+  /**
+   * Principals forwarded by other brokers, e.g. with KRaft, are parsed like the ones built here.
+   */
+  @Override
+  public KafkaPrincipal deserialize(byte[] bytes) {
+    KafkaPrincipal principal = super.deserialize(bytes);
+    if (KafkaPrincipal.ANONYMOUS.equals(principal)) {
+      return KafkaPrincipal.ANONYMOUS;
     }
+    return HopsKafkaPrincipal.parse(principal);
   }
 
   protected Principal getPrincipal(SslAuthenticationContext sslAuthenticationContext) throws IOException {
@@ -92,7 +169,7 @@ public class HopsPrincipalBuilder extends DefaultKafkaPrincipalBuilder {
   protected List<String> getAlternativeNames(SslAuthenticationContext sslAuthenticationContext) {
     List<String> alternativeNameList = new ArrayList<>();
     try {
-      for (Certificate certificate: sslAuthenticationContext.session().getPeerCertificates()) {
+      for (Certificate certificate: getPeerCertificates(sslAuthenticationContext)) {
         if (certificate instanceof X509Certificate) {
           X509Certificate x509Certificate = (X509Certificate) certificate;
           List<String> altNames = getSubjectAlternativeNames(x509Certificate);
@@ -116,8 +193,7 @@ public class HopsPrincipalBuilder extends DefaultKafkaPrincipalBuilder {
   }
 
   protected static String getPrincipalName(String tlsUserName) {
-    Pattern pattern = Pattern.compile("CN=([^,]+)");
-    Matcher matcher = pattern.matcher(tlsUserName);
+    Matcher matcher = COMMON_NAME.matcher(tlsUserName);
     if (!matcher.find()) {
       return tlsUserName;
     }
@@ -0,0 +1,97 @@
+package io.hops.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes the {@link ChangeEvents} of a control topic and evicts the changed entries from the authorizer caches.
+ * Every partition is read from its end, events published before the broker started are covered by the empty caches.
+ * <p>
+ */
+public class InvalidationConsumer implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InvalidationConsumer.class.getName());
+  private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+  private final Consumer<String, String> consumer;
+  private final String topic;
+  private final CacheControlMBean cacheControl;
+  private volatile boolean running = true;
+  private Thread thread;
+
+  public InvalidationConsumer(Consumer<String, String> consumer, String topic, CacheControlMBean cacheControl) {
+    this.consumer = consumer;
+    this.topic = topic;
+    this.cacheControl = cacheControl;
+  }
+
+  public synchronized void start() {
+    if (thread != null) {
+      return;
+    }
+    thread = new Thread(this::run, "hops-authorizer-invalidation");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  void run() {
+    try {
+      List<PartitionInfo> partitionInfos = consumer.partitionsFor(topic);
+      if (partitionInfos == null || partitionInfos.isEmpty()) {
+        LOGGER.warn("Invalidation topic '{}' does not exist, entries are only evicted once they expire", topic);
+        return;
+      }
+      List<TopicPartition> partitions = new ArrayList<>();
+      for (PartitionInfo partitionInfo : partitionInfos) {
+        partitions.add(new TopicPartition(topic, partitionInfo.partition()));
+      }
+      consumer.assign(partitions);
+      consumer.seekToEnd(partitions);
+      while (running) {
+        for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+          apply(record.value());
+        }
+      }
+    } catch (WakeupException e) {
+      // closing
+    } catch (RuntimeException e) {
+      LOGGER.error("Stopped consuming invalidation topic '{}'", topic, e);
+    } finally {
+      consumer.close();
+    }
+  }
+
+  void apply(String event) {
+    if (!ChangeEvents.apply(event, cacheControl)) {
+      LOGGER.warn("Ignoring invalid invalidation event '{}'", event);
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    consumer.wakeup();
+    Thread consumerThread;
+    synchronized (this) {
+      consumerThread = thread;
+    }
+    if (consumerThread == null) {
+      consumer.close();
+      return;
+    }
+    try {
+      consumerThread.join(POLL_TIMEOUT.toMillis() * 5);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package io.hops.kafka;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bounded executor of the database loads of request threads. A request thread starts a latency budget before it
+ * authorizes a request, its loads then run on the executor and fail with a {@link TimeoutException} once the budget
+ * is spent or the queue is full, instead of blocking the request thread until the pool hands out a connection.
+ * Loads of threads without a budget (warm up, refresh, snapshot) run inline. The executor uses virtual threads if the
+ * JVM supports them.
+ * A load that is still running after the hedge delay is started a second time, so a query stuck on a slow database
+ * endpoint does not spend the whole budget, and the first result wins.
+ * <p>
+ */
+public class LoadExecutor implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LoadExecutor.class.getName());
+
+  private final ThreadPoolExecutor executor;
+  private final long budgetNanos;
+  // 0 if loads are not hedged
+  private final long hedgeDelayNanos;
+  // Deadline of the current request in nanos, 0 if the thread has no budget. An array so starting a budget does not
+  // box the deadline.
+  private final ThreadLocal<long[]> deadline = ThreadLocal.withInitial(() -> new long[1]);
+
+  public LoadExecutor(int threads, int queueSize, long budgetMs, long hedgeDelayMs) {
+    this(threads, queueSize, budgetMs, hedgeDelayMs, threadFactory());
+  }
+
+  // For testing
+  LoadExecutor(int threads, int queueSize, long budgetMs, long hedgeDelayMs, ThreadFactory threadFactory) {
+    executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
+        threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+    this.hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeDelayMs);
+  }
+
+  /**
+   * Starts the latency budget of the request authorized by the current thread.
+   */
+  public void startBudget() {
+    // 0 means no budget, a deadline that happens to be 0 is one nano later
+    long requestDeadline = System.nanoTime() + budgetNanos;
+    deadline.get()[0] = requestDeadline == 0 ? 1 : requestDeadline;
+  }
+
+  public void endBudget() {
+    deadline.get()[0] = 0;
+  }
+
+  /**
+   * Runs the load on the executor and waits at most for the rest of the budget of the current thread, runs it inline
+   * if the thread has no budget.
+   *
+   * @throws TimeoutException if the budget is spent or the queue is full
+   */
+  public <V> V call(Callable<V> load) throws Exception {
+    long requestDeadline = deadline.get()[0];
+    if (requestDeadline == 0) {
+      return load.call();
+    }
+    long remainingNanos = requestDeadline - System.nanoTime();
+    if (remainingNanos <= 0) {
+      throw new TimeoutException("Latency budget spent");
+    }
+    if (hedgeDelayNanos > 0 && hedgeDelayNanos < remainingNanos) {
+      return callHedged(load, requestDeadline);
+    }
+    Future<V> future;
+    try {
+      future = executor.submit(load);
+    } catch (RejectedExecutionException e) {
+      throw new TimeoutException("Load queue is full");
+    }
+    try {
+      return future.get(remainingNanos, TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  private <V> V callHedged(Callable<V> load, long requestDeadline) throws Exception {
+    CompletionService<V> completionService = new ExecutorCompletionService<>(executor);
+    List<Future<V>> futures = new ArrayList<>(2);
+    try {
+      try {
+        futures.add(completionService.submit(load));
+      } catch (RejectedExecutionException e) {
+        throw new TimeoutException("Load queue is full");
+      }
+      Future<V> done = completionService.poll(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+      if (done == null) {
+        try {
+          futures.add(completionService.submit(load));
+        } catch (RejectedExecutionException e) {
+          LOGGER.debug("Load queue is full, not hedging the load");
+        }
+      }
+      int pending = futures.size();
+      while (true) {
+        if (done == null) {
+          done = completionService.poll(requestDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          if (done == null) {
+            throw new TimeoutException("Latency budget spent");
+          }
+        }
+        pending--;
+        try {
+          return done.get();
+        } catch (ExecutionException e) {
+          if (pending == 0) {
+            throw unwrap(e);
+          }
+          done = null;
+        }
+      }
+    } finally {
+      // the query of the slower load is not interrupted, its connection goes back to the pool when it is done
+      for (Future<V> future : futures) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  private static Exception unwrap(ExecutionException e) {
+    return e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+  }
+
+  /**
+   * Wraps a cache loader so its loads run on the executor.
+   */
+  public <K, V> CacheLoader<K, V> budgeted(CacheLoader<K, V> cacheLoader) {
+    return new CacheLoader<K, V>() {
+      @Override
+      public V load(K key) throws Exception {
+        return call(() -> cacheLoader.load(key));
+      }
+
+      @Override
+      public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+        return call(() -> cacheLoader.loadAll(keys));
+      }
+    };
+  }
+
+  // Virtual threads are only available from Java 21 on, the authorizer is built for Java 8
+  private static ThreadFactory threadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "hops-authorizer-db-", 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      LOGGER.debug("Virtual threads are not supported, loading on platform threads");
+      return new ThreadFactoryBuilder().setNameFormat("hops-authorizer-db-%d").setDaemon(true).build();
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,98 @@
+package io.hops.kafka;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bloom filter of the names registered in the database, answers whether a name is definitely not registered without
+ * a lookup. It is rebuilt in bulk, which also drops removed names, and names that may have been registered since are
+ * added in between. Until the first build, and after a reset, every name might be registered.
+ * <p>
+ */
+public class NameFilter {
+
+  // Room for the names added before the next rebuild
+  private static final double HEADROOM = 1.25;
+  private static final int MIN_EXPECTED_NAMES = 1000;
+
+  private final double fpp;
+  // null until the filter is built
+  private volatile BloomFilter<CharSequence> filter;
+  // Names added while the filter is rebuilt, null if it is not rebuilt
+  private List<String> addedNames;
+
+  public NameFilter(double fpp) {
+    this.fpp = fpp;
+  }
+
+  /**
+   * @return false if the name is definitely not registered
+   */
+  public boolean mightContain(String name) {
+    BloomFilter<CharSequence> currentFilter = filter;
+    return currentFilter == null || currentFilter.mightContain(name);
+  }
+
+  public synchronized void put(String name) {
+    if (filter != null) {
+      filter.put(name);
+    }
+    if (addedNames != null) {
+      addedNames.add(name);
+    }
+  }
+
+  /**
+   * Starts a rebuild, call it before reading the names so the names added meanwhile make it into the new filter.
+   */
+  public synchronized void startRebuild() {
+    addedNames = new ArrayList<>();
+  }
+
+  /**
+   * Replaces the filter by one of the names, unless the filter was reset since the rebuild started.
+   */
+  public void finishRebuild(Collection<String> names) {
+    BloomFilter<CharSequence> newFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+        Math.max(MIN_EXPECTED_NAMES, (long) (names.size() * HEADROOM)), fpp);
+    for (String name : names) {
+      newFilter.put(name);
+    }
+    synchronized (this) {
+      if (addedNames == null) {
+        // the names may be outdated
+        return;
+      }
+      for (String name : addedNames) {
+        newFilter.put(name);
+      }
+      addedNames = null;
+      filter = newFilter;
+    }
+  }
+
+  /**
+   * Stops a rebuild whose names could not be read, the current filter is kept.
+   */
+  public synchronized void abortRebuild() {
+    addedNames = null;
+  }
+
+  /**
+   * Forgets the names until the next rebuild, every name might be registered meanwhile. A running rebuild is
+   * discarded.
+   */
+  public synchronized void reset() {
+    filter = null;
+    addedNames = null;
+  }
+
+  public boolean isBuilt() {
+    return filter != null;
+  }
+}
@@ -0,0 +1,44 @@
+package io.hops.kafka;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded set of keys for which the database has no row, so repeated lookups of unknown topics, principals and
+ * project shares are denied without a database query. Entries expire after a short TTL, so rows created in the
+ * meantime are picked up.
+ * <p>
+ */
+public class NegativeCache<K> {
+
+  private final Cache<K, Boolean> cache;
+
+  public NegativeCache(long maxSize, long ttlMs) {
+    cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  public boolean contains(K key) {
+    return cache.getIfPresent(key) != null;
+  }
+
+  public void add(K key) {
+    cache.put(key, Boolean.TRUE);
+  }
+
+  public void invalidate(K key) {
+    cache.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+}
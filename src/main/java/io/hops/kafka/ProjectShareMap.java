@@ -0,0 +1,205 @@
+package io.hops.kafka;
+
+import java.util.Map;
+
+import org.javatuples.Pair;
+
+/**
+ * Open addressing hash map from a project pair to a share permission. The pair is packed into a single long and the
+ * permission is stored as a byte code, so a lookup allocates nothing and an entry takes a few bytes instead of a
+ * javatuples Pair, two boxed Integers and a hash map node.
+ * <p>
+ * Not thread safe, the map has to be fully built before it is published to other threads.
+ */
+public final class ProjectShareMap {
+
+  //Permission codes
+  public static final byte NOT_SHARED = 0;
+  public static final byte READ_ONLY = 1;
+  public static final byte EDITABLE = 2;
+  public static final byte EDITABLE_BY_OWNERS = 3;
+  public static final byte UNKNOWN = 4;
+
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private long[] keys;
+  // NOT_SHARED marks an empty slot
+  private byte[] values;
+  private int size;
+
+  public ProjectShareMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    keys = new long[capacity];
+    values = new byte[capacity];
+  }
+
+  /**
+   * @param sharedProjects topicProjectId, userProjectId -> sharePermission
+   */
+  public static ProjectShareMap of(Map<Pair<Integer, Integer>, String> sharedProjects) {
+    ProjectShareMap projectShareMap = new ProjectShareMap(sharedProjects.size());
+    for (Map.Entry<Pair<Integer, Integer>, String> entry : sharedProjects.entrySet()) {
+      projectShareMap.put(entry.getKey().getValue0(), entry.getKey().getValue1(), encode(entry.getValue()));
+    }
+    return projectShareMap;
+  }
+
+  public static long pack(int topicProjectId, int userProjectId) {
+    return ((long) topicProjectId << 32) | (userProjectId & 0xFFFFFFFFL);
+  }
+
+  public static byte encode(String sharePermission) {
+    if (sharePermission == null) {
+      return NOT_SHARED;
+    }
+    switch (sharePermission) {
+      case Consts.READ_ONLY:
+        return READ_ONLY;
+      case Consts.EDITABLE:
+        return EDITABLE;
+      case Consts.EDITABLE_BY_OWNERS:
+        return EDITABLE_BY_OWNERS;
+      default:
+        return UNKNOWN;
+    }
+  }
+
+  /**
+   * @return the share permission of a permission code, unknown permissions are kept as unknown
+   */
+  public static String decode(byte permission) {
+    switch (permission) {
+      case READ_ONLY:
+        return Consts.READ_ONLY;
+      case EDITABLE:
+        return Consts.EDITABLE;
+      case EDITABLE_BY_OWNERS:
+        return Consts.EDITABLE_BY_OWNERS;
+      case NOT_SHARED:
+        return null;
+      default:
+        return "UNKNOWN";
+    }
+  }
+
+  /**
+   * @return the permission code, NOT_SHARED if the topic project is not shared with the user project
+   */
+  public byte get(int topicProjectId, int userProjectId) {
+    long key = pack(topicProjectId, userProjectId);
+    int mask = keys.length - 1;
+    for (int index = mix(key) & mask; values[index] != NOT_SHARED; index = (index + 1) & mask) {
+      if (keys[index] == key) {
+        return values[index];
+      }
+    }
+    return NOT_SHARED;
+  }
+
+  /**
+   * Adds a share, the first permission of a project pair is kept.
+   */
+  public void put(int topicProjectId, int userProjectId, byte permission) {
+    if (permission == NOT_SHARED) {
+      throw new IllegalArgumentException("Cannot put a missing share");
+    }
+    if (size + 1 > keys.length * LOAD_FACTOR) {
+      resize();
+    }
+    long key = pack(topicProjectId, userProjectId);
+    int mask = keys.length - 1;
+    int index = mix(key) & mask;
+    for (; values[index] != NOT_SHARED; index = (index + 1) & mask) {
+      if (keys[index] == key) {
+        return;
+      }
+    }
+    keys[index] = key;
+    values[index] = permission;
+    size++;
+  }
+
+  /**
+   * Removes a share, nothing happens if the topic project is not shared with the user project.
+   */
+  public void remove(int topicProjectId, int userProjectId) {
+    long key = pack(topicProjectId, userProjectId);
+    int mask = keys.length - 1;
+    int index = mix(key) & mask;
+    for (; values[index] != NOT_SHARED; index = (index + 1) & mask) {
+      if (keys[index] == key) {
+        break;
+      }
+    }
+    if (values[index] == NOT_SHARED) {
+      return;
+    }
+    values[index] = NOT_SHARED;
+    size--;
+    // Shift back the entries of the probe sequence, so a lookup doesn't stop at the freed slot
+    for (int next = (index + 1) & mask; values[next] != NOT_SHARED; next = (next + 1) & mask) {
+      int home = mix(keys[next]) & mask;
+      boolean homeBetween = index <= next ? index < home && home <= next : index < home || home <= next;
+      if (!homeBetween) {
+        keys[index] = keys[next];
+        values[index] = values[next];
+        values[next] = NOT_SHARED;
+        index = next;
+      }
+    }
+  }
+
+  /**
+   * @return a copy of the map, changing the copy leaves this map untouched
+   */
+  public ProjectShareMap copy() {
+    ProjectShareMap copy = new ProjectShareMap(0);
+    copy.keys = keys.clone();
+    copy.values = values.clone();
+    copy.size = size;
+    return copy;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void forEach(ShareConsumer consumer) {
+    for (int i = 0; i < keys.length; i++) {
+      if (values[i] != NOT_SHARED) {
+        consumer.accept((int) (keys[i] >>> 32), (int) keys[i], values[i]);
+      }
+    }
+  }
+
+  /**
+   * Consumer of the shares of the map.
+   */
+  public interface ShareConsumer {
+    void accept(int topicProjectId, int userProjectId, byte permission);
+  }
+
+  private void resize() {
+    long[] oldKeys = keys;
+    byte[] oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new byte[oldValues.length * 2];
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != NOT_SHARED) {
+        int index = mix(oldKeys[i]) & mask;
+        while (values[index] != NOT_SHARED) {
+          index = (index + 1) & mask;
+        }
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  // Spreads the bits of both project ids over the low bits used as index
+  private static int mix(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+}
@@ -0,0 +1,68 @@
+package io.hops.kafka;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Whether a project has access to any topic: whether it owns topics and whether topics of other projects are shared
+ * with it read only, the only share permission that grants access. Answers whether a principal may perform an
+ * operation on any topic without going through the topics one by one.
+ * <p>
+ */
+public final class ProjectTopics {
+
+  public static final ProjectTopics EMPTY = new ProjectTopics(false, false);
+  private static final ProjectTopics OWNED = new ProjectTopics(true, false);
+  private static final ProjectTopics SHARED_IN = new ProjectTopics(false, true);
+  private static final ProjectTopics OWNED_AND_SHARED_IN = new ProjectTopics(true, true);
+
+  private final boolean ownedTopics;
+  private final boolean sharedInTopics;
+
+  private ProjectTopics(boolean ownedTopics, boolean sharedInTopics) {
+    this.ownedTopics = ownedTopics;
+    this.sharedInTopics = sharedInTopics;
+  }
+
+  public static ProjectTopics of(boolean ownedTopics, boolean sharedInTopics) {
+    if (ownedTopics) {
+      return sharedInTopics ? OWNED_AND_SHARED_IN : OWNED;
+    }
+    return sharedInTopics ? SHARED_IN : EMPTY;
+  }
+
+  /**
+   * Indexes the topic access of every project.
+   *
+   * @param topicProjects topicName -> topicProjectId
+   * @param sharedProjects topicProjectId, userProjectId -> sharePermission
+   * @return projectId -> topic access of the project, projects without access to any topic are missing
+   */
+  public static Map<Integer, ProjectTopics> index(Map<String, Integer> topicProjects,
+                                                  ProjectShareMap sharedProjects) {
+    Set<Integer> owningProjects = new HashSet<>(topicProjects.values());
+    Map<Integer, ProjectTopics> index = new HashMap<>();
+    for (Integer projectId : owningProjects) {
+      index.put(projectId, OWNED);
+    }
+    sharedProjects.forEach(new ProjectShareMap.ShareConsumer() {
+      @Override
+      public void accept(int topicProjectId, int userProjectId, byte permission) {
+        if (permission == ProjectShareMap.READ_ONLY && owningProjects.contains(topicProjectId)) {
+          index.put(userProjectId, of(owningProjects.contains(userProjectId), true));
+        }
+      }
+    });
+    return index;
+  }
+
+  public boolean hasOwnedTopics() {
+    return ownedTopics;
+  }
+
+  public boolean hasSharedInTopics() {
+    return sharedInTopics;
+  }
+}
@@ -0,0 +1,66 @@
+package io.hops.kafka;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache loader that reloads refreshed entries on a dedicated executor, so the request thread that triggers the
+ * refresh keeps being served the old value. Every reload is delayed by a random jitter, which spreads the reloads
+ * (and therefore the following refreshes and expiries) of entries that were loaded at the same time. The change
+ * listener is called with the key and the new value (null if the key has no value anymore) of every reloaded entry
+ * whose value changed. It is called before the cache stores the new value, a listener that acts on the change has to
+ * put the new value, or invalidate the key, first.
+ * <p>
+ */
+public class RefreshingCacheLoader<K, V> extends CacheLoader<K, V> {
+
+  private final CacheLoader<K, V> delegate;
+  private final ScheduledExecutorService executor;
+  private final long maxJitterMs;
+  private final BiConsumer<K, V> changeListener;
+
+  public RefreshingCacheLoader(CacheLoader<K, V> delegate, ScheduledExecutorService executor, long maxJitterMs) {
+    this(delegate, executor, maxJitterMs, (key, value) -> { });
+  }
+
+  public RefreshingCacheLoader(CacheLoader<K, V> delegate, ScheduledExecutorService executor, long maxJitterMs,
+                               BiConsumer<K, V> changeListener) {
+    this.delegate = delegate;
+    this.executor = executor;
+    this.maxJitterMs = maxJitterMs;
+    this.changeListener = changeListener;
+  }
+
+  @Override
+  public V load(K key) throws Exception {
+    return delegate.load(key);
+  }
+
+  @Override
+  public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+    return delegate.loadAll(keys);
+  }
+
+  @Override
+  public ListenableFuture<V> reload(K key, V oldValue) {
+    ListenableFutureTask<V> task = ListenableFutureTask.create(() -> reload(key, oldValue, delegate.load(key)));
+    long jitterMs = maxJitterMs > 0 ? ThreadLocalRandom.current().nextLong(maxJitterMs) : 0;
+    executor.schedule(task, jitterMs, TimeUnit.MILLISECONDS);
+    return task;
+  }
+
+  private V reload(K key, V oldValue, V newValue) {
+    if (!Objects.equals(oldValue, newValue)) {
+      changeListener.accept(key, newValue);
+    }
+    return newValue;
+  }
+}
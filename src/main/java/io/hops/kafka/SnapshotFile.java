@@ -0,0 +1,149 @@
+package io.hops.kafka;
+
+import org.javatuples.Pair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Local copy of the authorization state, so a restarted broker can serve decisions before it reached the database.
+ * The file is written to a temporary file that replaces the previous one atomically, and read through a memory
+ * mapping. It consists of a header (magic, version, load time, payload length, CRC32 of the payload) and a payload
+ * with the topic projects, project roles and project shares. The load time is when the state was read from the
+ * database, not when the file was written, so state that could not be read again keeps aging across writes.
+ * <p>
+ */
+public final class SnapshotFile {
+
+  private static final int MAGIC = 0x484B4153;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 8;
+
+  private SnapshotFile() {}
+
+  public static void write(Path path, AclSnapshot snapshot) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream payload = new DataOutputStream(bytes)) {
+      payload.writeInt(snapshot.getTopicProjects().size());
+      for (Map.Entry<String, Integer> topicProject : snapshot.getTopicProjects().entrySet()) {
+        writeString(payload, topicProject.getKey());
+        payload.writeInt(topicProject.getValue());
+      }
+      payload.writeInt(snapshot.getProjectRoles().size());
+      for (Map.Entry<String, Pair<Integer, String>> projectRole : snapshot.getProjectRoles().entrySet()) {
+        writeString(payload, projectRole.getKey());
+        payload.writeInt(projectRole.getValue().getValue0());
+        writeString(payload, projectRole.getValue().getValue1());
+      }
+      ProjectShareMap sharedProjects = snapshot.getSharedProjects();
+      ByteBuffer shares = ByteBuffer.allocate(sharedProjects.size() * (4 + 4 + 1));
+      sharedProjects.forEach((topicProjectId, userProjectId, permission) ->
+          shares.putInt(topicProjectId).putInt(userProjectId).put(permission));
+      payload.writeInt(sharedProjects.size());
+      payload.write(shares.array());
+    }
+    byte[] payloadBytes = bytes.toByteArray();
+    CRC32 crc = new CRC32();
+    crc.update(payloadBytes);
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION).putLong(snapshot.getLoadedAtMs()).putInt(payloadBytes.length)
+        .putLong(crc.getValue());
+    header.flip();
+    Path tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer payload = ByteBuffer.wrap(payloadBytes);
+      while (header.hasRemaining() || payload.hasRemaining()) {
+        channel.write(new ByteBuffer[]{header, payload});
+      }
+      channel.force(true);
+    }
+    Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * @return the snapshot, null if there is no file or its state was loaded more than maxAgeMs ago
+   * @throws IOException if the file can not be read or is corrupt
+   */
+  public static AclSnapshot read(Path path, long maxAgeMs) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+    try {
+      if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+        throw new IOException("Not a snapshot file: " + path);
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported snapshot file version " + version + ": " + path);
+      }
+      long loadedAtMs = buffer.getLong();
+      int payloadLength = buffer.getInt();
+      long checksum = buffer.getLong();
+      if (System.currentTimeMillis() - loadedAtMs > maxAgeMs) {
+        return null;
+      }
+      if (buffer.remaining() != payloadLength) {
+        throw new IOException("Truncated snapshot file: " + path);
+      }
+      CRC32 crc = new CRC32();
+      crc.update(buffer.duplicate());
+      if (crc.getValue() != checksum) {
+        throw new IOException("Checksum mismatch of snapshot file: " + path);
+      }
+
+      int topicProjectsSize = buffer.getInt();
+      Map<String, Integer> topicProjects = new HashMap<>(topicProjectsSize * 4 / 3 + 1);
+      for (int i = 0; i < topicProjectsSize; i++) {
+        topicProjects.put(readString(buffer), buffer.getInt());
+      }
+      int projectRolesSize = buffer.getInt();
+      Map<String, Pair<Integer, String>> projectRoles = new HashMap<>(projectRolesSize * 4 / 3 + 1);
+      for (int i = 0; i < projectRolesSize; i++) {
+        String principalName = readString(buffer);
+        int projectId = buffer.getInt();
+        projectRoles.put(principalName, new Pair<>(projectId, readString(buffer)));
+      }
+      int sharedProjectsSize = buffer.getInt();
+      Map<Pair<Integer, Integer>, String> sharedProjects = new HashMap<>(sharedProjectsSize * 4 / 3 + 1);
+      for (int i = 0; i < sharedProjectsSize; i++) {
+        int topicProjectId = buffer.getInt();
+        int userProjectId = buffer.getInt();
+        sharedProjects.put(new Pair<>(topicProjectId, userProjectId), ProjectShareMap.decode(buffer.get()));
+      }
+      return new AclSnapshot(topicProjects, projectRoles, sharedProjects, loadedAtMs);
+    } catch (RuntimeException e) {
+      // BufferUnderflowException and friends, the checksum matched but the content does not
+      throw new IOException("Corrupt snapshot file: " + path, e);
+    }
+  }
+
+  private static void writeString(DataOutputStream payload, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    payload.writeInt(bytes.length);
+    payload.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
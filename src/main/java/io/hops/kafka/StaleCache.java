@@ -0,0 +1,82 @@
+package io.hops.kafka;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entries that expired from a loading cache, kept for a grace period. They are only served if loading the entry again
+ * fails, so a failing database does not deny every request once the entries expire, while a healthy database is
+ * always asked first. Entries that no longer exist in the database are dropped.
+ * <p>
+ */
+public class StaleCache<K, V> implements RemovalListener<K, V> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StaleCache.class.getName());
+
+  private final Cache<K, V> cache;
+
+  public StaleCache(long maxSize, long graceMs) {
+    cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(graceMs, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  @Override
+  public void onRemoval(RemovalNotification<K, V> notification) {
+    if (notification.getCause() == RemovalCause.EXPIRED) {
+      cache.put(notification.getKey(), notification.getValue());
+    }
+  }
+
+  /**
+   * Gets the entry from the loading cache, falls back to the expired entry if loading it fails.
+   */
+  public V get(LoadingCache<K, V> loadingCache, K key) throws ExecutionException {
+    try {
+      return loadingCache.get(key);
+    } catch (CacheLoader.InvalidCacheLoadException e) {
+      // no row in the database anymore
+      cache.invalidate(key);
+      throw e;
+    } catch (ExecutionException e) {
+      return getStale(key, e);
+    }
+  }
+
+  /**
+   * Gets the expired entry once loading the entry failed, for callers that need to know whether it was served.
+   *
+   * @throws ExecutionException the load failure if there is no expired entry
+   */
+  public V getStale(K key, ExecutionException loadFailure) throws ExecutionException {
+    V stale = cache.getIfPresent(key);
+    if (stale == null) {
+      throw loadFailure;
+    }
+    LOGGER.debug("Failed to load '{}', serving the expired entry", key);
+    return stale;
+  }
+
+  public void invalidate(K key) {
+    cache.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+}
@@ -0,0 +1,16 @@
+package io.hops.kafka;
+
+/**
+ * Thrown instead of loading a cache miss from the database when the principal or all principals together are over
+ * their load rate.
+ * <p>
+ */
+public class ThrottledException extends Exception {
+
+  private static final long serialVersionUID = 1L;
+
+  public ThrottledException(String message) {
+    // thrown at high rates, the stack trace is never looked at
+    super(message, null, false, false);
+  }
+}
@@ -0,0 +1,38 @@
+package io.hops.kafka;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket refilled at a fixed rate up to its burst size, each permit takes one token.
+ * <p>
+ */
+public class TokenBucket {
+
+  private final double tokensPerNano;
+  private final double burst;
+  private double tokens;
+  private long lastRefillNanos;
+
+  public TokenBucket(double ratePerSecond, double burst, long nowNanos) {
+    this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.burst = burst;
+    this.tokens = burst;
+    this.lastRefillNanos = nowNanos;
+  }
+
+  /**
+   * @return false if the bucket has no token left
+   */
+  public synchronized boolean tryAcquire(long nowNanos) {
+    // threads that read the clock earlier than the last refill do not refill
+    if (nowNanos - lastRefillNanos > 0) {
+      tokens = Math.min(burst, tokens + (nowNanos - lastRefillNanos) * tokensPerNano);
+      lastRefillNanos = nowNanos;
+    }
+    if (tokens < 1) {
+      return false;
+    }
+    tokens--;
+    return true;
+  }
+}
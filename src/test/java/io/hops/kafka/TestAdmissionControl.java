@@ -0,0 +1,86 @@
+package io.hops.kafka;
+
+import com.google.common.cache.CacheLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class TestAdmissionControl {
+
+  private AdmissionControl admissionControl;
+
+  @AfterEach
+  public void tearDown() {
+    admissionControl.exit();
+  }
+
+  @Test
+  public void testPrincipalRate() throws ThrottledException {
+    // Arrange
+    admissionControl = new AdmissionControl(0, 1, 100, null);
+    admissionControl.enter("project__noisy");
+    admissionControl.acquire();
+
+    // Act
+    Assertions.assertThrows(ThrottledException.class, () -> admissionControl.acquire());
+    admissionControl.enter("project__user");
+
+    // Assert
+    Assertions.assertDoesNotThrow(() -> admissionControl.acquire());
+  }
+
+  @Test
+  public void testGlobalRate() throws ThrottledException {
+    // Arrange
+    admissionControl = new AdmissionControl(1, 0, 100, null);
+    admissionControl.enter("project__noisy");
+    admissionControl.acquire();
+    admissionControl.enter("project__user");
+
+    // Act & Assert
+    Assertions.assertThrows(ThrottledException.class, () -> admissionControl.acquire());
+  }
+
+  @Test
+  public void testThrottledPrincipalKeepsGlobalTokens() throws ThrottledException {
+    // Arrange
+    admissionControl = new AdmissionControl(2, 1, 100, null);
+    admissionControl.enter("project__noisy");
+    admissionControl.acquire();
+    Assertions.assertThrows(ThrottledException.class, () -> admissionControl.acquire());
+
+    // Act
+    admissionControl.enter("project__user");
+
+    // Assert
+    Assertions.assertDoesNotThrow(() -> admissionControl.acquire());
+  }
+
+  @Test
+  public void testWithoutPrincipal() {
+    // Arrange
+    admissionControl = new AdmissionControl(1, 1, 100, null);
+
+    // Act & Assert
+    for (int i = 0; i < 10; i++) {
+      Assertions.assertDoesNotThrow(() -> admissionControl.acquire());
+    }
+  }
+
+  @Test
+  public void testAdmittedLoader() throws Exception {
+    // Arrange
+    AuthorizerMetrics metrics = Mockito.mock(AuthorizerMetrics.class);
+    admissionControl = new AdmissionControl(0, 1, 100, metrics);
+    CacheLoader<String, Integer> cacheLoader = admissionControl.admitted(CacheLoader.from(String::length));
+    admissionControl.enter("project__noisy");
+    cacheLoader.load("topic");
+
+    // Act
+    Assertions.assertThrows(ThrottledException.class, () -> cacheLoader.load("topic"));
+
+    // Assert
+    Mockito.verify(metrics, Mockito.times(1)).recordThrottled();
+  }
+}
@@ -0,0 +1,108 @@
+package io.hops.kafka;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TestAuditLog {
+
+  private final Map<AuditLog.Entry, Long> flushed = new HashMap<>();
+
+  @Test
+  public void testAggregate() {
+    // Arrange
+    AuditLog auditLog = new AuditLog(16, 0, flushed::put);
+
+    // Act
+    auditLog.record("project__user", ResourceType.TOPIC, "test", AclOperation.READ, AuthorizationResult.ALLOWED);
+    auditLog.record("project__user", ResourceType.TOPIC, "test", AclOperation.READ, AuthorizationResult.ALLOWED);
+    auditLog.record("project__user", ResourceType.TOPIC, "test", AclOperation.WRITE, AuthorizationResult.DENIED);
+    auditLog.drain();
+
+    // Assert
+    Assertions.assertEquals(2, flushed.size());
+    Assertions.assertEquals(2L, flushed.get(new AuditLog.Entry("project__user", ResourceType.TOPIC, "test",
+        AclOperation.READ, AuthorizationResult.ALLOWED)));
+    Assertions.assertEquals(1L, flushed.get(new AuditLog.Entry("project__user", ResourceType.TOPIC, "test",
+        AclOperation.WRITE, AuthorizationResult.DENIED)));
+  }
+
+  @Test
+  public void testWindow() {
+    // Arrange
+    AuditLog auditLog = new AuditLog(16, TimeUnit.HOURS.toMillis(1), flushed::put);
+
+    // Act
+    auditLog.record("project__user", ResourceType.TOPIC, "test", AclOperation.READ, AuthorizationResult.ALLOWED);
+    auditLog.drain();
+
+    // Assert
+    Assertions.assertTrue(flushed.isEmpty());
+    auditLog.close();
+    Assertions.assertEquals(1, flushed.size());
+  }
+
+  @Test
+  public void testBufferFull() {
+    // Arrange
+    AuditLog auditLog = new AuditLog(4, 0, flushed::put);
+
+    // Act
+    boolean recorded = true;
+    for (int i = 0; i < 4; i++) {
+      recorded &= auditLog.record("project__user", ResourceType.TOPIC, "test" + i, AclOperation.READ,
+          AuthorizationResult.ALLOWED);
+    }
+    boolean dropped = !auditLog.record("project__user", ResourceType.TOPIC, "test", AclOperation.READ,
+        AuthorizationResult.ALLOWED);
+    long droppedCount = auditLog.getDropped();
+    auditLog.drain();
+    boolean recordedAfterDrain = auditLog.record("project__user", ResourceType.TOPIC, "test", AclOperation.READ,
+        AuthorizationResult.ALLOWED);
+
+    // Assert
+    Assertions.assertTrue(recorded);
+    Assertions.assertTrue(dropped);
+    Assertions.assertEquals(1, droppedCount);
+    Assertions.assertEquals(4, flushed.size());
+    Assertions.assertTrue(recordedAfterDrain);
+  }
+
+  @Test
+  public void testConcurrentRecord() throws InterruptedException {
+    // Arrange
+    AuditLog auditLog = new AuditLog(1024, TimeUnit.HOURS.toMillis(1), flushed::put);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    CountDownLatch done = new CountDownLatch(4);
+
+    // Act
+    auditLog.start();
+    for (int thread = 0; thread < 4; thread++) {
+      executor.execute(() -> {
+        for (int i = 0; i < 10000; i++) {
+          while (!auditLog.record("project__user", ResourceType.TOPIC, "test", AclOperation.READ,
+              AuthorizationResult.ALLOWED)) {
+            Thread.yield();
+          }
+        }
+        done.countDown();
+      });
+    }
+    Assertions.assertTrue(done.await(30, TimeUnit.SECONDS));
+    executor.shutdown();
+    auditLog.close();
+
+    // Assert
+    Assertions.assertEquals(40000L, flushed.get(new AuditLog.Entry("project__user", ResourceType.TOPIC, "test",
+        AclOperation.READ, AuthorizationResult.ALLOWED)));
+  }
+}
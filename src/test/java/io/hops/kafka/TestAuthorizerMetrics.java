@@ -0,0 +1,163 @@
+package io.hops.kafka;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestAuthorizerMetrics {
+
+  private Metrics metrics;
+  private AuthorizerMetrics authorizerMetrics;
+
+  @BeforeEach
+  public void setup() {
+    metrics = new Metrics();
+    authorizerMetrics = new AuthorizerMetrics(metrics, 1);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    authorizerMetrics.close();
+  }
+
+  @Test
+  public void testRecordAuthorize() {
+    // Act
+    authorizerMetrics.recordAuthorize(ResourceType.TOPIC, System.nanoTime());
+    authorizerMetrics.recordRetry();
+
+    // Assert
+    Map<String, String> topicTags = Collections.singletonMap("resource-type", "topic");
+    Map<String, String> groupTags = Collections.singletonMap("resource-type", "group");
+    Assertions.assertFalse(Double.isNaN(value("authorize-latency-avg", topicTags)));
+    Assertions.assertTrue(Double.isNaN(value("authorize-latency-avg", groupTags)));
+    Assertions.assertTrue(value("authorize-latency-p99-us", topicTags) >= 0);
+    Assertions.assertNull(metrics.metric(metrics.metricName("authorize-latency-p99", AuthorizerMetrics.GROUP,
+        topicTags)));
+    Assertions.assertEquals(1.0, value("authorize-retry-total", Collections.emptyMap()));
+    Assertions.assertEquals(1.0, value("authorize-total", topicTags));
+  }
+
+  @Test
+  public void testRecordAuthorizeNotSampled() {
+    // Act
+    authorizerMetrics.recordAuthorize(ResourceType.TOPIC, 0);
+
+    // Assert
+    Map<String, String> topicTags = Collections.singletonMap("resource-type", "topic");
+    Assertions.assertEquals(1.0, value("authorize-total", topicTags));
+    Assertions.assertTrue(Double.isNaN(value("authorize-latency-avg", topicTags)));
+  }
+
+  @Test
+  public void testRecordQuery() {
+    // Act
+    authorizerMetrics.recordQuery("topic-project", System.nanoTime());
+    authorizerMetrics.recordQuery("topic-project", System.nanoTime());
+
+    // Assert
+    Map<String, String> tags = Collections.singletonMap("statement", "topic-project");
+    Assertions.assertTrue(value("query-latency-max", tags) >= 0);
+    Assertions.assertNotNull(metrics.metric(metrics.metricName("query-latency-p99", AuthorizerMetrics.GROUP, tags)));
+  }
+
+  @Test
+  public void testRecordThrottled() {
+    // Act
+    authorizerMetrics.recordThrottled();
+    authorizerMetrics.recordThrottled();
+
+    // Assert
+    Assertions.assertEquals(2.0, value("load-throttled-total", Collections.emptyMap()));
+  }
+
+  @Test
+  public void testRecordNameFilterDenied() {
+    // Act
+    authorizerMetrics.recordNameFilterDenied();
+
+    // Assert
+    Assertions.assertEquals(1.0, value("name-filter-denied-total", Collections.emptyMap()));
+  }
+
+  @Test
+  public void testCountSizeEvictions() {
+    // Arrange
+    AtomicInteger removals = new AtomicInteger();
+    Cache<Integer, Integer> cache = CacheBuilder.newBuilder()
+        .maximumSize(1)
+        .removalListener(authorizerMetrics.<Integer, Integer>countSizeEvictions("test",
+            notification -> removals.incrementAndGet()))
+        .build();
+
+    // Act
+    cache.put(1, 1);
+    cache.put(2, 2);
+    cache.invalidate(2);
+
+    // Assert
+    Map<String, String> tags = Collections.singletonMap("cache", "test");
+    Assertions.assertEquals(1.0, value("cache-size-eviction-total", tags));
+    Assertions.assertEquals(2, removals.get());
+  }
+
+  @Test
+  public void testRegisterCache() {
+    // Arrange
+    Cache<String, Integer> cache = CacheBuilder.newBuilder().recordStats().build();
+    cache.put("test", 119);
+
+    // Act
+    authorizerMetrics.registerCache("topic-project", cache);
+    cache.getIfPresent("test");
+    cache.getIfPresent("missing");
+
+    // Assert
+    Map<String, String> tags = Collections.singletonMap("cache", "topic-project");
+    Assertions.assertEquals(1.0, value("cache-hit-total", tags));
+    Assertions.assertEquals(1.0, value("cache-miss-total", tags));
+    Assertions.assertEquals(0.5, value("cache-hit-ratio", tags));
+    Assertions.assertEquals(1.0, value("cache-size", tags));
+  }
+
+  @Test
+  public void testPoolMetrics() {
+    // Arrange
+    PoolStats poolStats = new PoolStats(0) {
+      @Override
+      protected void update() {
+        totalConnections = 4;
+        activeConnections = 3;
+        idleConnections = 1;
+        pendingThreads = 2;
+      }
+    };
+
+    // Act
+    IMetricsTracker tracker = authorizerMetrics.poolMetricsTrackerFactory(6).create("pool", poolStats);
+    tracker.recordConnectionAcquiredNanos(2000000);
+    tracker.recordConnectionTimeout();
+
+    // Assert
+    Assertions.assertEquals(3.0, value("pool-active-connections", Collections.emptyMap()));
+    Assertions.assertEquals(2.0, value("pool-pending-threads", Collections.emptyMap()));
+    Assertions.assertEquals(0.5, value("pool-usage-ratio", Collections.emptyMap()));
+    Assertions.assertEquals(2.0, value("pool-wait-latency-max", Collections.emptyMap()));
+    Assertions.assertEquals(1.0, value("pool-timeout-total", Collections.emptyMap()));
+  }
+
+  private double value(String name, Map<String, String> tags) {
+    return (double) metrics.metric(metrics.metricName(name, AuthorizerMetrics.GROUP, tags)).metricValue();
+  }
+}
@@ -0,0 +1,94 @@
+package io.hops.kafka;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TestChangeLogSync {
+
+  private DbConnection dbConnection;
+  private CacheControlMBean cacheControl;
+  private ChangeLogSync changeLogSync;
+
+  @BeforeEach
+  public void setup() {
+    dbConnection = Mockito.mock(DbConnection.class);
+    cacheControl = Mockito.mock(CacheControlMBean.class);
+    changeLogSync = new ChangeLogSync(dbConnection, "hopsworks.acl_changes", 2, cacheControl);
+  }
+
+  @Test
+  public void testInitialize() throws SQLException {
+    // Arrange
+    Mockito.when(dbConnection.getLastChange("hopsworks.acl_changes")).thenReturn(41L);
+
+    // Act
+    changeLogSync.initialize();
+    changeLogSync.initialize();
+
+    // Assert
+    Assertions.assertEquals(41L, changeLogSync.getHighWaterMark());
+    Mockito.verify(dbConnection, Mockito.times(1)).getLastChange("hopsworks.acl_changes");
+  }
+
+  @Test
+  public void testSync() throws SQLException {
+    // Arrange
+    Mockito.when(dbConnection.getLastChange("hopsworks.acl_changes")).thenReturn(41L);
+    Mockito.when(dbConnection.getChanges("hopsworks.acl_changes", 41L, 2))
+        .thenReturn(Arrays.asList(new Pair<>(42L, "topic test"), new Pair<>(43L, "member project user")));
+    Mockito.when(dbConnection.getChanges("hopsworks.acl_changes", 43L, 2))
+        .thenReturn(Collections.singletonList(new Pair<>(45L, "share 120 119")));
+
+    // Act
+    int applied = changeLogSync.sync();
+
+    // Assert
+    Assertions.assertEquals(3, applied);
+    Assertions.assertEquals(45L, changeLogSync.getHighWaterMark());
+    Mockito.verify(cacheControl, Mockito.times(1)).invalidateTopic("test");
+    Mockito.verify(cacheControl, Mockito.times(1)).invalidateProjectMember("project", "user");
+    Mockito.verify(cacheControl, Mockito.times(1)).invalidateProjectShare(120, 119);
+  }
+
+  @Test
+  public void testSyncInvalidChange() throws SQLException {
+    // Arrange
+    Mockito.when(dbConnection.getChanges("hopsworks.acl_changes", 0L, 2))
+        .thenReturn(Collections.singletonList(new Pair<>(1L, "share project 119")));
+
+    // Act
+    int applied = changeLogSync.sync();
+
+    // Assert
+    Assertions.assertEquals(1, applied);
+    Assertions.assertEquals(1L, changeLogSync.getHighWaterMark());
+    Mockito.verifyNoInteractions(cacheControl);
+  }
+
+  @Test
+  public void testSyncFailure() throws SQLException {
+    // Arrange
+    Mockito.when(dbConnection.getLastChange("hopsworks.acl_changes")).thenReturn(41L);
+    Mockito.when(dbConnection.getChanges("hopsworks.acl_changes", 41L, 2)).thenThrow(new SQLException());
+
+    // Act
+    changeLogSync.run();
+
+    // Assert
+    Assertions.assertEquals(41L, changeLogSync.getHighWaterMark());
+  }
+
+  @Test
+  public void testInvalidTable() {
+    // Act & Assert
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new ChangeLogSync(dbConnection, "acl_changes; DROP TABLE users", 2, cacheControl));
+  }
+}
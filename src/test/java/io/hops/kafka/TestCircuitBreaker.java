@@ -0,0 +1,52 @@
+package io.hops.kafka;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestCircuitBreaker {
+
+  @Test
+  public void testOpen() {
+    // Arrange
+    CircuitBreaker circuitBreaker = new CircuitBreaker(3);
+
+    // Act
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+    boolean openBeforeThreshold = circuitBreaker.isOpen();
+    circuitBreaker.recordFailure();
+
+    // Assert
+    Assertions.assertFalse(openBeforeThreshold);
+    Assertions.assertTrue(circuitBreaker.isOpen());
+  }
+
+  @Test
+  public void testSuccessResetsFailures() {
+    // Arrange
+    CircuitBreaker circuitBreaker = new CircuitBreaker(3);
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+
+    // Act
+    circuitBreaker.recordSuccess();
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+
+    // Assert
+    Assertions.assertFalse(circuitBreaker.isOpen());
+  }
+
+  @Test
+  public void testClose() {
+    // Arrange
+    CircuitBreaker circuitBreaker = new CircuitBreaker(1);
+    circuitBreaker.recordFailure();
+
+    // Act
+    circuitBreaker.recordSuccess();
+
+    // Assert
+    Assertions.assertFalse(circuitBreaker.isOpen());
+  }
+}
@@ -2,6 +2,7 @@ package io.hops.kafka;
 
 import com.zaxxer.hikari.HikariDataSource;
 import org.javatuples.Pair;
+import org.javatuples.Quartet;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -201,4 +210,354 @@ public class TestDbConnection {
     Mockito.verify(preparedStatement, Mockito.times(1)).close();
     Mockito.verify(resultSet, Mockito.times(0)).close();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testGetTopicProjects() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+    Mockito.when(resultSet.getString(1)).thenReturn("test_topic").thenReturn("test_topic1");
+    Mockito.when(resultSet.getInt(2)).thenReturn(119).thenReturn(120);
+
+    // Act
+    Map<String, Integer> topicProjects = dbConnection.getTopicProjects();
+
+    // Assert
+    Assertions.assertEquals(2, topicProjects.size());
+    Assertions.assertEquals(119, topicProjects.get("test_topic"));
+    Assertions.assertEquals(120, topicProjects.get("test_topic1"));
+    Mockito.verify(datasource, Mockito.times(1)).getConnection();
+    Mockito.verify(connection, Mockito.times(1)).close();
+    Mockito.verify(preparedStatement, Mockito.times(1)).close();
+    Mockito.verify(resultSet, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testGetProjectRoles() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true).thenReturn(false);
+    Mockito.when(resultSet.getString(1)).thenReturn("test_project_name");
+    Mockito.when(resultSet.getString(2)).thenReturn("test_username");
+    Mockito.when(resultSet.getInt(3)).thenReturn(123);
+    Mockito.when(resultSet.getString(4)).thenReturn("example_role");
+
+    // Act
+    Map<String, Pair<Integer, String>> projectRoles = dbConnection.getProjectRoles();
+
+    // Assert
+    Assertions.assertEquals(1, projectRoles.size());
+    Assertions.assertEquals(new Pair<>(123, "example_role"), projectRoles.get("test_project_name__test_username"));
+    Mockito.verify(datasource, Mockito.times(1)).getConnection();
+    Mockito.verify(connection, Mockito.times(1)).close();
+    Mockito.verify(preparedStatement, Mockito.times(1)).close();
+    Mockito.verify(resultSet, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testGetSharedProjects() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+    Mockito.when(resultSet.getInt(1)).thenReturn(120);
+    Mockito.when(resultSet.getInt(2)).thenReturn(119);
+    Mockito.when(resultSet.getString(3)).thenReturn("READ_ONLY").thenReturn("EDITABLE");
+
+    // Act
+    Map<Pair<Integer, Integer>, String> sharedProjects = dbConnection.getSharedProjects();
+
+    // Assert
+    Assertions.assertEquals(1, sharedProjects.size());
+    Assertions.assertEquals("READ_ONLY", sharedProjects.get(new Pair<>(120, 119)));
+    Mockito.verify(datasource, Mockito.times(1)).getConnection();
+    Mockito.verify(connection, Mockito.times(1)).close();
+    Mockito.verify(preparedStatement, Mockito.times(1)).close();
+    Mockito.verify(resultSet, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testGetTopicProjectsFail() throws SQLException {
+    // Arrange
+    Mockito.when(preparedStatement.executeQuery()).thenThrow(new SQLException());
+
+    // Act
+    Assertions.assertThrows(SQLException.class, () -> dbConnection.getTopicProjects());
+
+    // Assert
+    Mockito.verify(datasource, Mockito.times(1)).getConnection();
+    Mockito.verify(connection, Mockito.times(1)).close();
+    Mockito.verify(preparedStatement, Mockito.times(1)).close();
+    Mockito.verify(resultSet, Mockito.times(0)).close();
+  }
+
+  @Test
+  public void testGetTopicProjectsByName() throws SQLException {
+    // Arrange
+    List<String> topicNames = new ArrayList<>();
+    for (int i = 0; i < 501; i++) {
+      topicNames.add("test_topic" + i);
+    }
+    Mockito.when(resultSet.next()).thenReturn(true).thenReturn(false).thenReturn(true).thenReturn(false);
+    Mockito.when(resultSet.getString(1)).thenReturn("test_topic0").thenReturn("test_topic500");
+    Mockito.when(resultSet.getInt(2)).thenReturn(119);
+
+    // Act
+    Map<String, Integer> topicProjects = dbConnection.getTopicProjects(topicNames);
+
+    // Assert
+    Assertions.assertEquals(2, topicProjects.size());
+    Assertions.assertEquals(119, topicProjects.get("test_topic0"));
+    Assertions.assertEquals(119, topicProjects.get("test_topic500"));
+    Mockito.verify(preparedStatement, Mockito.times(501)).setString(anyInt(), anyString());
+    Mockito.verify(datasource, Mockito.times(2)).getConnection();
+    Mockito.verify(connection, Mockito.times(2)).close();
+    Mockito.verify(preparedStatement, Mockito.times(2)).close();
+    Mockito.verify(resultSet, Mockito.times(2)).close();
+  }
+
+  @Test
+  public void testGetTopicProjectsByNameEmpty() throws SQLException {
+    // Act
+    Map<String, Integer> topicProjects = dbConnection.getTopicProjects(Collections.emptyList());
+
+    // Assert
+    Assertions.assertTrue(topicProjects.isEmpty());
+    Mockito.verify(datasource, Mockito.times(0)).getConnection();
+  }
+
+  @Test
+  public void testGetProjectRolesByName() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true).thenReturn(false);
+    Mockito.when(resultSet.getString(1)).thenReturn("test_project_name");
+    Mockito.when(resultSet.getString(2)).thenReturn("test_username");
+    Mockito.when(resultSet.getInt(3)).thenReturn(123);
+    Mockito.when(resultSet.getString(4)).thenReturn("example_role");
+
+    // Act
+    Map<String, Pair<Integer, String>> projectRoles = dbConnection.getProjectRoles(Arrays.asList(
+        new Pair<>("test_project_name", "test_username"), new Pair<>("test_project_name", "test_username1")));
+
+    // Assert
+    Assertions.assertEquals(1, projectRoles.size());
+    Assertions.assertEquals(new Pair<>(123, "example_role"), projectRoles.get("test_project_name__test_username"));
+    Mockito.verify(preparedStatement, Mockito.times(4)).setString(anyInt(), anyString());
+    Mockito.verify(datasource, Mockito.times(1)).getConnection();
+    Mockito.verify(resultSet, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testGetSharedProjectsByPair() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true).thenReturn(false);
+    Mockito.when(resultSet.getInt(1)).thenReturn(120);
+    Mockito.when(resultSet.getInt(2)).thenReturn(119);
+    Mockito.when(resultSet.getString(3)).thenReturn("READ_ONLY");
+
+    // Act
+    Map<Pair<Integer, Integer>, String> sharedProjects = dbConnection.getSharedProjects(
+        Arrays.asList(new Pair<>(120, 119), new Pair<>(121, 119)));
+
+    // Assert
+    Assertions.assertEquals(1, sharedProjects.size());
+    Assertions.assertEquals("READ_ONLY", sharedProjects.get(new Pair<>(120, 119)));
+    Mockito.verify(preparedStatement, Mockito.times(4)).setInt(anyInt(), anyInt());
+    Mockito.verify(datasource, Mockito.times(1)).getConnection();
+    Mockito.verify(resultSet, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testGetTopicAccess() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true).thenReturn(false);
+    Mockito.when(resultSet.getInt(1)).thenReturn(120);
+    Mockito.when(resultSet.getInt(2)).thenReturn(119);
+    Mockito.when(resultSet.getString(3)).thenReturn("example_role");
+    Mockito.when(resultSet.getString(4)).thenReturn("example_permission");
+
+    // Act
+    Quartet<Integer, Integer, String, String> topicAccess =
+        dbConnection.getTopicAccess("test_topic", "test_project_name", "test_username");
+
+    // Assert
+    Assertions.assertEquals(new Quartet<>(120, 119, "example_role", "example_permission"), topicAccess);
+    Mockito.verify(preparedStatement, Mockito.times(3)).setString(anyInt(), anyString());
+    Mockito.verify(datasource, Mockito.times(1)).getConnection();
+    Mockito.verify(connection, Mockito.times(1)).close();
+    Mockito.verify(preparedStatement, Mockito.times(1)).close();
+    Mockito.verify(resultSet, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testGetTopicAccessNull() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true).thenReturn(false);
+    Mockito.when(resultSet.getInt(anyInt())).thenReturn(0);
+    Mockito.when(resultSet.wasNull()).thenReturn(true);
+
+    // Act
+    Quartet<Integer, Integer, String, String> topicAccess =
+        dbConnection.getTopicAccess("test_topic", "test_project_name", "test_username");
+
+    // Assert
+    Assertions.assertEquals(new Quartet<>(null, null, null, null), topicAccess);
+    Mockito.verify(datasource, Mockito.times(1)).getConnection();
+    Mockito.verify(resultSet, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testGetProjectTopics() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true, false);
+    Mockito.when(resultSet.getBoolean(1)).thenReturn(false);
+    Mockito.when(resultSet.getBoolean(2)).thenReturn(true);
+
+    // Act
+    ProjectTopics projectTopics = dbConnection.getProjectTopics(119);
+
+    // Assert
+    Assertions.assertFalse(projectTopics.hasOwnedTopics());
+    Assertions.assertTrue(projectTopics.hasSharedInTopics());
+    Mockito.verify(preparedStatement, Mockito.times(3)).setInt(anyInt(), Mockito.eq(119));
+    Mockito.verify(preparedStatement, Mockito.times(1)).setString(4, Consts.READ_ONLY);
+    Mockito.verify(datasource, Mockito.times(1)).getConnection();
+    Mockito.verify(resultSet, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testQueryMetrics() throws SQLException {
+    // Arrange
+    AuthorizerMetrics metrics = Mockito.mock(AuthorizerMetrics.class);
+    dbConnection = new DbConnection(datasource, metrics, new CircuitBreaker(Integer.MAX_VALUE));
+    Mockito.when(resultSet.next()).thenReturn(false);
+
+    // Act
+    dbConnection.getTopicProject("test_topic");
+    dbConnection.getTopicProjects();
+
+    // Assert
+    Mockito.verify(metrics, Mockito.times(1)).recordQuery(Mockito.eq("topic-project"), Mockito.anyLong());
+    Mockito.verify(metrics, Mockito.times(1)).recordQuery(Mockito.eq("all-topic-projects"), Mockito.anyLong());
+  }
+
+  @Test
+  public void testCircuitBreakerOpen() throws SQLException {
+    // Arrange
+    dbConnection = new DbConnection(datasource, null, new CircuitBreaker(2));
+    Mockito.when(preparedStatement.executeQuery())
+        .thenThrow(new SQLTransientConnectionException("database unavailable"));
+    for (int i = 0; i < 2; i++) {
+      Assertions.assertThrows(SQLException.class, () -> dbConnection.getTopicProject("test_topic"));
+    }
+
+    // Act
+    Assertions.assertThrows(SQLException.class, () -> dbConnection.getTopicProject("test_topic"));
+
+    // Assert
+    Assertions.assertTrue(dbConnection.getCircuitBreaker().isOpen());
+    Mockito.verify(datasource, Mockito.times(2)).getConnection();
+  }
+
+  @Test
+  public void testCircuitBreakerIgnoresStatementErrors() throws SQLException {
+    // Arrange
+    dbConnection = new DbConnection(datasource, null, new CircuitBreaker(2));
+    Mockito.when(preparedStatement.executeQuery()).thenThrow(new SQLSyntaxErrorException("syntax error", "42000"));
+
+    // Act
+    for (int i = 0; i < 3; i++) {
+      Assertions.assertThrows(SQLSyntaxErrorException.class, () -> dbConnection.getTopicProject("test_topic"));
+    }
+
+    // Assert
+    Assertions.assertFalse(dbConnection.getCircuitBreaker().isOpen());
+    Mockito.verify(datasource, Mockito.times(3)).getConnection();
+  }
+
+  @Test
+  public void testIsUnavailable() {
+    // Assert
+    Assertions.assertTrue(DbConnection.isUnavailable(new SQLTransientConnectionException()));
+    Assertions.assertTrue(DbConnection.isUnavailable(new SQLRecoverableException()));
+    Assertions.assertTrue(DbConnection.isUnavailable(new SQLException("communications link failure", "08S01")));
+    Assertions.assertFalse(DbConnection.isUnavailable(new SQLException("duplicate entry", "23000")));
+    Assertions.assertFalse(DbConnection.isUnavailable(new SQLException()));
+  }
+
+  @Test
+  public void testProbe() throws SQLException {
+    // Arrange
+    CircuitBreaker circuitBreaker = new CircuitBreaker(1);
+    circuitBreaker.recordFailure();
+    dbConnection = new DbConnection(datasource, null, circuitBreaker);
+    Mockito.when(connection.isValid(anyInt())).thenReturn(false).thenReturn(true);
+
+    // Act
+    dbConnection.probe();
+    boolean openAfterFailedProbe = circuitBreaker.isOpen();
+    dbConnection.probe();
+
+    // Assert
+    Assertions.assertTrue(openAfterFailedProbe);
+    Assertions.assertFalse(circuitBreaker.isOpen());
+    Mockito.verify(connection, Mockito.times(2)).close();
+  }
+
+  @Test
+  public void testGetChanges() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true, true, false);
+    Mockito.when(resultSet.getLong(1)).thenReturn(42L, 43L);
+    Mockito.when(resultSet.getString(2)).thenReturn("topic test", "member project user");
+
+    // Act
+    List<Pair<Long, String>> changes = dbConnection.getChanges("acl_changes", 41L, 100);
+
+    // Assert
+    Assertions.assertEquals(Arrays.asList(new Pair<>(42L, "topic test"), new Pair<>(43L, "member project user")),
+        changes);
+    Mockito.verify(connection, Mockito.times(1)).prepareStatement(Mockito.contains("FROM acl_changes c"));
+    Mockito.verify(preparedStatement, Mockito.times(1)).setLong(1, 41L);
+    Mockito.verify(preparedStatement, Mockito.times(1)).setInt(2, 100);
+    Mockito.verify(resultSet, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testGetLastChange() throws SQLException {
+    // Arrange
+    Mockito.when(resultSet.next()).thenReturn(true);
+    Mockito.when(resultSet.getLong(1)).thenReturn(42L);
+
+    // Act
+    long lastChange = dbConnection.getLastChange("acl_changes");
+
+    // Assert
+    Assertions.assertEquals(42L, lastChange);
+    Mockito.verify(connection, Mockito.times(1)).close();
+  }
+
+  @Test
+  public void testEjectFailingEndpoint() throws SQLException {
+    // Arrange
+    HikariDataSource failingDatasource = Mockito.mock(HikariDataSource.class);
+    Mockito.when(failingDatasource.getConnection()).thenThrow(new SQLException("endpoint unavailable", "08S01"));
+    EndpointRouter router = new EndpointRouter(Arrays.asList(new EndpointRouter.Endpoint("healthy", datasource),
+        new EndpointRouter.Endpoint("failing", failingDatasource)), 1, 60000);
+    dbConnection = new DbConnection(router, null, new CircuitBreaker(Integer.MAX_VALUE));
+    Mockito.when(resultSet.next()).thenReturn(false);
+    // endpoints are picked at random, query until the failing one was picked
+    while (!router.getEndpoints().get(1).isEjected()) {
+      try {
+        dbConnection.getTopicProject("test_topic");
+      } catch (SQLException e) {
+        // expected from the failing endpoint
+      }
+    }
+
+    // Act
+    for (int i = 0; i < 10; i++) {
+      Assertions.assertNull(dbConnection.getTopicProject("test_topic"));
+    }
+
+    // Assert
+    Mockito.verify(failingDatasource, Mockito.times(1)).getConnection();
+    Assertions.assertTrue(router.getEndpoints().get(0).getLatencyEwmaNanos() > 0);
+  }
+}
@@ -0,0 +1,102 @@
+package io.hops.kafka;
+
+import com.google.common.cache.CacheBuilder;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestDecisionCache {
+
+  private final DecisionCache decisionCache = new DecisionCache(CacheBuilder.newBuilder().maximumSize(10).build());
+  private final DecisionKey key = new DecisionKey("project__user", "test", AclOperation.READ);
+  private final DecisionKey otherKey = new DecisionKey("project__other", "other", AclOperation.READ);
+
+  @Test
+  public void testPut() {
+    // Act
+    put(key);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, decisionCache.get(key));
+    Assertions.assertNull(decisionCache.get(otherKey));
+  }
+
+  @Test
+  public void testInvalidateTopic() {
+    // Arrange
+    put(key);
+    put(otherKey);
+
+    // Act
+    decisionCache.invalidateTopic("test");
+
+    // Assert
+    Assertions.assertNull(decisionCache.get(key));
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, decisionCache.get(otherKey));
+  }
+
+  @Test
+  public void testInvalidatePrincipal() {
+    // Arrange
+    put(key);
+    put(otherKey);
+
+    // Act
+    decisionCache.invalidatePrincipal("project__user");
+
+    // Assert
+    Assertions.assertNull(decisionCache.get(key));
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, decisionCache.get(otherKey));
+  }
+
+  @Test
+  public void testInvalidateShare() {
+    // Arrange
+    DecisionCache.Stamp stamp = decisionCache.stamp(key, decisionCache.principalGeneration("project__user"));
+    decisionCache.put(key, decisionCache.stampShare(stamp, 120, 119), AuthorizationResult.ALLOWED);
+    put(otherKey);
+
+    // Act
+    decisionCache.invalidateShare(120, 119);
+
+    // Assert
+    Assertions.assertNull(decisionCache.get(key));
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, decisionCache.get(otherKey));
+  }
+
+  @Test
+  public void testPutAfterInvalidation() {
+    // Arrange
+    DecisionCache.Stamp stamp = decisionCache.stamp(key, decisionCache.principalGeneration("project__user"));
+
+    // Act
+    // the decision was taken on entries read before the invalidation
+    decisionCache.invalidateTopic("test");
+    decisionCache.put(key, stamp, AuthorizationResult.ALLOWED);
+
+    // Assert
+    Assertions.assertNull(decisionCache.get(key));
+  }
+
+  @Test
+  public void testInvalidateAll() {
+    // Arrange
+    DecisionCache.Stamp stamp = decisionCache.stamp(key, decisionCache.principalGeneration("project__user"));
+    put(otherKey);
+
+    // Act
+    decisionCache.invalidateAll();
+    decisionCache.put(key, stamp, AuthorizationResult.ALLOWED);
+
+    // Assert
+    Assertions.assertNull(decisionCache.get(key));
+    Assertions.assertNull(decisionCache.get(otherKey));
+  }
+
+  private void put(DecisionKey decisionKey) {
+    DecisionCache.Stamp stamp = decisionCache.stamp(decisionKey,
+        decisionCache.principalGeneration(decisionKey.getPrincipalName()));
+    decisionCache.put(decisionKey, stamp, AuthorizationResult.ALLOWED);
+  }
+}
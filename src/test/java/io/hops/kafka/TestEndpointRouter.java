@@ -0,0 +1,132 @@
+package io.hops.kafka;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TestEndpointRouter {
+
+  private final EndpointRouter.Endpoint fast = new EndpointRouter.Endpoint("fast", null);
+  private final EndpointRouter.Endpoint slow = new EndpointRouter.Endpoint("slow", null);
+
+  @Test
+  public void testSelectLowestLatency() {
+    // Arrange
+    EndpointRouter router = new EndpointRouter(Arrays.asList(fast, slow), 3, 60000);
+    router.recordSuccess(fast, 1000000);
+    router.recordSuccess(slow, 100000000);
+
+    // Act & Assert
+    for (int i = 0; i < 100; i++) {
+      Assertions.assertSame(fast, router.select());
+    }
+  }
+
+  @Test
+  public void testSelectByQueriesInFlight() {
+    // Arrange
+    EndpointRouter router = new EndpointRouter(Arrays.asList(fast, slow), 3, 60000);
+    router.recordSuccess(fast, 1000000);
+    router.recordSuccess(slow, 2000000);
+    fast.startQuery();
+    fast.startQuery();
+
+    // Act
+    EndpointRouter.Endpoint selected = router.select();
+
+    // Assert
+    Assertions.assertSame(slow, selected);
+  }
+
+  @Test
+  public void testLatencyAverage() {
+    // Arrange
+    EndpointRouter router = new EndpointRouter(Arrays.asList(fast, slow), 3, 60000);
+    router.recordSuccess(fast, 1000);
+
+    // Act
+    router.recordSuccess(fast, 2000);
+
+    // Assert
+    Assertions.assertEquals(1200, fast.getLatencyEwmaNanos(), 0.001);
+  }
+
+  @Test
+  public void testEjectAfterFailures() {
+    // Arrange
+    EndpointRouter router = new EndpointRouter(Arrays.asList(fast, slow), 2, 60000);
+    router.recordSuccess(fast, 1000000);
+    router.recordSuccess(slow, 100000000);
+
+    // Act
+    router.recordFailure(fast);
+    boolean ejectedAfterOneFailure = fast.isEjected();
+    router.recordFailure(fast);
+
+    // Assert
+    Assertions.assertFalse(ejectedAfterOneFailure);
+    Assertions.assertTrue(fast.isEjected());
+    for (int i = 0; i < 100; i++) {
+      Assertions.assertSame(slow, router.select());
+    }
+  }
+
+  @Test
+  public void testSuccessResetsFailures() {
+    // Arrange
+    EndpointRouter router = new EndpointRouter(Arrays.asList(fast, slow), 2, 60000);
+    router.recordFailure(fast);
+
+    // Act
+    router.recordSuccess(fast, 1000000);
+    router.recordFailure(fast);
+
+    // Assert
+    Assertions.assertFalse(fast.isEjected());
+  }
+
+  @Test
+  public void testEjectedEndpointComesBack() {
+    // Arrange
+    EndpointRouter router = new EndpointRouter(Arrays.asList(fast, slow), 1, 0);
+    router.recordSuccess(fast, 100000000);
+    router.recordSuccess(slow, 1000000);
+    router.recordFailure(fast);
+
+    // Act
+    router.select();
+
+    // Assert
+    Assertions.assertFalse(fast.isEjected());
+    Assertions.assertEquals(1000000, fast.getLatencyEwmaNanos(), 0.001);
+  }
+
+  @Test
+  public void testAllEjected() {
+    // Arrange
+    EndpointRouter router = new EndpointRouter(Arrays.asList(fast, slow), 1, 60000);
+    router.recordFailure(fast);
+    router.recordFailure(slow);
+
+    // Act
+    EndpointRouter.Endpoint selected = router.select();
+
+    // Assert
+    Assertions.assertSame(fast, selected);
+  }
+
+  @Test
+  public void testSingleEndpointNeverEjected() {
+    // Arrange
+    EndpointRouter router = new EndpointRouter(Collections.singletonList(fast), 1, 60000);
+
+    // Act
+    router.recordFailure(fast);
+
+    // Assert
+    Assertions.assertFalse(fast.isEjected());
+    Assertions.assertSame(fast, router.select());
+  }
+}
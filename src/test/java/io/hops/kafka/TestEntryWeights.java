@@ -0,0 +1,55 @@
+package io.hops.kafka;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.kafka.common.acl.AclOperation;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestEntryWeights {
+
+  @Test
+  public void testWeights() {
+    // Act
+    int topicProject = EntryWeights.TOPIC_PROJECT.weigh("test", 120);
+    int longTopicProject = EntryWeights.TOPIC_PROJECT.weigh("test_with_a_longer_name", 120);
+    int userProject = EntryWeights.USER_PROJECT.weigh("project__user", new Pair<>(120, Consts.DATA_OWNER));
+    int projectShare = EntryWeights.PROJECT_SHARE.weigh(new Pair<>(120, 119), Consts.READ_ONLY);
+    int decision = EntryWeights.DECISION.weigh(new DecisionKey("project__user", "test", AclOperation.READ),
+        Boolean.TRUE);
+    int projectTopics = EntryWeights.PROJECT_TOPICS.weigh(119, ProjectTopics.of(true, true));
+
+    // Assert
+    Assertions.assertEquals(EntryWeights.CACHE_ENTRY_BYTES + EntryWeights.stringBytes("test") +
+        EntryWeights.INTEGER_BYTES, topicProject);
+    Assertions.assertEquals(2 * "_with_a_longer_name".length(), longTopicProject - topicProject);
+    Assertions.assertTrue(userProject > topicProject);
+    Assertions.assertTrue(projectShare > EntryWeights.CACHE_ENTRY_BYTES + EntryWeights.PAIR_BYTES);
+    Assertions.assertTrue(decision > EntryWeights.CACHE_ENTRY_BYTES + EntryWeights.DECISION_KEY_BYTES);
+    Assertions.assertEquals(EntryWeights.CACHE_ENTRY_BYTES + EntryWeights.INTEGER_BYTES, projectTopics);
+  }
+
+  @Test
+  public void testMaximumWeight() {
+    // Arrange
+    long maxBytes = 64 * 1024;
+    Cache<String, Integer> cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxBytes)
+        .weigher(EntryWeights.TOPIC_PROJECT)
+        .build();
+
+    // Act
+    for (int i = 0; i < 10000; i++) {
+      cache.put("topic_" + i, i);
+    }
+
+    // Assert
+    long bytes = 0;
+    for (String topicName : cache.asMap().keySet()) {
+      bytes += EntryWeights.TOPIC_PROJECT.weigh(topicName, 0);
+    }
+    Assertions.assertTrue(bytes <= maxBytes);
+    Assertions.assertTrue(cache.size() < 10000);
+  }
+}
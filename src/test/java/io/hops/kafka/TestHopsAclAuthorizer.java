@@ -2,28 +2,45 @@ package io.hops.kafka;
 
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import org.apache.kafka.common.Endpoint;
 import org.apache.kafka.common.acl.AclOperation;
 import org.apache.kafka.common.requests.RequestContext;
 import org.apache.kafka.common.resource.PatternType;
 import org.apache.kafka.common.resource.ResourcePattern;
 import org.apache.kafka.common.resource.ResourceType;
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.common.security.auth.SecurityProtocol;
 import org.apache.kafka.server.authorizer.Action;
 import org.apache.kafka.server.authorizer.AuthorizationResult;
+import org.apache.kafka.server.authorizer.AuthorizerServerInfo;
 import org.javatuples.Pair;
+import org.javatuples.Quartet;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -75,6 +92,211 @@ public class TestHopsAclAuthorizer {
     Assertions.assertEquals(AuthorizationResult.ALLOWED, authorizationResult);
   }
 
+  @Test
+  public void testAuthorizeSuperUserAlternativeName() throws UnknownHostException {
+    // Arrange
+    hopsAclAuthorizer.setSuperUsers("User:sudo");
+    KafkaPrincipal kafkaPrincipal = new HopsKafkaPrincipal("User", "project__user", Arrays.asList("sudo"));
+
+    Action action = buildAction("describe", "TOPIC", "test");
+    RequestContext requestContext = buildRequestContext(kafkaPrincipal);
+
+    // Act
+    AuthorizationResult authorizationResult = hopsAclAuthorizer.authorize(requestContext, Arrays.asList(action)).get(0);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, authorizationResult);
+  }
+
+  @Test
+  public void testAuthorizeHopsPrincipal() throws UnknownHostException, ExecutionException {
+    // Arrange
+    Mockito.when(topicProjectCache.get(anyString())).thenReturn(119);
+    Mockito.when(userProjectCache.get(anyString())).thenReturn(new Pair<>(119, Consts.DATA_SCIENTIST));
+    KafkaPrincipal kafkaPrincipal = new HopsKafkaPrincipal("User", "project__user", Arrays.asList("alt"));
+
+    Action action = buildAction("describe", "TOPIC", "test");
+    RequestContext requestContext = buildRequestContext(kafkaPrincipal);
+
+    // Act
+    AuthorizationResult authorizationResult = hopsAclAuthorizer.authorize(requestContext, Arrays.asList(action)).get(0);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, authorizationResult);
+    Mockito.verify(userProjectCache, Mockito.times(1)).get("project__user");
+  }
+
+  @Test
+  public void testAuthorizeBatch() throws UnknownHostException, ExecutionException {
+    // Arrange
+    Mockito.when(topicProjectCache.get("test")).thenReturn(119);
+    Mockito.when(topicProjectCache.get("test1")).thenReturn(119);
+    Mockito.when(userProjectCache.get(anyString())).thenReturn(new Pair<>(119, Consts.DATA_SCIENTIST));
+
+    List<Action> actions = Arrays.asList(
+        buildAction("describe", "TOPIC", "test"),
+        buildAction("write", "TOPIC", "test1"),
+        buildAction("describe", "TOPIC", "test"),
+        buildAction("read", "GROUP", "group"),
+        buildAction("write", "TOPIC", "test1"));
+    RequestContext requestContext = buildRequestContext(new KafkaPrincipal("User", "project__user"));
+
+    // Act
+    List<AuthorizationResult> results = hopsAclAuthorizer.authorize(requestContext, actions);
+
+    // Assert
+    Assertions.assertEquals(Arrays.asList(AuthorizationResult.ALLOWED, AuthorizationResult.DENIED,
+        AuthorizationResult.ALLOWED, AuthorizationResult.ALLOWED, AuthorizationResult.DENIED), results);
+    Mockito.verify(topicProjectCache, Mockito.times(1)).get("test");
+    Mockito.verify(topicProjectCache, Mockito.times(1)).get("test1");
+    Mockito.verify(userProjectCache, Mockito.times(1)).get(anyString());
+    Mockito.verify(projectShareCache, Mockito.times(0)).get(any());
+  }
+
+  @Test
+  public void testAuthorizeBatchPrefetch() throws UnknownHostException, ExecutionException {
+    // Arrange
+    Mockito.when(topicProjectCache.getIfPresent("test")).thenReturn(119);
+    Mockito.when(topicProjectCache.getIfPresent("shared")).thenReturn(null).thenReturn(null).thenReturn(120);
+    Mockito.when(topicProjectCache.get("test")).thenReturn(119);
+    Mockito.when(topicProjectCache.get("shared")).thenReturn(120);
+    Mockito.when(userProjectCache.get(anyString())).thenReturn(new Pair<>(119, Consts.DATA_OWNER));
+    Mockito.when(projectShareCache.get(any())).thenReturn(Consts.READ_ONLY);
+
+    List<Action> actions = Arrays.asList(
+        buildAction("describe", "TOPIC", "test"),
+        buildAction("describe", "TOPIC", "shared"));
+    RequestContext requestContext = buildRequestContext(new KafkaPrincipal("User", "project__user"));
+
+    // Act
+    List<AuthorizationResult> results = hopsAclAuthorizer.authorize(requestContext, actions);
+
+    // Assert
+    Assertions.assertEquals(Arrays.asList(AuthorizationResult.ALLOWED, AuthorizationResult.ALLOWED), results);
+    Mockito.verify(topicProjectCache, Mockito.times(1)).getAll(Collections.singleton("shared"));
+    Mockito.verify(projectShareCache, Mockito.times(1)).getAll(Collections.singleton(new Pair<>(120, 119)));
+    Mockito.verify(userProjectCache, Mockito.times(1)).get(anyString());
+  }
+
+  @Test
+  public void testAuthorizeTopicAccess() throws SQLException, ExecutionException {
+    // Arrange
+    Mockito.when(dbConnection.getTopicAccess("test", "project", "user"))
+        .thenReturn(new Quartet<>(120, 119, Consts.DATA_OWNER, Consts.READ_ONLY));
+    Mockito.when(topicProjectCache.get(anyString())).thenReturn(120);
+    Mockito.when(userProjectCache.get(anyString())).thenReturn(new Pair<>(119, Consts.DATA_OWNER));
+    Mockito.when(projectShareCache.get(any())).thenReturn(Consts.READ_ONLY);
+
+    Action action = buildAction("read", "TOPIC", "test");
+
+    // Act
+    AuthorizationResult authorizationResult = hopsAclAuthorizer.authorize("project__user", action);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, authorizationResult);
+    Mockito.verify(dbConnection, Mockito.times(1)).getTopicAccess("test", "project", "user");
+    Mockito.verify(topicProjectCache, Mockito.times(1)).put("test", 120);
+    Mockito.verify(userProjectCache, Mockito.times(1)).put("project__user", new Pair<>(119, Consts.DATA_OWNER));
+    Mockito.verify(projectShareCache, Mockito.times(1)).put(new Pair<>(120, 119), Consts.READ_ONLY);
+  }
+
+  @Test
+  public void testAuthorizeTopicAccessMissingTopic() throws SQLException, ExecutionException {
+    // Arrange
+    Mockito.when(dbConnection.getTopicAccess("test", "project", "user"))
+        .thenReturn(new Quartet<>(null, 119, Consts.DATA_OWNER, null));
+
+    Action action = buildAction("read", "TOPIC", "test");
+
+    // Act
+    AuthorizationResult authorizationResult = hopsAclAuthorizer.authorize("project__user", action);
+    hopsAclAuthorizer.authorize("project__user", action);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.DENIED, authorizationResult);
+    Mockito.verify(dbConnection, Mockito.times(1)).getTopicAccess("test", "project", "user");
+    Mockito.verify(topicProjectCache, Mockito.times(0)).get(anyString());
+    Mockito.verify(userProjectCache, Mockito.times(1)).put("project__user", new Pair<>(119, Consts.DATA_OWNER));
+    Mockito.verify(projectShareCache, Mockito.times(0)).put(any(), any());
+  }
+
+  @Test
+  public void testAuthorizeCachedDecision() throws ExecutionException {
+    // Arrange
+    Mockito.when(topicProjectCache.get(anyString())).thenReturn(120);
+    Mockito.when(userProjectCache.get(anyString())).thenReturn(new Pair<>(119, Consts.DATA_OWNER));
+    Mockito.when(projectShareCache.get(any())).thenReturn(Consts.READ_ONLY);
+
+    // Act
+    AuthorizationResult readResult = hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+    hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+    AuthorizationResult writeResult =
+        hopsAclAuthorizer.authorize("project__user", buildAction("write", "TOPIC", "test"));
+    hopsAclAuthorizer.authorize("project__user", buildAction("write", "TOPIC", "test"));
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, readResult);
+    Assertions.assertEquals(AuthorizationResult.DENIED, writeResult);
+    Mockito.verify(topicProjectCache, Mockito.times(2)).get(anyString());
+    Mockito.verify(userProjectCache, Mockito.times(2)).get(anyString());
+    Mockito.verify(projectShareCache, Mockito.times(2)).get(any());
+  }
+
+  @Test
+  public void testInvalidateTopic() throws ExecutionException {
+    // Arrange
+    Mockito.when(topicProjectCache.get(anyString())).thenReturn(120);
+    Mockito.when(userProjectCache.get(anyString())).thenReturn(new Pair<>(120, Consts.DATA_OWNER));
+    hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+    hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "other"));
+
+    // Act
+    hopsAclAuthorizer.invalidateTopic("test");
+    hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+    hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "other"));
+
+    // Assert
+    Mockito.verify(topicProjectCache, Mockito.times(1)).invalidate("test");
+    // only the decision on the invalidated topic is taken again
+    Mockito.verify(topicProjectCache, Mockito.times(3)).get(anyString());
+  }
+
+  @Test
+  public void testInvalidateProjectMember() throws ExecutionException {
+    // Arrange
+    Mockito.when(topicProjectCache.get(anyString())).thenReturn(120);
+    Mockito.when(userProjectCache.get(anyString())).thenReturn(new Pair<>(120, Consts.DATA_OWNER));
+    hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+    hopsAclAuthorizer.authorize("project__other", buildAction("read", "TOPIC", "test"));
+
+    // Act
+    new CacheControl(hopsAclAuthorizer).invalidateProjectMember("project", "user");
+    hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+    hopsAclAuthorizer.authorize("project__other", buildAction("read", "TOPIC", "test"));
+
+    // Assert
+    Mockito.verify(userProjectCache, Mockito.times(1)).invalidate("project__user");
+    Mockito.verify(userProjectCache, Mockito.times(2)).get("project__user");
+    Mockito.verify(userProjectCache, Mockito.times(1)).get("project__other");
+  }
+
+  @Test
+  public void testInvalidateProjectShare() throws ExecutionException {
+    // Arrange
+    Mockito.when(topicProjectCache.get(anyString())).thenReturn(120);
+    Mockito.when(userProjectCache.get(anyString())).thenReturn(new Pair<>(119, Consts.DATA_OWNER));
+    Mockito.when(projectShareCache.get(any())).thenReturn(Consts.READ_ONLY);
+    hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+
+    // Act
+    hopsAclAuthorizer.invalidateProjectShare(120, 119);
+    hopsAclAuthorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+
+    // Assert
+    Mockito.verify(projectShareCache, Mockito.times(1)).invalidate(new Pair<>(120, 119));
+    Mockito.verify(projectShareCache, Mockito.times(2)).get(any());
+  }
+
   @Test
   public void testAuthorizeMissingTopic() throws UnknownHostException, ExecutionException {
     // Arrange
@@ -109,6 +331,41 @@ public class TestHopsAclAuthorizer {
     Mockito.verify(projectShareCache, Mockito.times(0)).get(any());
   }
 
+  @Test
+  public void testAuthorizeBudgetExceeded() throws UnknownHostException, ExecutionException {
+    // Arrange
+    Mockito.when(topicProjectCache.get(anyString())).thenThrow(new ExecutionException(new TimeoutException()));
+
+    Action action = buildAction("describe", "TOPIC", "test");
+
+    // Act
+    AuthorizationResult authorizationResult = hopsAclAuthorizer.authorize("project__user", action);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.DENIED, authorizationResult);
+    // no retry once the budget is spent
+    Mockito.verify(topicProjectCache, Mockito.times(1)).get(anyString());
+    Mockito.verify(userProjectCache, Mockito.times(0)).get(anyString());
+  }
+
+  @Test
+  public void testAuthorizeThrottled() throws UnknownHostException, ExecutionException {
+    // Arrange
+    Mockito.when(topicProjectCache.get(anyString()))
+        .thenThrow(new ExecutionException(new ThrottledException("Load rate of the principal exceeded")));
+
+    Action action = buildAction("describe", "TOPIC", "test");
+
+    // Act
+    AuthorizationResult authorizationResult = hopsAclAuthorizer.authorize("project__user", action);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.DENIED, authorizationResult);
+    // no retry, the load rate is not back within the request
+    Mockito.verify(topicProjectCache, Mockito.times(1)).get(anyString());
+    Mockito.verify(userProjectCache, Mockito.times(0)).get(anyString());
+  }
+
   @Test
   public void testAuthorizeMissingPrincipal() throws UnknownHostException, ExecutionException {
     // Arrange
@@ -246,6 +503,111 @@ public class TestHopsAclAuthorizer {
     }
   }
 
+  @Test
+  public void testStartWarmsUpCaches() throws Exception {
+    // Arrange
+    Endpoint clientEndpoint = new Endpoint("CLIENT", SecurityProtocol.SSL, "localhost", 9092);
+    Endpoint interBrokerEndpoint = new Endpoint("INTERNAL", SecurityProtocol.SSL, "localhost", 9091);
+    AuthorizerServerInfo serverInfo = Mockito.mock(AuthorizerServerInfo.class);
+    Mockito.when(serverInfo.endpoints()).thenReturn(Arrays.asList(clientEndpoint, interBrokerEndpoint));
+    Mockito.when(serverInfo.interBrokerEndpoint()).thenReturn(interBrokerEndpoint);
+
+    Map<String, Integer> topicProjects = Collections.singletonMap("test", 119);
+    Map<String, Pair<Integer, String>> projectRoles =
+        Collections.singletonMap("project__user", new Pair<>(119, Consts.DATA_OWNER));
+    Map<Pair<Integer, Integer>, String> sharedProjects = Collections.singletonMap(new Pair<>(119, 120), Consts.READ_ONLY);
+    Mockito.when(dbConnection.getTopicProjects()).thenReturn(topicProjects);
+    Mockito.when(dbConnection.getProjectRoles()).thenReturn(projectRoles);
+    Mockito.when(dbConnection.getSharedProjects()).thenReturn(sharedProjects);
+
+    // Act
+    Map<Endpoint, ? extends CompletionStage<Void>> futures = hopsAclAuthorizer.start(serverInfo);
+    futures.get(clientEndpoint).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+    // Assert
+    Assertions.assertTrue(futures.get(interBrokerEndpoint).toCompletableFuture().isDone());
+    Mockito.verify(topicProjectCache, Mockito.times(1)).putAll(topicProjects);
+    Mockito.verify(userProjectCache, Mockito.times(1)).putAll(projectRoles);
+    Mockito.verify(projectShareCache, Mockito.times(1)).putAll(sharedProjects);
+  }
+
+  @Test
+  public void testStartWarmUpException() throws Exception {
+    // Arrange
+    Endpoint clientEndpoint = new Endpoint("CLIENT", SecurityProtocol.SSL, "localhost", 9092);
+    AuthorizerServerInfo serverInfo = Mockito.mock(AuthorizerServerInfo.class);
+    Mockito.when(serverInfo.endpoints()).thenReturn(Collections.singletonList(clientEndpoint));
+    Mockito.when(dbConnection.getTopicProjects()).thenThrow(new SQLException());
+
+    // Act
+    Map<Endpoint, ? extends CompletionStage<Void>> futures = hopsAclAuthorizer.start(serverInfo);
+    futures.get(clientEndpoint).toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+    // Assert
+    Mockito.verify(topicProjectCache, Mockito.times(0)).putAll(any());
+    Mockito.verify(userProjectCache, Mockito.times(0)).putAll(any());
+    Mockito.verify(projectShareCache, Mockito.times(0)).putAll(any());
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "test,         project__user,  WRITE,  ALLOWED",
+      "test,         project__user,  READ,   ALLOWED",
+      "shared,       project__user,  READ,   ALLOWED",
+      "shared,       project__user,  WRITE,  DENIED",
+      "not_shared,   project__user,  READ,   DENIED",
+      "missing,      project__user,  READ,   DENIED",
+      "test,         project__other, READ,   DENIED",
+  })
+  public void testAuthorizeSnapshot(String topicName, String principalName, String operationName,
+                                    String expectedResult) throws SQLException, ExecutionException {
+    // Arrange
+    Map<String, Integer> topicProjects = new HashMap<>();
+    topicProjects.put("test", 119);
+    topicProjects.put("shared", 120);
+    topicProjects.put("not_shared", 121);
+    Mockito.when(dbConnection.getTopicProjects()).thenReturn(topicProjects);
+    Mockito.when(dbConnection.getProjectRoles())
+        .thenReturn(Collections.singletonMap("project__user", new Pair<>(119, Consts.DATA_OWNER)));
+    Mockito.when(dbConnection.getSharedProjects())
+        .thenReturn(Collections.singletonMap(new Pair<>(120, 119), Consts.READ_ONLY));
+    hopsAclAuthorizer.reloadSnapshot();
+
+    Action action = buildAction(operationName, "TOPIC", topicName);
+
+    // Act
+    AuthorizationResult result = hopsAclAuthorizer.authorize(principalName, action);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.valueOf(expectedResult), result);
+    Mockito.verify(topicProjectCache, Mockito.times(0)).get(anyString());
+    Mockito.verify(userProjectCache, Mockito.times(0)).get(anyString());
+    Mockito.verify(projectShareCache, Mockito.times(0)).get(any());
+  }
+
+  @Test
+  public void testReloadSnapshotException() throws SQLException, ExecutionException {
+    // Arrange
+    Mockito.when(dbConnection.getTopicProjects())
+        .thenReturn(Collections.singletonMap("test", 119))
+        .thenThrow(new SQLException());
+    Mockito.when(dbConnection.getProjectRoles())
+        .thenReturn(Collections.singletonMap("project__user", new Pair<>(119, Consts.DATA_OWNER)));
+    Mockito.when(dbConnection.getSharedProjects()).thenReturn(Collections.emptyMap());
+    hopsAclAuthorizer.reloadSnapshot();
+
+    Action action = buildAction("write", "TOPIC", "test");
+
+    // Act
+    hopsAclAuthorizer.reloadSnapshot();
+    AuthorizationResult result = hopsAclAuthorizer.authorize("project__user", action);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, result);
+    Mockito.verify(dbConnection, Mockito.times(2)).getTopicProjects();
+    Mockito.verify(topicProjectCache, Mockito.times(0)).get(anyString());
+  }
+
   @ParameterizedTest
   @CsvSource({
       // super user
@@ -259,6 +621,7 @@ public class TestHopsAclAuthorizer {
       // not super user
       "user, '', false",
       "user, principal_type:user1, false",
+      "user12;user, principal_type:user1, false",
       "user, 'principal_type:CN=user1,O=io.strimzi', false",
       "user3, principal_type:user;principal_type:user1;principal_type:user2, false",
       // not super user with alternative name
@@ -274,9 +637,306 @@ public class TestHopsAclAuthorizer {
 
     // Act
     boolean result = hopsAclAuthorizer.isSuperUser(subjectNames);
+    boolean resultUnsplit = hopsAclAuthorizer.isSuperUser(principalName);
 
     // Assert
     Assertions.assertEquals(expectedResult, result);
+    Assertions.assertEquals(expectedResult, resultUnsplit);
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "Data owner,     owned,  WRITE,    ALLOWED",
+      "Data scientist, owned,  WRITE,    DENIED",
+      "Data scientist, owned,  READ,     ALLOWED",
+      "Data owner,     shared, WRITE,    DENIED",
+      "Data owner,     shared, DESCRIBE, ALLOWED",
+      "Data owner,     none,   READ,     DENIED",
+      "Data owner,     owned,  ALTER,    DENIED",
+  })
+  public void testAuthorizeByResourceType(String userRole, String topics, String operationName,
+                                          String expectedResult) throws Exception {
+    // Arrange
+    ProjectTopics projectTopics = ProjectTopics.of("owned".equals(topics), "shared".equals(topics));
+    Mockito.when(userProjectCache.get("project__user")).thenReturn(new Pair<>(119, userRole));
+    Mockito.when(dbConnection.getProjectTopics(119)).thenReturn(projectTopics);
+    RequestContext requestContext = buildRequestContext(new KafkaPrincipal("User", "project__user"));
+
+    // Act
+    AuthorizationResult result = hopsAclAuthorizer.authorizeByResourceType(requestContext,
+        AclOperation.fromString(operationName), ResourceType.TOPIC);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.valueOf(expectedResult), result);
+  }
+
+  @Test
+  public void testAuthorizeByResourceTypeCachesProjectTopics() throws Exception {
+    // Arrange
+    Mockito.when(userProjectCache.get("project__user")).thenReturn(new Pair<>(119, Consts.DATA_OWNER));
+    Mockito.when(dbConnection.getProjectTopics(119))
+        .thenReturn(ProjectTopics.of(true, false));
+    RequestContext requestContext = buildRequestContext(new KafkaPrincipal("User", "project__user"));
+
+    // Act
+    hopsAclAuthorizer.authorizeByResourceType(requestContext, AclOperation.WRITE, ResourceType.TOPIC);
+    AuthorizationResult result =
+        hopsAclAuthorizer.authorizeByResourceType(requestContext, AclOperation.WRITE, ResourceType.TOPIC);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, result);
+    Mockito.verify(dbConnection, Mockito.times(1)).getProjectTopics(119);
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "project__user,  WRITE, ALLOWED",
+      "project__user,  READ,  ALLOWED",
+      "project__other, READ,  DENIED",
+      "other__user,    WRITE, DENIED",
+      "other__user,    READ,  ALLOWED",
+  })
+  public void testAuthorizeByResourceTypeSnapshot(String principalName, String operationName, String expectedResult)
+      throws Exception {
+    // Arrange
+    Map<String, Pair<Integer, String>> projectRoles = new HashMap<>();
+    projectRoles.put("project__user", new Pair<>(119, Consts.DATA_OWNER));
+    projectRoles.put("other__user", new Pair<>(120, Consts.DATA_OWNER));
+    Mockito.when(dbConnection.getTopicProjects()).thenReturn(Collections.singletonMap("test", 119));
+    Mockito.when(dbConnection.getProjectRoles()).thenReturn(projectRoles);
+    Mockito.when(dbConnection.getSharedProjects())
+        .thenReturn(Collections.singletonMap(new Pair<>(119, 120), Consts.READ_ONLY));
+    hopsAclAuthorizer.reloadSnapshot();
+    RequestContext requestContext = buildRequestContext(new KafkaPrincipal("User", principalName));
+
+    // Act
+    AuthorizationResult result = hopsAclAuthorizer.authorizeByResourceType(requestContext,
+        AclOperation.fromString(operationName), ResourceType.TOPIC);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.valueOf(expectedResult), result);
+    Mockito.verify(dbConnection, Mockito.times(0)).getProjectTopics(Mockito.anyInt());
+  }
+
+  @Test
+  public void testAuthorizeByResourceTypeSuperUserAndAnonymous() throws Exception {
+    // Arrange
+    hopsAclAuthorizer.setSuperUsers("User:sudo");
+    RequestContext superUserContext = buildRequestContext(new KafkaPrincipal("User", "sudo"));
+    RequestContext anonymousContext = buildRequestContext(KafkaPrincipal.ANONYMOUS);
+
+    // Act
+    AuthorizationResult superUserResult =
+        hopsAclAuthorizer.authorizeByResourceType(superUserContext, AclOperation.WRITE, ResourceType.TOPIC);
+    AuthorizationResult anonymousResult =
+        hopsAclAuthorizer.authorizeByResourceType(anonymousContext, AclOperation.WRITE, ResourceType.TOPIC);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, superUserResult);
+    Assertions.assertEquals(AuthorizationResult.DENIED, anonymousResult);
+    Mockito.verify(dbConnection, Mockito.times(0)).getProjectTopics(Mockito.anyInt());
+  }
+
+  @Test
+  public void testAuthorizeByResourceTypeThrottled() throws Exception {
+    // Arrange
+    Map<String, String> configs = buildConfigs();
+    // the principal loads one entry per second, its project role takes it
+    configs.put(Consts.DATABASE_LOAD_RATE_PRINCIPAL, "0.001");
+    HopsAclAuthorizer authorizer = buildConfiguredAuthorizer(configs);
+    Mockito.when(dbConnection.getProjectRole("project", "user")).thenReturn(new Pair<>(119, Consts.DATA_OWNER));
+    Mockito.when(dbConnection.getProjectTopics(119))
+        .thenReturn(ProjectTopics.of(true, false));
+    RequestContext requestContext = buildRequestContext(new KafkaPrincipal("User", "project__user"));
+
+    // Act
+    AuthorizationResult result =
+        authorizer.authorizeByResourceType(requestContext, AclOperation.WRITE, ResourceType.TOPIC);
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.DENIED, result);
+    Mockito.verify(dbConnection, Mockito.times(1)).getProjectRole("project", "user");
+    Mockito.verify(dbConnection, Mockito.times(0)).getProjectTopics(Mockito.anyInt());
+    authorizer.close();
+  }
+
+  @Test
+  public void testAuthorizeStaleDecisionNotCached() throws Exception {
+    // Arrange
+    Map<String, String> configs = buildConfigs();
+    configs.put(Consts.DATABASE_ACL_POLLING_FREQUENCY_MS, "200");
+    configs.put(Consts.CACHE_REFRESH_ENABLED, "false");
+    HopsAclAuthorizer authorizer = buildConfiguredAuthorizer(configs);
+    Mockito.when(dbConnection.getTopicProject("test")).thenReturn(119);
+    Mockito.when(dbConnection.getProjectRole("project", "user"))
+        .thenReturn(new Pair<>(119, Consts.DATA_OWNER))
+        .thenThrow(new SQLException("database unavailable"));
+    authorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+    // the project role expires, the database fails to load it again
+    Thread.sleep(300);
+
+    // the expiry of the project role drops the decisions taken before
+    authorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+
+    // Act
+    AuthorizationResult staleResult = authorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+    AuthorizationResult result = authorizer.authorize("project__user", buildAction("read", "TOPIC", "test"));
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, staleResult);
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, result);
+    // the decision on the expired entry is taken again
+    Mockito.verify(dbConnection, Mockito.times(4)).getProjectRole("project", "user");
+    authorizer.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {Consts.ENGINE_CACHE, Consts.ENGINE_SNAPSHOT})
+  public void testWriteSnapshotFileDatabaseUnavailable(String engine, @TempDir Path tempDir) throws Exception {
+    // Arrange
+    Path snapshotFilePath = tempDir.resolve("acl.snapshot");
+    SnapshotFile.write(snapshotFilePath, new AclSnapshot(Collections.singletonMap("test", 119),
+        Collections.singletonMap("project__user", new Pair<>(119, Consts.DATA_OWNER)), Collections.emptyMap(),
+        System.currentTimeMillis() - 800));
+    Map<String, String> configs = buildConfigs();
+    configs.put(Consts.AUTHORIZER_ENGINE, engine);
+    configs.put(Consts.SNAPSHOT_FILE_PATH, snapshotFilePath.toString());
+    HopsAclAuthorizer authorizer = buildConfiguredAuthorizer(configs);
+    Mockito.when(dbConnection.getTopicProjects()).thenThrow(new SQLException("database unavailable"));
+    Assertions.assertTrue(authorizer.loadSnapshotFile());
+    if (Consts.ENGINE_SNAPSHOT.equals(engine)) {
+      authorizer.reloadSnapshot();
+    } else {
+      authorizer.warmUpCaches();
+    }
+
+    // Act
+    authorizer.writeSnapshotFile();
+
+    // Assert
+    // the state was not confirmed by the database, the file keeps its load time
+    Assertions.assertNotNull(SnapshotFile.read(snapshotFilePath, 60000));
+    Assertions.assertNull(SnapshotFile.read(snapshotFilePath, 500));
+    authorizer.close();
+  }
+
+  @Test
+  public void testUpdateSnapshot() throws Exception {
+    // Arrange
+    Map<String, String> configs = buildConfigs();
+    configs.put(Consts.AUTHORIZER_ENGINE, Consts.ENGINE_SNAPSHOT);
+    HopsAclAuthorizer authorizer = buildConfiguredAuthorizer(configs);
+    Map<String, Integer> topicProjects = new HashMap<>();
+    topicProjects.put("test", 119);
+    topicProjects.put("removed", 119);
+    Mockito.when(dbConnection.getTopicProjects()).thenReturn(topicProjects);
+    Mockito.when(dbConnection.getProjectRoles())
+        .thenReturn(Collections.singletonMap("project__user", new Pair<>(119, Consts.DATA_OWNER)));
+    Mockito.when(dbConnection.getSharedProjects()).thenReturn(Collections.emptyMap());
+    authorizer.reloadSnapshot();
+    Mockito.when(dbConnection.getTopicProjects(Mockito.anyCollection()))
+        .thenReturn(Collections.singletonMap("created", 120));
+    Mockito.when(dbConnection.getProjectRoles(Mockito.anyCollection()))
+        .thenReturn(Collections.singletonMap("project__user", new Pair<>(119, Consts.DATA_OWNER)));
+    Mockito.when(dbConnection.getSharedProjects(Mockito.anyCollection()))
+        .thenReturn(Collections.singletonMap(new Pair<>(120, 119), Consts.READ_ONLY));
+
+    // Act
+    authorizer.invalidateTopic("created");
+    authorizer.invalidateTopic("removed");
+    authorizer.invalidateProjectMember("project__user");
+    authorizer.invalidateProjectShare(120, 119);
+    authorizer.updateSnapshot();
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.ALLOWED,
+        authorizer.authorize("project__user", buildAction("read", "TOPIC", "created")));
+    Assertions.assertEquals(AuthorizationResult.DENIED,
+        authorizer.authorize("project__user", buildAction("write", "TOPIC", "created")));
+    Assertions.assertEquals(AuthorizationResult.DENIED,
+        authorizer.authorize("project__user", buildAction("read", "TOPIC", "removed")));
+    Assertions.assertEquals(AuthorizationResult.ALLOWED,
+        authorizer.authorize("project__user", buildAction("write", "TOPIC", "test")));
+    // only the invalidated rows are read again
+    Mockito.verify(dbConnection, Mockito.times(1)).getTopicProjects();
+    Mockito.verify(dbConnection, Mockito.times(1)).getTopicProjects(Mockito.<Collection<String>>argThat(
+        topicNames -> new HashSet<>(topicNames).equals(new HashSet<>(Arrays.asList("created", "removed")))));
+    authorizer.close();
+  }
+
+  @Test
+  public void testAuthorizeDuringRefresh() throws Exception {
+    // Arrange
+    Map<String, String> configs = buildConfigs();
+    configs.put(Consts.CACHE_REFRESH_RATIO, "0.002");
+    configs.put(Consts.CACHE_REFRESH_JITTER_RATIO, "0");
+    HopsAclAuthorizer authorizer = buildConfiguredAuthorizer(configs);
+    Mockito.when(dbConnection.getTopicProject(anyString())).thenReturn(119);
+    // the user is demoted
+    Mockito.when(dbConnection.getProjectRole("project", "user"))
+        .thenReturn(new Pair<>(119, Consts.DATA_OWNER))
+        .thenReturn(new Pair<>(119, Consts.DATA_SCIENTIST));
+    Action action = buildAction("write", "TOPIC", "test");
+    Assertions.assertEquals(AuthorizationResult.ALLOWED, authorizer.authorize("project__user", action));
+    // the project role is refreshed by the next authorize call that misses the decision cache
+    Thread.sleep(200);
+
+    // Act
+    // authorize calls on a cached decision race against the refresh
+    AtomicBoolean racing = new AtomicBoolean(true);
+    List<Thread> racers = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread racer = new Thread(() -> {
+        while (racing.get()) {
+          authorizer.authorize("project__user", action);
+        }
+      });
+      racer.start();
+      racers.add(racer);
+    }
+    AuthorizationResult result = AuthorizationResult.ALLOWED;
+    long deadline = System.currentTimeMillis() + 5000;
+    for (int i = 0; result == AuthorizationResult.ALLOWED && System.currentTimeMillis() < deadline; i++) {
+      result = authorizer.authorize("project__user", buildAction("write", "TOPIC", "test-" + i));
+    }
+    racing.set(false);
+    for (Thread racer : racers) {
+      racer.join();
+    }
+
+    // Assert
+    Assertions.assertEquals(AuthorizationResult.DENIED, result);
+    // no decision on the previous role was cached while racing
+    Assertions.assertEquals(AuthorizationResult.DENIED, authorizer.authorize("project__user", action));
+    authorizer.close();
+  }
+
+  private Map<String, String> buildConfigs() {
+    Map<String, String> configs = new HashMap<>();
+    configs.put(Consts.DATABASE_URL, "jdbc:mysql://localhost:3306/hopsworks");
+    configs.put(Consts.DATABASE_USERNAME, "kafka");
+    configs.put(Consts.DATABASE_PASSWORD, "kafka");
+    configs.put(Consts.DATABASE_MAX_POOL_SIZE, "2");
+    configs.put(Consts.DATABASE_CACHE_PREPSTMTS, "true");
+    configs.put(Consts.DATABASE_PREPSTMT_CACHE_SIZE, "250");
+    configs.put(Consts.DATABASE_PREPSTMT_CACHE_SQL_LIMIT, "2048");
+    configs.put(Consts.DATABASE_ACL_POLLING_FREQUENCY_MS, "60000");
+    configs.put(Consts.CACHE_MAX_SIZE, "1000");
+    configs.put(Consts.METRICS_ENABLED, "false");
+    configs.put(Consts.AUDIT_ENABLED, "false");
+    return configs;
+  }
+
+  // Configured like a broker, the queries go to the mocked connection
+  private HopsAclAuthorizer buildConfiguredAuthorizer(Map<String, String> configs) {
+    HopsAclAuthorizer authorizer = new HopsAclAuthorizer() {
+      @Override
+      protected DbConnection createDbConnection(Map<String, ?> configs, CircuitBreaker circuitBreaker) {
+        return dbConnection;
+      }
+    };
+    authorizer.configure(configs);
+    return authorizer;
   }
 
   private RequestContext buildRequestContext(KafkaPrincipal principal) throws UnknownHostException {
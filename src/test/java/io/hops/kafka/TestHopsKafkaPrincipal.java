@@ -0,0 +1,62 @@
+package io.hops.kafka;
+
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TestHopsKafkaPrincipal {
+
+  @Test
+  public void testProjectUser() {
+    // Act
+    HopsKafkaPrincipal principal = new HopsKafkaPrincipal("User", "project__user", Arrays.asList("alt1", "alt2"));
+
+    // Assert
+    Assertions.assertEquals("project__user;alt1;alt2", principal.getName());
+    Assertions.assertEquals("project__user", principal.getPrincipalName());
+    Assertions.assertEquals(Arrays.asList("alt1", "alt2"), principal.getAlternativeNames());
+    Assertions.assertEquals(Arrays.asList("project__user", "alt1", "alt2"), principal.getSubjectNames());
+  }
+
+  @Test
+  public void testNotProjectUser() {
+    // Act
+    HopsKafkaPrincipal principal = new HopsKafkaPrincipal("User", "broker.example.com", Collections.emptyList());
+
+    // Assert
+    Assertions.assertEquals("broker.example.com", principal.getName());
+    Assertions.assertEquals("broker.example.com", principal.getPrincipalName());
+    Assertions.assertEquals(Collections.emptyList(), principal.getAlternativeNames());
+  }
+
+  @Test
+  public void testParse() {
+    // Arrange
+    KafkaPrincipal kafkaPrincipal = new KafkaPrincipal("User", "project__user;alt1", true);
+
+    // Act
+    HopsKafkaPrincipal principal = HopsKafkaPrincipal.parse(kafkaPrincipal);
+
+    // Assert
+    Assertions.assertEquals(new HopsKafkaPrincipal("User", "project__user", Collections.singletonList("alt1")),
+        principal);
+    Assertions.assertEquals(kafkaPrincipal.getName(), principal.getName());
+    Assertions.assertEquals(kafkaPrincipal.hashCode(), principal.hashCode());
+    Assertions.assertTrue(principal.tokenAuthenticated());
+  }
+
+  @Test
+  public void testParseKeepsEmptyNames() {
+    // Arrange
+    KafkaPrincipal kafkaPrincipal = new KafkaPrincipal("User", "project__user;");
+
+    // Act
+    HopsKafkaPrincipal principal = HopsKafkaPrincipal.parse(kafkaPrincipal);
+
+    // Assert
+    Assertions.assertEquals(kafkaPrincipal.getName(), principal.getName());
+  }
+}
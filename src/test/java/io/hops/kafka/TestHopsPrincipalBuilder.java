@@ -18,9 +18,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import javax.net.ssl.SSLPeerUnverifiedException;
 import javax.security.auth.x500.X500Principal;
 import java.security.Principal;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class TestHopsPrincipalBuilder {
@@ -84,4 +89,120 @@ public class TestHopsPrincipalBuilder {
     Assertions.assertTrue(p instanceof KafkaPrincipal);
     Assertions.assertEquals("my_common_name;another_common_name;random_common_name", p.getName());
   }
+
+  @Test
+  public void testBuildHopsPrincipal() throws Exception {
+    // Arrange
+    Principal originPrincipal = new X500Principal("OU=0,C=SE,O=organization,CN=project__user");
+    Mockito.doReturn(originPrincipal).when(pb).getPrincipal(Mockito.any());
+    Mockito.doReturn(Arrays.asList("project__user", "alt")).when(pb).getAlternativeNames(Mockito.any());
+
+    // Act
+    KafkaPrincipal p = pb.build(null);
+
+    // Assert
+    Assertions.assertTrue(p instanceof HopsKafkaPrincipal);
+    HopsKafkaPrincipal hopsPrincipal = (HopsKafkaPrincipal) p;
+    Assertions.assertEquals("project__user;alt", hopsPrincipal.getName());
+    Assertions.assertEquals("project__user", hopsPrincipal.getPrincipalName());
+    Assertions.assertEquals(Arrays.asList("alt"), hopsPrincipal.getAlternativeNames());
+  }
+
+  @Test
+  public void testSerde() {
+    // Arrange
+    HopsKafkaPrincipal principal = new HopsKafkaPrincipal("User", "project__user", Arrays.asList("alt"));
+
+    // Act
+    KafkaPrincipal deserialized = realPB.deserialize(realPB.serialize(principal));
+
+    // Assert
+    Assertions.assertTrue(deserialized instanceof HopsKafkaPrincipal);
+    Assertions.assertEquals(principal, deserialized);
+    Assertions.assertEquals("project__user", ((HopsKafkaPrincipal) deserialized).getPrincipalName());
+  }
+
+  @Test
+  public void testSerdeAnonymous() {
+    // Act
+    KafkaPrincipal deserialized = realPB.deserialize(realPB.serialize(KafkaPrincipal.ANONYMOUS));
+
+    // Assert
+    Assertions.assertSame(KafkaPrincipal.ANONYMOUS, deserialized);
+  }
+
+  @Test
+  public void testCachedPrincipal() throws Exception {
+    // Arrange
+    pb.configure(Collections.emptyMap());
+    Mockito.doReturn(new X500Principal("CN=project__user")).when(pb).getPrincipal(Mockito.any());
+    Mockito.doReturn(Arrays.asList("alt")).when(pb).getAlternativeNames(Mockito.any());
+    Certificate[] certificates = certificates(1);
+    Mockito.doReturn(certificates).when(pb).getPeerCertificates(Mockito.any());
+
+    // Act
+    KafkaPrincipal first = pb.build(null);
+    KafkaPrincipal second = pb.build(null);
+
+    // Assert
+    Assertions.assertSame(first, second);
+    Mockito.verify(pb, Mockito.times(1)).getAlternativeNames(Mockito.any());
+  }
+
+  @Test
+  public void testCachedPrincipalOtherCertificate() throws Exception {
+    // Arrange
+    pb.configure(Collections.emptyMap());
+    Mockito.doReturn(new X500Principal("CN=project__user")).when(pb).getPrincipal(Mockito.any());
+    Mockito.doReturn(Collections.emptyList()).when(pb).getAlternativeNames(Mockito.any());
+    Certificate[] certificates = certificates(1);
+    Certificate[] otherCertificates = certificates(2);
+    Mockito.doReturn(certificates).doReturn(otherCertificates).when(pb).getPeerCertificates(Mockito.any());
+
+    // Act
+    pb.build(null);
+    pb.build(null);
+
+    // Assert
+    Mockito.verify(pb, Mockito.times(2)).getAlternativeNames(Mockito.any());
+  }
+
+  @Test
+  public void testNoPeerCertificate() throws Exception {
+    // Arrange
+    pb.configure(Collections.emptyMap());
+    Mockito.doReturn(new KafkaPrincipal("User", Consts.ANONYMOUS)).when(pb).getPrincipal(Mockito.any());
+    Mockito.doThrow(new SSLPeerUnverifiedException("no client authentication")).when(pb)
+        .getPeerCertificates(Mockito.any());
+
+    // Act
+    KafkaPrincipal p = pb.build(null);
+    pb.build(null);
+
+    // Assert
+    Assertions.assertEquals(KafkaPrincipal.ANONYMOUS, p);
+    Mockito.verify(pb, Mockito.times(2)).getPrincipal(Mockito.any());
+  }
+
+  @Test
+  public void testPrincipalCacheDisabled() throws Exception {
+    // Arrange
+    pb.configure(Collections.singletonMap(Consts.PRINCIPAL_CACHE_MAX_SIZE, "0"));
+    Mockito.doReturn(new X500Principal("CN=project__user")).when(pb).getPrincipal(Mockito.any());
+    Mockito.doReturn(Collections.emptyList()).when(pb).getAlternativeNames(Mockito.any());
+
+    // Act
+    pb.build(null);
+    pb.build(null);
+
+    // Assert
+    Mockito.verify(pb, Mockito.times(2)).getAlternativeNames(Mockito.any());
+    Mockito.verify(pb, Mockito.never()).getPeerCertificates(Mockito.any());
+  }
+
+  private static Certificate[] certificates(int seed) throws CertificateEncodingException {
+    X509Certificate certificate = Mockito.mock(X509Certificate.class);
+    Mockito.when(certificate.getEncoded()).thenReturn(new byte[] {0x30, (byte) seed});
+    return new Certificate[] {certificate};
+  }
 }
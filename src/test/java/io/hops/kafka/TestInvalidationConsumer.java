@@ -0,0 +1,84 @@
+package io.hops.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+public class TestInvalidationConsumer {
+
+  private static final String TOPIC = "hops-acl-changes";
+
+  private MockConsumer<String, String> consumer;
+  private CacheControlMBean cacheControl;
+  private InvalidationConsumer invalidationConsumer;
+
+  @BeforeEach
+  public void setup() {
+    consumer = new MockConsumer<>(OffsetResetStrategy.LATEST);
+    cacheControl = Mockito.mock(CacheControlMBean.class);
+    invalidationConsumer = new InvalidationConsumer(consumer, TOPIC, cacheControl);
+  }
+
+  @Test
+  public void testApply() {
+    // Act
+    invalidationConsumer.apply("topic test");
+    invalidationConsumer.apply("member project  user");
+    invalidationConsumer.apply("share 120 119");
+    invalidationConsumer.apply("all");
+
+    // Assert
+    Mockito.verify(cacheControl, Mockito.times(1)).invalidateTopic("test");
+    Mockito.verify(cacheControl, Mockito.times(1)).invalidateProjectMember("project", "user");
+    Mockito.verify(cacheControl, Mockito.times(1)).invalidateProjectShare(120, 119);
+    Mockito.verify(cacheControl, Mockito.times(1)).invalidateAll();
+  }
+
+  @Test
+  public void testApplyInvalid() {
+    // Act
+    invalidationConsumer.apply(null);
+    invalidationConsumer.apply("");
+    invalidationConsumer.apply("topic");
+    invalidationConsumer.apply("share project 119");
+    invalidationConsumer.apply("unknown test");
+
+    // Assert
+    Mockito.verifyNoInteractions(cacheControl);
+  }
+
+  @Test
+  public void testRun() {
+    // Arrange
+    TopicPartition partition = new TopicPartition(TOPIC, 0);
+    consumer.updatePartitions(TOPIC, Collections.singletonList(new PartitionInfo(TOPIC, 0, null, null, null)));
+    consumer.updateEndOffsets(Collections.singletonMap(partition, 10L));
+    consumer.schedulePollTask(() -> consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 10L, null, "topic test")));
+    consumer.schedulePollTask(consumer::wakeup);
+
+    // Act
+    invalidationConsumer.run();
+
+    // Assert
+    Mockito.verify(cacheControl, Mockito.times(1)).invalidateTopic("test");
+    Assertions.assertTrue(consumer.closed());
+  }
+
+  @Test
+  public void testRunMissingTopic() {
+    // Act
+    invalidationConsumer.run();
+
+    // Assert
+    Mockito.verifyNoInteractions(cacheControl);
+    Assertions.assertTrue(consumer.closed());
+  }
+}
@@ -0,0 +1,172 @@
+package io.hops.kafka;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestLoadExecutor {
+
+  private LoadExecutor loadExecutor;
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  public void tearDown() {
+    release.countDown();
+    loadExecutor.close();
+  }
+
+  @Test
+  public void testInlineWithoutBudget() throws Exception {
+    // Arrange
+    loadExecutor = newLoadExecutor(1, 1, 100);
+    Thread requestThread = Thread.currentThread();
+
+    // Act
+    Thread loadThread = loadExecutor.call(Thread::currentThread);
+
+    // Assert
+    Assertions.assertSame(requestThread, loadThread);
+  }
+
+  @Test
+  public void testLoadWithinBudget() throws Exception {
+    // Arrange
+    loadExecutor = newLoadExecutor(1, 1, 10000);
+    Thread requestThread = Thread.currentThread();
+    loadExecutor.startBudget();
+
+    // Act
+    Thread loadThread = loadExecutor.call(Thread::currentThread);
+
+    // Assert
+    Assertions.assertNotSame(requestThread, loadThread);
+  }
+
+  @Test
+  public void testBudgetSpent() {
+    // Arrange
+    loadExecutor = newLoadExecutor(1, 1, 50);
+    loadExecutor.startBudget();
+
+    // Act
+    long startTime = System.currentTimeMillis();
+    Assertions.assertThrows(TimeoutException.class, () -> loadExecutor.call(this::blockedLoad));
+
+    // Assert
+    Assertions.assertTrue(System.currentTimeMillis() - startTime < 5000);
+    Assertions.assertThrows(TimeoutException.class, () -> loadExecutor.call(() -> 1));
+  }
+
+  @Test
+  public void testQueueFull() throws InterruptedException {
+    // Arrange
+    loadExecutor = newLoadExecutor(1, 1, 10000);
+    Thread runningLoad = new Thread(this::blockedCall);
+    runningLoad.start();
+    started.await();
+    Thread queuedLoad = new Thread(this::blockedCall);
+    queuedLoad.start();
+    while (queuedLoad.getState() != Thread.State.TIMED_WAITING) {
+      Thread.sleep(1);
+    }
+    loadExecutor.startBudget();
+
+    // Act
+    TimeoutException e = Assertions.assertThrows(TimeoutException.class, () -> loadExecutor.call(this::blockedLoad));
+
+    // Assert
+    Assertions.assertEquals("Load queue is full", e.getMessage());
+  }
+
+  @Test
+  public void testLoadException() {
+    // Arrange
+    loadExecutor = newLoadExecutor(1, 1, 10000);
+    loadExecutor.startBudget();
+
+    // Act & Assert
+    Assertions.assertThrows(SQLException.class, () -> loadExecutor.call(() -> {
+      throw new SQLException("database unavailable");
+    }));
+  }
+
+  @Test
+  public void testEndBudget() throws Exception {
+    // Arrange
+    loadExecutor = newLoadExecutor(1, 1, 10000);
+    Thread requestThread = Thread.currentThread();
+    loadExecutor.startBudget();
+
+    // Act
+    loadExecutor.endBudget();
+
+    // Assert
+    Assertions.assertSame(requestThread, loadExecutor.call(Thread::currentThread));
+  }
+
+  @Test
+  public void testHedgedLoad() throws Exception {
+    // Arrange
+    loadExecutor = newLoadExecutor(2, 1, 10000, 20);
+    AtomicInteger loads = new AtomicInteger();
+    loadExecutor.startBudget();
+
+    // Act
+    Integer result = loadExecutor.call(() -> loads.incrementAndGet() == 1 ? blockedLoad() : 2);
+
+    // Assert
+    Assertions.assertEquals(2, result);
+    Assertions.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testHedgedLoadFailures() {
+    // Arrange
+    loadExecutor = newLoadExecutor(2, 1, 10000, 20);
+    AtomicInteger loads = new AtomicInteger();
+    loadExecutor.startBudget();
+
+    // Act & Assert
+    Assertions.assertThrows(SQLException.class, () -> loadExecutor.call(() -> failedLoad(loads.incrementAndGet())));
+    Assertions.assertEquals(2, loads.get());
+  }
+
+  private Integer failedLoad(int load) throws Exception {
+    if (load == 1) {
+      // slower than the hedge delay
+      Thread.sleep(100);
+    }
+    throw new SQLException("database unavailable");
+  }
+
+  private void blockedCall() {
+    loadExecutor.startBudget();
+    try {
+      loadExecutor.call(this::blockedLoad);
+    } catch (Exception e) {
+      // expected once the budget is spent
+    }
+  }
+
+  private Integer blockedLoad() throws InterruptedException {
+    started.countDown();
+    release.await();
+    return 1;
+  }
+
+  private static LoadExecutor newLoadExecutor(int threads, int queueSize, long budgetMs) {
+    return newLoadExecutor(threads, queueSize, budgetMs, 0);
+  }
+
+  private static LoadExecutor newLoadExecutor(int threads, int queueSize, long budgetMs, long hedgeDelayMs) {
+    return new LoadExecutor(threads, queueSize, budgetMs, hedgeDelayMs,
+        new ThreadFactoryBuilder().setDaemon(true).build());
+  }
+}
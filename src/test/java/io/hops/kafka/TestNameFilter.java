@@ -0,0 +1,110 @@
+package io.hops.kafka;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TestNameFilter {
+
+  private final NameFilter nameFilter = new NameFilter(0.01);
+
+  @Test
+  public void testNotBuilt() {
+    // Act
+    nameFilter.put("test");
+
+    // Assert
+    Assertions.assertFalse(nameFilter.isBuilt());
+    Assertions.assertTrue(nameFilter.mightContain("unknown"));
+  }
+
+  @Test
+  public void testRebuild() {
+    // Arrange
+    nameFilter.startRebuild();
+
+    // Act
+    nameFilter.finishRebuild(Arrays.asList("test", "project__user"));
+
+    // Assert
+    Assertions.assertTrue(nameFilter.isBuilt());
+    Assertions.assertTrue(nameFilter.mightContain("test"));
+    Assertions.assertTrue(nameFilter.mightContain("project__user"));
+    Assertions.assertFalse(nameFilter.mightContain("unknown"));
+  }
+
+  @Test
+  public void testPut() {
+    // Arrange
+    nameFilter.startRebuild();
+    nameFilter.finishRebuild(Collections.singletonList("test"));
+
+    // Act
+    nameFilter.put("created");
+
+    // Assert
+    Assertions.assertTrue(nameFilter.mightContain("created"));
+  }
+
+  @Test
+  public void testPutDuringRebuild() {
+    // Arrange
+    nameFilter.startRebuild();
+    nameFilter.put("created");
+
+    // Act
+    nameFilter.finishRebuild(Collections.singletonList("test"));
+
+    // Assert
+    Assertions.assertTrue(nameFilter.mightContain("created"));
+  }
+
+  @Test
+  public void testRebuildDropsRemovedNames() {
+    // Arrange
+    nameFilter.startRebuild();
+    nameFilter.finishRebuild(Arrays.asList("test", "removed"));
+
+    // Act
+    nameFilter.startRebuild();
+    nameFilter.finishRebuild(Collections.singletonList("test"));
+
+    // Assert
+    Assertions.assertFalse(nameFilter.mightContain("removed"));
+  }
+
+  @Test
+  public void testResetDiscardsRebuild() {
+    // Arrange
+    nameFilter.startRebuild();
+    nameFilter.finishRebuild(Collections.singletonList("test"));
+    nameFilter.startRebuild();
+
+    // Act
+    nameFilter.reset();
+    nameFilter.finishRebuild(Collections.singletonList("test"));
+
+    // Assert
+    Assertions.assertFalse(nameFilter.isBuilt());
+    Assertions.assertTrue(nameFilter.mightContain("unknown"));
+  }
+
+  @Test
+  public void testAbortRebuild() {
+    // Arrange
+    nameFilter.startRebuild();
+    nameFilter.finishRebuild(Arrays.asList("test", "removed"));
+    nameFilter.startRebuild();
+    nameFilter.put("created");
+
+    // Act
+    nameFilter.abortRebuild();
+    nameFilter.finishRebuild(Collections.singletonList("test"));
+
+    // Assert
+    Assertions.assertTrue(nameFilter.mightContain("created"));
+    Assertions.assertTrue(nameFilter.mightContain("removed"));
+  }
+}
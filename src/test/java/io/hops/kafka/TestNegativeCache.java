@@ -0,0 +1,60 @@
+package io.hops.kafka;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestNegativeCache {
+
+  @Test
+  public void testAdd() {
+    // Arrange
+    NegativeCache<String> negativeCache = new NegativeCache<>(10, 60000);
+
+    // Act
+    negativeCache.add("test");
+
+    // Assert
+    Assertions.assertTrue(negativeCache.contains("test"));
+    Assertions.assertFalse(negativeCache.contains("test1"));
+  }
+
+  @Test
+  public void testInvalidate() {
+    // Arrange
+    NegativeCache<String> negativeCache = new NegativeCache<>(10, 60000);
+    negativeCache.add("test");
+
+    // Act
+    negativeCache.invalidate("test");
+
+    // Assert
+    Assertions.assertFalse(negativeCache.contains("test"));
+  }
+
+  @Test
+  public void testExpire() throws InterruptedException {
+    // Arrange
+    NegativeCache<String> negativeCache = new NegativeCache<>(10, 1);
+    negativeCache.add("test");
+
+    // Act
+    Thread.sleep(10);
+
+    // Assert
+    Assertions.assertFalse(negativeCache.contains("test"));
+  }
+
+  @Test
+  public void testMaxSize() {
+    // Arrange
+    NegativeCache<Integer> negativeCache = new NegativeCache<>(10, 60000);
+
+    // Act
+    for (int i = 0; i < 100; i++) {
+      negativeCache.add(i);
+    }
+
+    // Assert
+    Assertions.assertTrue(negativeCache.size() <= 10);
+  }
+}
@@ -0,0 +1,114 @@
+package io.hops.kafka;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestProjectShareMap {
+
+  @Test
+  public void testOf() {
+    // Arrange
+    Map<Pair<Integer, Integer>, String> sharedProjects = new HashMap<>();
+    sharedProjects.put(new Pair<>(120, 119), Consts.READ_ONLY);
+    sharedProjects.put(new Pair<>(119, 120), Consts.EDITABLE);
+    sharedProjects.put(new Pair<>(121, 119), "example_permission");
+
+    // Act
+    ProjectShareMap projectShareMap = ProjectShareMap.of(sharedProjects);
+
+    // Assert
+    Assertions.assertEquals(3, projectShareMap.size());
+    Assertions.assertEquals(ProjectShareMap.READ_ONLY, projectShareMap.get(120, 119));
+    Assertions.assertEquals(ProjectShareMap.EDITABLE, projectShareMap.get(119, 120));
+    Assertions.assertEquals(ProjectShareMap.UNKNOWN, projectShareMap.get(121, 119));
+    Assertions.assertEquals(ProjectShareMap.NOT_SHARED, projectShareMap.get(119, 121));
+  }
+
+  @Test
+  public void testPutResize() {
+    // Arrange
+    ProjectShareMap projectShareMap = new ProjectShareMap(0);
+
+    // Act
+    for (int i = 0; i < 10000; i++) {
+      projectShareMap.put(i, i + 1, ProjectShareMap.READ_ONLY);
+    }
+    projectShareMap.put(0, 1, ProjectShareMap.EDITABLE);
+
+    // Assert
+    Assertions.assertEquals(10000, projectShareMap.size());
+    for (int i = 0; i < 10000; i++) {
+      Assertions.assertEquals(ProjectShareMap.READ_ONLY, projectShareMap.get(i, i + 1));
+      Assertions.assertEquals(ProjectShareMap.NOT_SHARED, projectShareMap.get(i + 1, i));
+    }
+  }
+
+  @Test
+  public void testRemove() {
+    // Arrange
+    ProjectShareMap projectShareMap = new ProjectShareMap(0);
+    for (int i = 0; i < 10000; i++) {
+      projectShareMap.put(i, i + 1, ProjectShareMap.READ_ONLY);
+    }
+
+    // Act
+    for (int i = 0; i < 10000; i += 2) {
+      projectShareMap.remove(i, i + 1);
+    }
+    projectShareMap.remove(1, 0);
+
+    // Assert
+    Assertions.assertEquals(5000, projectShareMap.size());
+    for (int i = 0; i < 10000; i++) {
+      byte expected = i % 2 == 0 ? ProjectShareMap.NOT_SHARED : ProjectShareMap.READ_ONLY;
+      Assertions.assertEquals(expected, projectShareMap.get(i, i + 1));
+    }
+  }
+
+  @Test
+  public void testCopy() {
+    // Arrange
+    ProjectShareMap projectShareMap = new ProjectShareMap(0);
+    projectShareMap.put(120, 119, ProjectShareMap.READ_ONLY);
+
+    // Act
+    ProjectShareMap copy = projectShareMap.copy();
+    copy.remove(120, 119);
+    copy.put(119, 120, ProjectShareMap.EDITABLE);
+
+    // Assert
+    Assertions.assertEquals(ProjectShareMap.READ_ONLY, projectShareMap.get(120, 119));
+    Assertions.assertEquals(ProjectShareMap.NOT_SHARED, projectShareMap.get(119, 120));
+    Assertions.assertEquals(ProjectShareMap.NOT_SHARED, copy.get(120, 119));
+    Assertions.assertEquals(ProjectShareMap.EDITABLE, copy.get(119, 120));
+  }
+
+  @Test
+  public void testPack() {
+    // Assert
+    Assertions.assertNotEquals(ProjectShareMap.pack(1, 2), ProjectShareMap.pack(2, 1));
+    Assertions.assertEquals(ProjectShareMap.pack(-1, 2), ProjectShareMap.pack(-1, 2));
+    Assertions.assertNotEquals(ProjectShareMap.pack(0, -1), ProjectShareMap.pack(-1, 0));
+  }
+
+  @Test
+  public void testForEach() {
+    // Arrange
+    Map<Pair<Integer, Integer>, String> sharedProjects = new HashMap<>();
+    sharedProjects.put(new Pair<>(120, 119), Consts.READ_ONLY);
+    sharedProjects.put(new Pair<>(-1, 120), Consts.EDITABLE_BY_OWNERS);
+    ProjectShareMap projectShareMap = ProjectShareMap.of(sharedProjects);
+
+    // Act
+    Map<Pair<Integer, Integer>, String> decoded = new HashMap<>();
+    projectShareMap.forEach((topicProjectId, userProjectId, permission) ->
+        decoded.put(new Pair<>(topicProjectId, userProjectId), ProjectShareMap.decode(permission)));
+
+    // Assert
+    Assertions.assertEquals(sharedProjects, decoded);
+  }
+}
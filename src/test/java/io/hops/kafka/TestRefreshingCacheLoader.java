@@ -0,0 +1,92 @@
+package io.hops.kafka;
+
+import com.google.common.cache.CacheLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class TestRefreshingCacheLoader {
+
+  private CacheLoader<String, String> delegate;
+  private ScheduledExecutorService executor;
+  private RefreshingCacheLoader<String, String> refreshingCacheLoader;
+  private List<String> changedKeys;
+
+  @BeforeEach
+  public void setup() {
+    delegate = Mockito.mock(CacheLoader.class);
+    executor = Executors.newSingleThreadScheduledExecutor();
+    changedKeys = new ArrayList<>();
+    refreshingCacheLoader = new RefreshingCacheLoader<>(delegate, executor, 10,
+        (key, value) -> changedKeys.add(key));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testLoad() throws Exception {
+    // Arrange
+    Mockito.when(delegate.load("key")).thenReturn("value");
+
+    // Act
+    String value = refreshingCacheLoader.load("key");
+
+    // Assert
+    Assertions.assertEquals("value", value);
+    Mockito.verify(delegate, Mockito.times(1)).load("key");
+  }
+
+  @Test
+  public void testReload() throws Exception {
+    // Arrange
+    Mockito.when(delegate.load("key")).thenReturn("new_value");
+
+    // Act
+    Future<String> future = refreshingCacheLoader.reload("key", "old_value");
+
+    // Assert
+    Assertions.assertEquals("new_value", future.get(10, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, changedKeys.size());
+    Mockito.verify(delegate, Mockito.times(1)).load("key");
+  }
+
+  @Test
+  public void testReloadUnchanged() throws Exception {
+    // Arrange
+    Mockito.when(delegate.load("key")).thenReturn("old_value");
+
+    // Act
+    Future<String> future = refreshingCacheLoader.reload("key", "old_value");
+
+    // Assert
+    Assertions.assertEquals("old_value", future.get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(changedKeys.isEmpty());
+  }
+
+  @Test
+  public void testReloadException() throws Exception {
+    // Arrange
+    Mockito.when(delegate.load("key")).thenThrow(new SQLException());
+
+    // Act
+    Future<String> future = refreshingCacheLoader.reload("key", "old_value");
+
+    // Assert
+    ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+    Assertions.assertTrue(e.getCause() instanceof SQLException);
+  }
+}
@@ -0,0 +1,108 @@
+package io.hops.kafka;
+
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestSnapshotFile {
+
+  @TempDir
+  Path tempDir;
+
+  private Path path;
+  private AclSnapshot snapshot;
+
+  @BeforeEach
+  public void setup() {
+    path = tempDir.resolve("acl.snapshot");
+    Map<String, Integer> topicProjects = new HashMap<>();
+    topicProjects.put("test", 120);
+    topicProjects.put("t\u00ebst_\u00fcnicode", 121);
+    Map<Pair<Integer, Integer>, String> sharedProjects = new HashMap<>();
+    sharedProjects.put(new Pair<>(120, 119), Consts.READ_ONLY);
+    sharedProjects.put(new Pair<>(121, 119), Consts.EDITABLE);
+    snapshot = new AclSnapshot(topicProjects,
+        Collections.singletonMap("project__user", new Pair<>(119, Consts.DATA_OWNER)), sharedProjects);
+  }
+
+  @Test
+  public void testWriteRead() throws IOException {
+    // Arrange
+    SnapshotFile.write(path, snapshot);
+
+    // Act
+    AclSnapshot readSnapshot = SnapshotFile.read(path, 60000);
+
+    // Assert
+    Assertions.assertEquals(snapshot.getTopicProjects(), readSnapshot.getTopicProjects());
+    Assertions.assertEquals(snapshot.getProjectRoles(), readSnapshot.getProjectRoles());
+    Assertions.assertEquals(2, readSnapshot.getSharedProjects().size());
+    Assertions.assertEquals(ProjectShareMap.READ_ONLY, readSnapshot.getSharedProject(120, 119));
+    Assertions.assertEquals(ProjectShareMap.EDITABLE, readSnapshot.getSharedProject(121, 119));
+    Assertions.assertTrue(readSnapshot.getProjectTopics(119).hasSharedInTopics());
+  }
+
+  @Test
+  public void testReplace() throws IOException {
+    // Arrange
+    SnapshotFile.write(path, snapshot);
+    AclSnapshot emptySnapshot = new AclSnapshot(Collections.emptyMap(), Collections.emptyMap(),
+        Collections.emptyMap());
+
+    // Act
+    SnapshotFile.write(path, emptySnapshot);
+
+    // Assert
+    Assertions.assertTrue(SnapshotFile.read(path, 60000).getTopicProjects().isEmpty());
+  }
+
+  @Test
+  public void testMissing() throws IOException {
+    // Act & Assert
+    Assertions.assertNull(SnapshotFile.read(path, 60000));
+  }
+
+  @Test
+  public void testTooOld() throws IOException, InterruptedException {
+    // Arrange
+    SnapshotFile.write(path, snapshot);
+    Thread.sleep(10);
+
+    // Act & Assert
+    Assertions.assertNull(SnapshotFile.read(path, 1));
+  }
+
+  @Test
+  public void testCorrupt() throws IOException {
+    // Arrange
+    SnapshotFile.write(path, snapshot);
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.seek(file.length() - 1);
+      file.write(file.read() ^ 0xFF);
+    }
+
+    // Act & Assert
+    Assertions.assertThrows(IOException.class, () -> SnapshotFile.read(path, 60000));
+  }
+
+  @Test
+  public void testTruncated() throws IOException {
+    // Arrange
+    SnapshotFile.write(path, snapshot);
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.setLength(file.length() - 4);
+    }
+
+    // Act & Assert
+    Assertions.assertThrows(IOException.class, () -> SnapshotFile.read(path, 60000));
+  }
+}
@@ -0,0 +1,120 @@
+package io.hops.kafka;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestStaleCache {
+
+  private final AtomicLong nanos = new AtomicLong();
+  // value returned by the loader, the loader fails if it is an exception
+  private final AtomicReference<Object> row = new AtomicReference<>();
+  private StaleCache<String, String> staleCache;
+  private LoadingCache<String, String> loadingCache;
+
+  @BeforeEach
+  public void setup() {
+    staleCache = new StaleCache<>(10, 60000);
+    loadingCache = CacheBuilder.newBuilder()
+        .expireAfterWrite(1, TimeUnit.SECONDS)
+        .ticker(new Ticker() {
+          @Override
+          public long read() {
+            return nanos.get();
+          }
+        })
+        .removalListener(staleCache)
+        .build(new CacheLoader<String, String>() {
+          @Override
+          public String load(String key) throws Exception {
+            Object value = row.get();
+            if (value instanceof Exception) {
+              throw (Exception) value;
+            }
+            return (String) value;
+          }
+        });
+  }
+
+  @Test
+  public void testServeStaleOnFailure() throws ExecutionException {
+    // Arrange
+    row.set("Data owner");
+    loadingCache.get("project__user");
+    row.set(new SQLException("database unavailable"));
+
+    // Act
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    String value = staleCache.get(loadingCache, "project__user");
+
+    // Assert
+    Assertions.assertEquals("Data owner", value);
+    Assertions.assertEquals(1, staleCache.size());
+  }
+
+  @Test
+  public void testLoadedValueFirst() throws ExecutionException {
+    // Arrange
+    row.set("Data owner");
+    loadingCache.get("project__user");
+    row.set("Data scientist");
+
+    // Act
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    String value = staleCache.get(loadingCache, "project__user");
+
+    // Assert
+    Assertions.assertEquals("Data scientist", value);
+  }
+
+  @Test
+  public void testNoStaleEntry() {
+    // Arrange
+    row.set(new SQLException("database unavailable"));
+
+    // Act & Assert
+    Assertions.assertThrows(ExecutionException.class, () -> staleCache.get(loadingCache, "project__user"));
+  }
+
+  @Test
+  public void testRemovedRow() throws ExecutionException {
+    // Arrange
+    row.set("Data owner");
+    loadingCache.get("project__user");
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    row.set(null);
+
+    // Act
+    Assertions.assertThrows(CacheLoader.InvalidCacheLoadException.class,
+        () -> staleCache.get(loadingCache, "project__user"));
+    row.set(new SQLException("database unavailable"));
+
+    // Assert
+    Assertions.assertThrows(ExecutionException.class, () -> staleCache.get(loadingCache, "project__user"));
+  }
+
+  @Test
+  public void testInvalidate() throws ExecutionException {
+    // Arrange
+    row.set("Data owner");
+    loadingCache.get("project__user");
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    loadingCache.cleanUp();
+
+    // Act
+    staleCache.invalidate("project__user");
+
+    // Assert
+    Assertions.assertEquals(0, staleCache.size());
+  }
+}
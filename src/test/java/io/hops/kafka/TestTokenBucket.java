@@ -0,0 +1,53 @@
+package io.hops.kafka;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestTokenBucket {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void testBurst() {
+    // Arrange
+    TokenBucket tokenBucket = new TokenBucket(10, 3, 0);
+
+    // Act & Assert
+    for (int i = 0; i < 3; i++) {
+      Assertions.assertTrue(tokenBucket.tryAcquire(0));
+    }
+    Assertions.assertFalse(tokenBucket.tryAcquire(0));
+  }
+
+  @Test
+  public void testRefill() {
+    // Arrange
+    TokenBucket tokenBucket = new TokenBucket(10, 1, 0);
+    tokenBucket.tryAcquire(0);
+
+    // Act
+    boolean beforeRefill = tokenBucket.tryAcquire(SECOND / 20);
+    boolean afterRefill = tokenBucket.tryAcquire(SECOND / 10);
+
+    // Assert
+    Assertions.assertFalse(beforeRefill);
+    Assertions.assertTrue(afterRefill);
+  }
+
+  @Test
+  public void testRefillUpToBurst() {
+    // Arrange
+    TokenBucket tokenBucket = new TokenBucket(10, 2, 0);
+
+    // Act
+    int acquired = 0;
+    while (tokenBucket.tryAcquire(10 * SECOND)) {
+      acquired++;
+    }
+
+    // Assert
+    Assertions.assertEquals(2, acquired);
+  }
+}